@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.embulk.spi.json.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the strategies of {@link CapturingPointers} on the same documents.
+ *
+ * <p>A document is a JSON object with {@code width} members named {@code "f0"}, {@code "f1"}, and so on. Each
+ * member is a chain of JSON objects nested {@code depth} levels, such as {@code {"c":{"c":123}}}, with a scalar
+ * at the end. {@code depth = 0} means scalar members.
+ *
+ * <p>{@code hitRatio} of {@code pointers} point to existing members, and the rest point to missing members.
+ * One operation captures values from all the {@code records} documents.
+ *
+ * <p>{@link #captureWithEarlyTermination(Blackhole)} skips the rest of each document once all the pointers have
+ * captured, which pays off only when {@code hitRatio = 1.0}, and the hits are not spread to the last member.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CapturingPointersBenchmark {
+    /**
+     * Strategies to capture JSON values.
+     */
+    public enum Strategy {
+        /**
+         * {@link CapturingPointerToRoot}, which reads the entire document regardless of the pointers.
+         */
+        ROOT,
+
+        /**
+         * {@link CapturingDirectMemberNameList} by {@link CapturingPointers.Builder#addDirectMemberName(String)}.
+         */
+        DIRECT_MEMBER_NAMES,
+
+        /**
+         * {@link CapturingJsonPointerList} by {@link CapturingPointers.Builder#addJsonPointer(String)} to the same
+         * members with {@link #DIRECT_MEMBER_NAMES}.
+         */
+        JSON_POINTERS,
+
+        /**
+         * {@link CapturingJsonPointerList} by {@link CapturingPointers.Builder#addJsonPointer(String)} to the
+         * scalars at the ends of the nested chains.
+         */
+        JSON_POINTERS_TO_LEAVES,
+    }
+
+    @Param({ "ROOT", "DIRECT_MEMBER_NAMES", "JSON_POINTERS", "JSON_POINTERS_TO_LEAVES" })
+    public Strategy strategy;
+
+    @Param({ "1", "10", "100", "1000" })
+    public int pointers;
+
+    @Param({ "10", "1000" })
+    public int width;
+
+    @Param({ "0", "8" })
+    public int depth;
+
+    @Param({ "0.1", "0.5", "1.0" })
+    public double hitRatio;
+
+    @Param({ "100" })
+    public int records;
+
+    /**
+     * Generates the documents and the capturing pointers.
+     */
+    @Setup
+    public void setup() {
+        final StringBuilder json = new StringBuilder();
+        for (int i = 0; i < this.records; i++) {
+            appendDocument(json, i, this.width, this.depth);
+            json.append('\n');
+        }
+        this.json = json.toString();
+
+        final int hits = Math.min((int) Math.round(this.pointers * this.hitRatio), this.width);
+        final CapturingPointers.Builder builder = CapturingPointers.builder();
+        if (this.strategy != Strategy.ROOT) {
+            for (int i = 0; i < this.pointers; i++) {
+                // Hits are spread evenly over the members.
+                final String name = (i < hits) ? ("f" + ((long) i * this.width / hits)) : ("missing" + i);
+                switch (this.strategy) {
+                    case DIRECT_MEMBER_NAMES:
+                        builder.addDirectMemberName(name);
+                        break;
+                    case JSON_POINTERS:
+                        builder.addJsonPointer("/" + name);
+                        break;
+                    case JSON_POINTERS_TO_LEAVES:
+                        builder.addJsonPointer("/" + name + repeat("/c", this.depth));
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected strategy: " + this.strategy);
+                }
+            }
+        }
+        this.capturingPointers = builder.build();
+        this.earlyTerminatingPointers = builder.enableEarlyTermination().build();
+        this.builder = JsonValueParser.builder();
+    }
+
+    @Benchmark
+    public void capture(final Blackhole blackhole) throws IOException {
+        captureAll(this.builder.build(this.json), this.capturingPointers, blackhole);
+    }
+
+    @Benchmark
+    public void captureWithEarlyTermination(final Blackhole blackhole) throws IOException {
+        captureAll(this.builder.build(this.json), this.earlyTerminatingPointers, blackhole);
+    }
+
+    /**
+     * Captures into the same array for all the documents.
+     */
+    @Benchmark
+    public void captureInto(final Blackhole blackhole) throws IOException {
+        try (final JsonValueParser parser = this.builder.build(this.json)) {
+            final JsonValue[] values = new JsonValue[this.strategy == Strategy.ROOT ? 1 : this.pointers];
+            while (parser.captureJsonValuesInto(this.capturingPointers, values)) {
+                blackhole.consume(values);
+            }
+        }
+    }
+
+    private static void captureAll(
+            final JsonValueParser parser,
+            final CapturingPointers capturingPointers,
+            final Blackhole blackhole) throws IOException {
+        try {
+            JsonValue[] values;
+            while ((values = parser.captureJsonValues(capturingPointers)) != null) {
+                blackhole.consume(values);
+            }
+        } finally {
+            parser.close();
+        }
+    }
+
+    private static void appendDocument(final StringBuilder json, final int index, final int width, final int depth) {
+        json.append('{');
+        for (int i = 0; i < width; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("\"f").append(i).append("\":");
+            for (int d = 0; d < depth; d++) {
+                json.append("{\"c\":");
+            }
+            json.append(index * width + i);
+            for (int d = 0; d < depth; d++) {
+                json.append('}');
+            }
+        }
+        json.append('}');
+    }
+
+    private static String repeat(final String s, final int times) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    private String json;
+    private CapturingPointers capturingPointers;
+    private CapturingPointers earlyTerminatingPointers;
+    private JsonValueParser.Builder builder;
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.util.Random;
+
+/**
+ * Kinds of stringified JSON inputs used in benchmarks.
+ *
+ * <p>Each corpus is a sequence of top-level JSON values separated by newlines, like NDJSON. The contents are
+ * generated deterministically so that benchmark results are comparable among runs.
+ */
+public enum JsonCorpus {
+    /**
+     * Flat JSON objects with a dozen of members of mixed types, like ordinary log records.
+     */
+    FLAT_RECORDS("/tags") {
+        @Override
+        void appendRecord(final StringBuilder builder, final int index, final Random random) {
+            builder.append("{\"id\":").append(index)
+                    .append(",\"time\":\"2023-01-01T00:00:").append(String.format("%02d", index % 60)).append("Z\"")
+                    .append(",\"host\":\"host-").append(random.nextInt(16)).append(".example.com\"")
+                    .append(",\"method\":\"").append(METHODS[random.nextInt(METHODS.length)]).append('"')
+                    .append(",\"path\":\"/api/v1/items/").append(random.nextInt(100000)).append('"')
+                    .append(",\"status\":").append(STATUSES[random.nextInt(STATUSES.length)])
+                    .append(",\"bytes\":").append(random.nextInt(1 << 20))
+                    .append(",\"duration\":").append(random.nextDouble() * 1000.0)
+                    .append(",\"cached\":").append(random.nextBoolean())
+                    .append(",\"referer\":null")
+                    .append(",\"country\":\"").append(COUNTRIES[random.nextInt(COUNTRIES.length)]).append('"')
+                    .append(",\"tags\":[\"a\",\"b\",\"c\"]")
+                    .append('}');
+        }
+    },
+
+    /**
+     * Deeply nested JSON objects, with a JSON Array and scalars at each level.
+     */
+    NESTED_OBJECTS("/child/items") {
+        @Override
+        void appendRecord(final StringBuilder builder, final int index, final Random random) {
+            for (int depth = 0; depth < NESTING_DEPTH; depth++) {
+                builder.append("{\"level\":").append(depth).append(",\"items\":[").append(random.nextInt(100)).append(",true],\"child\":");
+            }
+            builder.append("{\"leaf\":").append(index).append('}');
+            for (int depth = 0; depth < NESTING_DEPTH; depth++) {
+                builder.append('}');
+            }
+        }
+    },
+
+    /**
+     * JSON Arrays consisting mostly of integral and floating-point numbers.
+     */
+    NUMBER_ARRAYS("/1") {
+        @Override
+        void appendRecord(final StringBuilder builder, final int index, final Random random) {
+            builder.append('[');
+            for (int i = 0; i < ARRAY_LENGTH; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                if (i % 2 == 0) {
+                    builder.append(random.nextLong());
+                } else {
+                    builder.append(random.nextDouble() * 1.0e6);
+                }
+            }
+            builder.append(']');
+        }
+    },
+
+    /**
+     * JSON objects with long JSON Strings, including escaped characters.
+     */
+    LONG_STRINGS("/message") {
+        @Override
+        void appendRecord(final StringBuilder builder, final int index, final Random random) {
+            builder.append("{\"id\":").append(index).append(",\"message\":\"");
+            for (int i = 0; i < STRING_LENGTH; i++) {
+                final int c = random.nextInt(64);
+                if (c == 0) {
+                    builder.append("\\n");
+                } else if (c == 1) {
+                    builder.append("\\\"");
+                } else if (c == 2) {
+                    builder.append("\\u3042");
+                } else {
+                    builder.append((char) ('a' + (c % 26)));
+                }
+            }
+            builder.append("\"}");
+        }
+    },
+
+    /**
+     * Wide JSON objects with hundreds of members.
+     */
+    WIDE_OBJECTS("/field1") {
+        @Override
+        void appendRecord(final StringBuilder builder, final int index, final Random random) {
+            builder.append('{');
+            for (int i = 0; i < OBJECT_WIDTH; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                builder.append("\"field").append(i).append("\":");
+                if (i % 3 == 0) {
+                    builder.append(random.nextInt(1000));
+                } else if (i % 3 == 1) {
+                    builder.append("\"value").append(random.nextInt(1000)).append('"');
+                } else {
+                    builder.append(random.nextBoolean());
+                }
+            }
+            builder.append('}');
+        }
+    },
+    ;
+
+    JsonCorpus(final String pointerInRecord) {
+        this.pointerInRecord = pointerInRecord;
+    }
+
+    /**
+     * Generates a stringified JSON of the corpus.
+     *
+     * @param records  the number of top-level JSON values to generate
+     * @return the stringified JSON generated
+     */
+    public String generate(final int records) {
+        final Random random = new Random(SEED);
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            this.appendRecord(builder, i, random);
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns a JSON Pointer that points to a value in every top-level JSON value of the corpus.
+     *
+     * @return the JSON Pointer
+     */
+    public String pointerInRecord() {
+        return this.pointerInRecord;
+    }
+
+    abstract void appendRecord(StringBuilder builder, int index, Random random);
+
+    private static final long SEED = 20230101L;
+
+    private static final int NESTING_DEPTH = 64;
+    private static final int ARRAY_LENGTH = 1000;
+    private static final int STRING_LENGTH = 4096;
+    private static final int OBJECT_WIDTH = 500;
+
+    private static final String[] METHODS = { "GET", "GET", "GET", "POST", "PUT", "DELETE" };
+    private static final int[] STATUSES = { 200, 200, 200, 201, 204, 301, 304, 400, 404, 500 };
+    private static final String[] COUNTRIES = { "JP", "US", "GB", "DE", "FR", "IN", "BR" };
+
+    private final String pointerInRecord;
+}
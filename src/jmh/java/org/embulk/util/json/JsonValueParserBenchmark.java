@@ -0,0 +1,238 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.embulk.spi.json.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks {@link JsonValueParser#readJsonValue()} over {@link JsonCorpus}.
+ *
+ * <p>One operation reads all the JSON values in a corpus. Run with the GC profiler ({@code -prof gc}) to see
+ * {@code gc.alloc.rate.norm}, the allocated bytes per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JsonValueParserBenchmark {
+    @Param({ "FLAT_RECORDS", "NESTED_OBJECTS", "NUMBER_ARRAYS", "LONG_STRINGS", "WIDE_OBJECTS" })
+    public JsonCorpus corpus;
+
+    @Param({ "100" })
+    public int records;
+
+    @Param({ "0", "64" })
+    public int objectShapeCacheSize;
+
+    @Param({ "false", "true" })
+    public boolean lazyJsonValues;
+
+    /**
+     * Generates the corpus to read.
+     */
+    @Setup
+    public void setup() {
+        this.json = this.corpus.generate(this.records);
+        this.bytes = this.json.getBytes(StandardCharsets.UTF_8);
+        this.builder = JsonValueParser.builder().setObjectShapeCacheSize(this.objectShapeCacheSize);
+        if (this.lazyJsonValues) {
+            this.builder.enableLazyJsonValues();
+        }
+        this.factory = this.builder.buildFactory();
+        this.lines = this.json.split("\n");
+    }
+
+    @Benchmark
+    public void readFromString(final Blackhole blackhole) throws IOException {
+        readAll(this.builder.build(this.json), blackhole);
+    }
+
+    @Benchmark
+    public void readFromInputStream(final Blackhole blackhole) throws IOException {
+        readAll(this.builder.build(new ByteArrayInputStream(this.bytes)), blackhole);
+    }
+
+    @Benchmark
+    public void readFromByteArray(final Blackhole blackhole) throws IOException {
+        readAll(this.builder.build(this.bytes, 0, this.bytes.length), blackhole);
+    }
+
+    /**
+     * Reads JSON values in batches of 64 into the same array.
+     */
+    @Benchmark
+    public void readBatchesFromByteArray(final Blackhole blackhole) throws IOException {
+        try (final JsonValueParser parser = this.builder.build(this.bytes, 0, this.bytes.length)) {
+            final JsonValue[] values = new JsonValue[64];
+            int count;
+            while ((count = parser.readJsonValues(values)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    blackhole.consume(values[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads JSON values from a parallel stream, which splits the bytes at line feeds between records.
+     */
+    @Benchmark
+    public void readParallelStreamFromByteArray(final Blackhole blackhole) throws IOException {
+        try (final Stream<JsonValue> stream = this.builder.build(this.bytes, 0, this.bytes.length).stream()) {
+            stream.parallel().forEach(blackhole::consume);
+        }
+    }
+
+    /**
+     * Reads each line as a small input with a new builder, as many small strings are parsed one by one.
+     */
+    @Benchmark
+    public void readLinesWithNewBuilders(final Blackhole blackhole) throws IOException {
+        for (final String line : this.lines) {
+            final JsonValueParser.Builder builder = JsonValueParser.builder().setObjectShapeCacheSize(this.objectShapeCacheSize);
+            if (this.lazyJsonValues) {
+                builder.enableLazyJsonValues();
+            }
+            readAll(builder.build(line), blackhole);
+        }
+    }
+
+    /**
+     * Reads each line as a small input with the factory built once.
+     */
+    @Benchmark
+    public void readLinesFromFactory(final Blackhole blackhole) throws IOException {
+        for (final String line : this.lines) {
+            readAll(this.factory.createParser(line), blackhole);
+        }
+    }
+
+    /**
+     * Reads each line as a small input with a parser reset for each line.
+     */
+    @Benchmark
+    public void readLinesWithReset(final Blackhole blackhole) throws IOException {
+        try (final JsonValueParser parser = this.factory.createParser("")) {
+            for (final String line : this.lines) {
+                parser.reset(line);
+                JsonValue value;
+                while ((value = parser.readJsonValue()) != null) {
+                    blackhole.consume(value);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void readTapeFromString(final Blackhole blackhole) throws IOException {
+        try (final JsonValueParser parser = this.builder.build(this.json)) {
+            blackhole.consume(parser.readJsonTape(this.records));
+        }
+    }
+
+    /**
+     * Reads the corpus as newline-delimited JSON in parallel on the common pool, in chunks of 4 KB.
+     */
+    @Benchmark
+    public void readParallelFromInputStream(final Blackhole blackhole) throws IOException {
+        try (final ParallelJsonValueParser parser = JsonValueParser.builder()
+                .setObjectShapeCacheSize(this.objectShapeCacheSize)
+                .setParallelChunkSize(4096)
+                .buildParallel(new ByteArrayInputStream(this.bytes))) {
+            JsonValue value;
+            while ((value = parser.readJsonValue()) != null) {
+                blackhole.consume(value);
+            }
+        }
+    }
+
+    /**
+     * Feeds the bytes in pieces of 8 KB, as buffers arrive in an event-driven pipeline, and polls JSON values.
+     */
+    @Benchmark
+    public void readNonBlockingFromByteArray(final Blackhole blackhole) throws IOException {
+        try (final NonBlockingJsonValueParser parser = this.builder.buildNonBlocking()) {
+            for (int offset = 0; offset < this.bytes.length; offset += 8192) {
+                parser.feed(this.bytes, offset, Math.min(8192, this.bytes.length - offset));
+                JsonValue value;
+                while ((value = parser.readJsonValue()) != null) {
+                    blackhole.consume(value);
+                }
+            }
+            parser.endOfInput();
+            JsonValue value;
+            while ((value = parser.readJsonValue()) != null) {
+                blackhole.consume(value);
+            }
+        }
+    }
+
+    /**
+     * Reads JSON values, and accesses only their top-level, as a filter which looks at a few members of each record.
+     */
+    @Benchmark
+    public void readTopLevelFromString(final Blackhole blackhole) throws IOException {
+        try (final JsonValueParser parser = this.builder.build(this.json)) {
+            JsonValue value;
+            while ((value = parser.readJsonValue()) != null) {
+                if (value.isJsonObject()) {
+                    blackhole.consume(value.asJsonObject().size());
+                } else if (value.isJsonArray()) {
+                    blackhole.consume(value.asJsonArray().size());
+                } else {
+                    blackhole.consume(value);
+                }
+            }
+        }
+    }
+
+    private static void readAll(final JsonValueParser parser, final Blackhole blackhole) throws IOException {
+        try {
+            JsonValue value;
+            while ((value = parser.readJsonValue()) != null) {
+                blackhole.consume(value);
+            }
+        } finally {
+            parser.close();
+        }
+    }
+
+    private String json;
+    private byte[] bytes;
+    private JsonValueParser.Builder builder;
+    private JsonValueParserFactory factory;
+    private String[] lines;
+}
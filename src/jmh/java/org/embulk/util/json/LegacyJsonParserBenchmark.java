@@ -0,0 +1,163 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.embulk.spi.json.JsonValue;
+import org.msgpack.value.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the deprecated {@link JsonParser} for MessagePack {@link Value} with {@link JsonValueParser}.
+ *
+ * <p>The same corpus is read by both, from an {@link java.io.InputStream} as a whole, and from each
+ * {@link String} per record. The "WithPointer" variants read only a JSON value at
+ * {@link JsonCorpus#pointerInRecord()} in each record.
+ */
+@SuppressWarnings("deprecation")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LegacyJsonParserBenchmark {
+    @Param({ "FLAT_RECORDS", "NESTED_OBJECTS", "NUMBER_ARRAYS", "LONG_STRINGS", "WIDE_OBJECTS" })
+    public JsonCorpus corpus;
+
+    @Param({ "100" })
+    public int records;
+
+    /**
+     * Generates the corpus to read.
+     */
+    @Setup
+    public void setup() {
+        final String json = this.corpus.generate(this.records);
+        this.bytes = json.getBytes(StandardCharsets.UTF_8);
+        this.lines = json.split("\n");
+        this.pointer = this.corpus.pointerInRecord();
+
+        this.legacyParser = new JsonParser();
+        this.builder = JsonValueParser.builder();
+        this.builderWithPointer = JsonValueParser.builder().root(this.pointer);
+    }
+
+    @Benchmark
+    public void legacyOpen(final Blackhole blackhole) throws IOException {
+        readAll(this.legacyParser.open(new ByteArrayInputStream(this.bytes)), blackhole);
+    }
+
+    @Benchmark
+    public void legacyOpenWithPointer(final Blackhole blackhole) throws IOException {
+        readAll(this.legacyParser.openWithOffsetInJsonPointer(new ByteArrayInputStream(this.bytes), this.pointer), blackhole);
+    }
+
+    @Benchmark
+    public void jsonValueParserFromInputStream(final Blackhole blackhole) throws IOException {
+        readAll(this.builder.build(new ByteArrayInputStream(this.bytes)), blackhole);
+    }
+
+    @Benchmark
+    public void jsonValueParserFromInputStreamWithPointer(final Blackhole blackhole) throws IOException {
+        readAll(this.builderWithPointer.build(new ByteArrayInputStream(this.bytes)), blackhole);
+    }
+
+    /**
+     * Parses each record by {@link JsonParser#parse(String)}.
+     */
+    @Benchmark
+    public void legacyParse(final Blackhole blackhole) {
+        for (final String line : this.lines) {
+            blackhole.consume(this.legacyParser.parse(line));
+        }
+    }
+
+    /**
+     * Parses each record by {@link JsonParser#parseWithOffsetInJsonPointer(String, String)}.
+     */
+    @Benchmark
+    public void legacyParseWithPointer(final Blackhole blackhole) {
+        for (final String line : this.lines) {
+            blackhole.consume(this.legacyParser.parseWithOffsetInJsonPointer(line, this.pointer));
+        }
+    }
+
+    /**
+     * Parses each record by {@link JsonValueParser.Builder#build(String)}.
+     */
+    @Benchmark
+    public void jsonValueParserFromString(final Blackhole blackhole) throws IOException {
+        for (final String line : this.lines) {
+            readAll(this.builder.build(line), blackhole);
+        }
+    }
+
+    /**
+     * Parses each record by {@link JsonValueParser.Builder#build(String)} with a root JSON Pointer.
+     */
+    @Benchmark
+    public void jsonValueParserFromStringWithPointer(final Blackhole blackhole) throws IOException {
+        for (final String line : this.lines) {
+            readAll(this.builderWithPointer.build(line), blackhole);
+        }
+    }
+
+    private static void readAll(final JsonParser.Stream stream, final Blackhole blackhole) throws IOException {
+        try {
+            Value value;
+            while ((value = stream.next()) != null) {
+                blackhole.consume(value);
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void readAll(final JsonValueParser parser, final Blackhole blackhole) throws IOException {
+        try {
+            JsonValue value;
+            while ((value = parser.readJsonValue()) != null) {
+                blackhole.consume(value);
+            }
+        } finally {
+            parser.close();
+        }
+    }
+
+    private byte[] bytes;
+    private String[] lines;
+    private String pointer;
+
+    private JsonParser legacyParser;
+    private JsonValueParser.Builder builder;
+    private JsonValueParser.Builder builderWithPointer;
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.embulk.spi.json.JsonValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks reading a file by {@link JsonValueParser.Builder#build(Path)} against reading it through
+ * {@link InputStream}.
+ *
+ * <p>The file is a single top-level JSON Array of the records of {@link JsonCorpus}, which is flattened into its
+ * elements, as a large exported file is read. One operation reads all the JSON values in the file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MappedFileBenchmark {
+    @Param({ "FLAT_RECORDS", "LONG_STRINGS", "WIDE_OBJECTS" })
+    public JsonCorpus corpus;
+
+    @Param({ "10000" })
+    public int records;
+
+    /**
+     * Writes the corpus into a temporary file as a JSON Array.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final String json = "[" + this.corpus.generate(this.records).trim().replace("\n", ",\n") + "]";
+        this.path = Files.createTempFile("embulk-util-json-benchmark", ".json");
+        Files.write(this.path, json.getBytes(StandardCharsets.UTF_8));
+        this.builder = JsonValueParser.builder().setDepthToFlattenJsonArrays(1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.path);
+    }
+
+    @Benchmark
+    public void readFromPath(final Blackhole blackhole) throws IOException {
+        readAll(this.builder.build(this.path), blackhole);
+    }
+
+    @Benchmark
+    public void readFromInputStream(final Blackhole blackhole) throws IOException {
+        readAll(this.builder.build(Files.newInputStream(this.path)), blackhole);
+    }
+
+    private static void readAll(final JsonValueParser parser, final Blackhole blackhole) throws IOException {
+        try {
+            JsonValue value;
+            while ((value = parser.readJsonValue()) != null) {
+                blackhole.consume(value);
+            }
+        } finally {
+            parser.close();
+        }
+    }
+
+    private Path path;
+    private JsonValueParser.Builder builder;
+}
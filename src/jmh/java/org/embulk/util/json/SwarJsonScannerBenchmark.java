@@ -0,0 +1,126 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares {@link SwarJsonScanner} with a byte-by-byte scan to find line feeds between JSON values in {@link JsonCorpus}.
+ *
+ * <p>One operation finds all the line feeds in a corpus. Both return the number of line feeds found. Use the bytes of
+ * the corpus per second to compare with the memory bandwidth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SwarJsonScannerBenchmark {
+    @Param({ "FLAT_RECORDS", "NESTED_OBJECTS", "NUMBER_ARRAYS", "LONG_STRINGS", "WIDE_OBJECTS" })
+    public JsonCorpus corpus;
+
+    @Param({ "100" })
+    public int records;
+
+    /**
+     * Generates the corpus to scan.
+     */
+    @Setup
+    public void setup() {
+        this.bytes = this.corpus.generate(this.records).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public int findLineFeedsBySwar() {
+        final byte[] bytes = this.bytes;
+        final SwarJsonScanner scanner = new SwarJsonScanner();
+        int count = 0;
+        for (int i = scanner.findLineFeed(bytes, 0, bytes.length); i >= 0; i = scanner.findLineFeed(bytes, i + 1, bytes.length)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int findLineFeedsByteByByte() {
+        final byte[] bytes = this.bytes;
+        boolean isInString = false;
+        boolean isEscaped = false;
+        int depth = 0;
+        int count = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            final byte b = bytes[i];
+            if (isInString) {
+                if (isEscaped) {
+                    isEscaped = false;
+                } else if (b == '\\') {
+                    isEscaped = true;
+                } else if (b == '"') {
+                    isInString = false;
+                }
+            } else if (b == '"') {
+                isInString = true;
+            } else if (b == '[' || b == '{') {
+                depth++;
+            } else if ((b == ']' || b == '}') && depth > 0) {
+                depth--;
+            } else if (b == '\n' && depth == 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Skips each record as a JSON value, as {@link JsonElementSplitter} skips elements.
+     */
+    @Benchmark
+    public int skipValuesBySwar() {
+        final byte[] bytes = this.bytes;
+        final SwarJsonScanner scanner = new SwarJsonScanner();
+        int count = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            final byte b = bytes[i];
+            if (b == '[' || b == '{' || b == '"') {
+                i = scanner.skipValue(bytes, i, bytes.length);
+                if (i < 0) {
+                    break;
+                }
+                count++;
+            } else {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    private byte[] bytes;
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads bytes from the position to the limit of {@link ByteBuffer}, without copying them in advance.
+ *
+ * <p>It reads from a duplicate of the buffer, so that the position of the buffer given is not changed.
+ */
+final class ByteBufferInputStream extends InputStream {
+    ByteBufferInputStream(final ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public int read() {
+        if (!this.buffer.hasRemaining()) {
+            return -1;
+        }
+        return this.buffer.get() & 0xff;
+    }
+
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) {
+        if (length == 0) {
+            return 0;
+        }
+        final int remaining = this.buffer.remaining();
+        if (remaining == 0) {
+            return -1;
+        }
+        final int read = Math.min(length, remaining);
+        this.buffer.get(bytes, offset, read);
+        return read;
+    }
+
+    @Override
+    public long skip(final long n) {
+        if (n <= 0) {
+            return 0;
+        }
+        final int skipped = (int) Math.min(n, this.buffer.remaining());
+        this.buffer.position(this.buffer.position() + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return this.buffer.remaining();
+    }
+
+    private final ByteBuffer buffer;
+}
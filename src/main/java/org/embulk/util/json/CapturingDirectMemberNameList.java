@@ -20,6 +20,7 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -27,7 +28,10 @@ import java.util.Map;
 import org.embulk.spi.json.JsonValue;
 
 class CapturingDirectMemberNameList extends CapturingPointers {
-    private CapturingDirectMemberNameList(final List<String> memberNames) {
+    private CapturingDirectMemberNameList(
+            final List<String> memberNames,
+            final boolean terminatesEarly,
+            final boolean validatesAfterTermination) {
         final HashMap<String, Integer> memberNamesMap = new HashMap<>();
         int i = 0;
         for (final String memberName : memberNames) {
@@ -37,39 +41,70 @@ class CapturingDirectMemberNameList extends CapturingPointers {
         this.memberNames = Collections.unmodifiableMap(memberNamesMap);
 
         this.size = memberNames.size();
+
+        this.terminatesEarly = terminatesEarly;
+        this.validatesAfterTermination = validatesAfterTermination;
     }
 
     static CapturingDirectMemberNameList of(final List<String> memberNames) {
-        return new CapturingDirectMemberNameList(Collections.unmodifiableList(new ArrayList<>(memberNames)));
+        return of(memberNames, false, false);
+    }
+
+    static CapturingDirectMemberNameList of(
+            final List<String> memberNames,
+            final boolean terminatesEarly,
+            final boolean validatesAfterTermination) {
+        return new CapturingDirectMemberNameList(
+                Collections.unmodifiableList(new ArrayList<>(memberNames)), terminatesEarly, validatesAfterTermination);
     }
 
     @Override
-    JsonValue[] captureFromParser(
+    JsonValue[] captureUntranslated(
             final JsonParser jacksonParser,
-            final InternalJsonValueReader valueReader) throws IOException {
-        try {
-            final JsonToken firstToken = jacksonParser.nextToken();
-            if (firstToken == null) {
-                return null;
-            }
-            if (firstToken != JsonToken.START_OBJECT) {
-                throw new JsonParseException("Failed to parse JSON: Expected JSON Object, but " + firstToken.toString());
-            }
-        } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
-            throw new JsonParseException("Failed to parse JSON", ex);
-        } catch (final IOException ex) {
-            throw ex;
-        } catch (final JsonParseException ex) {
-            throw ex;
-        } catch (final RuntimeException ex) {
-            throw new JsonParseException("Failed to parse JSON", ex);
+            final InternalJsonValueReader valueReader,
+            final JsonValue[] destination) throws IOException {
+        if (!startObject(jacksonParser)) {
+            return null;
+        }
+
+        final JsonValue[] values;
+        if (destination == null) {
+            values = new JsonValue[this.size];
+        } else {
+            Arrays.fill(destination, null);
+            values = destination;
         }
+        this.captureMembers(jacksonParser, valueReader, values);
+        return values;
+    }
 
-        final JsonValue[] values = new JsonValue[this.size];
-        for (int i = 0; i < values.length; i++) {
-            values[i] = null;
+    @Override
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Reads the first token of a JSON object.
+     *
+     * @return {@code false} if the parser reaches at the end of input
+     */
+    private static boolean startObject(final JsonParser jacksonParser) throws IOException {
+        final JsonToken firstToken = jacksonParser.nextToken();
+        if (firstToken == null) {
+            return false;
+        }
+        if (firstToken != JsonToken.START_OBJECT) {
+            throw new JsonParseException("Failed to parse JSON: Expected JSON Object, but " + firstToken.toString());
         }
+        return true;
+    }
 
+    private void captureMembers(
+            final JsonParser jacksonParser,
+            final InternalJsonValueReader valueReader,
+            final JsonValue[] values) throws IOException {
+        // Only distinct member names are counted, as only the last index is captured for a duplicated member name.
+        int remainingMembers = this.memberNames.size();
         while (true) {
             final JsonToken token = jacksonParser.nextToken();
 
@@ -93,17 +128,43 @@ class CapturingDirectMemberNameList extends CapturingPointers {
             }
 
             final Integer index = this.memberNames.get(key);
-            if (index == null) {
+            if (index == null || (this.terminatesEarly && remainingMembers == 0)) {
                 valueReader.skip(jacksonParser);
             } else {
-                values[index] = valueReader.read(jacksonParser);
+                if (values[index] == null) {
+                    remainingMembers--;
+                }
+                values[index] = valueReader.readUntranslated(jacksonParser);
+                if (this.terminatesEarly && remainingMembers == 0 && !this.validatesAfterTermination) {
+                    skipRestOfObject(jacksonParser);
+                    break;
+                }
             }
         }
+    }
 
-        return values;
+    /**
+     * Skips the rest of the JSON object to its end, without checking the nesting depth.
+     */
+    private static void skipRestOfObject(final JsonParser jacksonParser) throws IOException {
+        while (true) {
+            final JsonToken token = jacksonParser.nextToken();
+            if (token == null) {
+                throw new JsonParseException("Failed to parse JSON: Unexpected end");
+            }
+            if (token == JsonToken.END_OBJECT) {
+                return;
+            }
+            if (token.isStructStart()) {
+                jacksonParser.skipChildren();
+            }
+        }
     }
 
     private final Map<String, Integer> memberNames;
 
     private final int size;
+
+    private final boolean terminatesEarly;
+    private final boolean validatesAfterTermination;
 }
@@ -30,9 +30,15 @@ import org.embulk.spi.json.JsonValue;
  * @see <a href="https://docs.oracle.com/javase/8/docs/api/java/util/regex/Pattern.html#cg">Groups and capturing</a>
  */
 class CapturingJsonPointerList extends CapturingPointers {
-    private CapturingJsonPointerList(final JsonPointerTree tree, final int size) {
-        this.tree = tree;
+    private CapturingJsonPointerList(
+            final JsonPointerAutomaton automaton,
+            final int size,
+            final boolean terminatesEarly,
+            final boolean validatesAfterTermination) {
+        this.automaton = automaton;
         this.size = size;
+        this.terminatesEarly = terminatesEarly;
+        this.validatesAfterTermination = validatesAfterTermination;
     }
 
     /**
@@ -42,7 +48,24 @@ class CapturingJsonPointerList extends CapturingPointers {
      * @return the new {@link CapturingJsonPointerList} created
      */
     static CapturingJsonPointerList of(final List<JsonPointer> pointers) {
-        return new CapturingJsonPointerList(JsonPointerTree.of(pointers), pointers.size());
+        return of(pointers, false, false);
+    }
+
+    /**
+     * Creates a {@link CapturingJsonPointerList} instance with capturing pointers by {@link JsonPointer}s.
+     *
+     * @param pointers  capturing pointers by {@link JsonPointer}s
+     * @param terminatesEarly  {@code true} to skip the rest of a JSON value once all the pointers have captured
+     * @param validatesAfterTermination  {@code true} to check the nesting depth in the rest skipped
+     * @return the new {@link CapturingJsonPointerList} created
+     */
+    static CapturingJsonPointerList of(
+            final List<JsonPointer> pointers,
+            final boolean terminatesEarly,
+            final boolean validatesAfterTermination) {
+        // The tree is only an intermediate to be compiled. The automaton is kept instead for smaller memory, and faster lookups.
+        return new CapturingJsonPointerList(
+                JsonPointerAutomaton.compile(JsonPointerTree.of(pointers)), pointers.size(), terminatesEarly, validatesAfterTermination);
     }
 
     /**
@@ -68,38 +91,46 @@ class CapturingJsonPointerList extends CapturingPointers {
      * <p>The returned array of JSON values consists of three elements. The first element corresponds to
      * {@code "/foo"}, the second to {@code "/bar"}, and the third to {@code "/baz"}.
      *
+     * <p>The state to capture is kept in {@link TreeBasedCapturer} cached in the {@link InternalJsonValueReader}, which
+     * is per parser. It is reused for the next JSON value while the same list captures from the same parser.
+     *
      * @param parser  {@link com.fasterxml.jackson.core.JsonParser} to read from
+     * @param destination  the array to overwrite with captured JSON values, or {@code null} to allocate a new array
      * @return an array of captured JSON values
-     * @throws IOException  when failing to read
+     * @throws IOException  when failing to read, which is not translated
      */
     @Override
-    JsonValue[] captureFromParser(final JsonParser parser, final InternalJsonValueReader valueReader) throws IOException {
-        final TreeBasedCapturer capturer = new TreeBasedCapturer(
-                parser,
-                this.tree,
-                this.size,
-                valueReader);
-
-        final boolean isFirstAvailable = capturer.next();
-        if (!isFirstAvailable) {
-            return null;
-        }
-
-        while (capturer.next()) {
-            ;
-        }
-
-        return capturer.peekValues();
+    JsonValue[] captureUntranslated(
+            final JsonParser parser,
+            final InternalJsonValueReader valueReader,
+            final JsonValue[] destination) throws IOException {
+        return valueReader.treeBasedCapturer(this).captureUntranslated(parser, destination);
     }
 
     /**
      * Returns the number of capturing pointers specified.
      */
+    @Override
     int size() {
         return this.size;
     }
 
-    private final JsonPointerTree tree;
+    JsonPointerAutomaton automaton() {
+        return this.automaton;
+    }
+
+    boolean terminatesEarly() {
+        return this.terminatesEarly;
+    }
+
+    boolean validatesAfterTermination() {
+        return this.validatesAfterTermination;
+    }
+
+    private final JsonPointerAutomaton automaton;
 
     private final int size;
+
+    private final boolean terminatesEarly;
+    private final boolean validatesAfterTermination;
 }
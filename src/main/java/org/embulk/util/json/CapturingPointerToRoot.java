@@ -25,18 +25,24 @@ class CapturingPointerToRoot extends CapturingPointers {
     }
 
     @Override
-    JsonValue[] captureFromParser(
+    JsonValue[] captureUntranslated(
             final JsonParser jacksonParser,
-            final InternalJsonValueReader valueReader) throws IOException {
-        final JsonValue value = valueReader.read(jacksonParser);
+            final InternalJsonValueReader valueReader,
+            final JsonValue[] destination) throws IOException {
+        final JsonValue value = valueReader.readUntranslated(jacksonParser);
         if (value == null) {
             return null;
         }
 
-        final JsonValue[] values = new JsonValue[1];
+        final JsonValue[] values = destination != null ? destination : new JsonValue[1];
         values[0] = value;
         return values;
     }
 
+    @Override
+    int size() {
+        return 1;
+    }
+
     static final CapturingPointerToRoot INSTANCE = new CapturingPointerToRoot();
 }
@@ -65,6 +65,9 @@ public abstract class CapturingPointers {
             this.jsonPointerExceptions = new ArrayList<>();
 
             this.hasAtLeastOneJsonPointer = false;
+
+            this.terminatesEarly = false;
+            this.validatesAfterTermination = false;
         }
 
         /**
@@ -137,6 +140,42 @@ public abstract class CapturingPointers {
             return this;
         }
 
+        /**
+         * Enables terminating early to capture from a JSON value once all the pointers have captured JSON values.
+         *
+         * <p>The rest of the JSON value is skipped by {@link com.fasterxml.jackson.core.JsonParser#skipChildren()},
+         * without matching the pointers nor building JSON values. Jackson still reads the tokens in the rest to find the
+         * end of the JSON value, then the next JSON value is captured from the right position, and malformed JSON is
+         * still detected. The maximum nesting depth set by {@link JsonValueParser.Builder#setMaxNestingDepth(int)} is not
+         * checked in the rest, though. Use {@link #enableStrictEarlyTermination()} to check it.
+         *
+         * <p>It pays off when the JSON values to capture come first in large JSON values, such as headers before a body.
+         * Note that members after all the pointers have captured are not captured even if they have duplicated member names,
+         * while the last of duplicated members is captured without terminating early. It does not affect capturing the root
+         * JSON values without any pointer.
+         *
+         * @return this builder
+         */
+        public Builder enableEarlyTermination() {
+            this.terminatesEarly = true;
+            this.validatesAfterTermination = false;
+            return this;
+        }
+
+        /**
+         * Enables terminating early to capture from a JSON value once all the pointers have captured JSON values, with
+         * validating the rest of the JSON value in the same way as it is read.
+         *
+         * <p>It is the same with {@link #enableEarlyTermination()}, but the maximum nesting depth is checked in the rest.
+         *
+         * @return this builder
+         */
+        public Builder enableStrictEarlyTermination() {
+            this.terminatesEarly = true;
+            this.validatesAfterTermination = true;
+            return this;
+        }
+
         /**
          * Builds "capturing pointers".
          *
@@ -158,9 +197,9 @@ public abstract class CapturingPointers {
                     throw ex;
                 }
 
-                return CapturingJsonPointerList.of(this.jsonPointers);
+                return CapturingJsonPointerList.of(this.jsonPointers, this.terminatesEarly, this.validatesAfterTermination);
             } else {
-                return CapturingDirectMemberNameList.of(this.directMemberNames);
+                return CapturingDirectMemberNameList.of(this.directMemberNames, this.terminatesEarly, this.validatesAfterTermination);
             }
         }
 
@@ -170,6 +209,9 @@ public abstract class CapturingPointers {
         private final ArrayList<RuntimeException> jsonPointerExceptions;
 
         private boolean hasAtLeastOneJsonPointer;
+
+        private boolean terminatesEarly;
+        private boolean validatesAfterTermination;
     }
 
     /**
@@ -187,9 +229,89 @@ public abstract class CapturingPointers {
      * @param parser  the parser to capture values from
      * @return the array of captured JSON values, or {@code null} if the parser reaches at the end of input in the beginning
      */
-    abstract JsonValue[] captureFromParser(
+    JsonValue[] captureFromParser(
+            final JsonParser parser,
+            final InternalJsonValueReader valueReader) throws IOException {
+        return this.captureFromParserInto(parser, valueReader, null);
+    }
+
+    /**
+     * Captures JSON values with the capturing pointers from the parser into the array.
+     *
+     * @param parser  the parser to capture values from
+     * @param destination  the array to overwrite with captured JSON values, whose length is {@link #size()}, or
+     *     {@code null} to allocate a new array
+     * @return the array of captured JSON values, which is {@code destination} if given, or {@code null} if the parser
+     *     reaches at the end of input in the beginning
+     */
+    JsonValue[] captureFromParserInto(
+            final JsonParser parser,
+            final InternalJsonValueReader valueReader,
+            final JsonValue[] destination) throws IOException {
+        try {
+            return this.captureUntranslated(parser, valueReader, destination);
+        } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
+            throw new JsonParseException("Failed to parse JSON", ex);
+        } catch (final IOException ex) {
+            throw ex;
+        } catch (final JsonParseException ex) {
+            throw ex;
+        } catch (final RuntimeException ex) {
+            throw new JsonParseException("Failed to parse JSON", ex);
+        }
+    }
+
+    /**
+     * Captures JSON values into the array in the same way, but without translating exceptions, which are translated
+     * by the caller once for many JSON values.
+     */
+    abstract JsonValue[] captureUntranslated(
             final JsonParser parser,
-            final InternalJsonValueReader valueReader) throws IOException;
+            final InternalJsonValueReader valueReader,
+            final JsonValue[] destination) throws IOException;
+
+    /**
+     * Captures JSON values with the capturing pointers from the parser repeatedly, up to the length of the array, with
+     * the exceptions translated only once out of the loop.
+     *
+     * <p>An array of captured JSON values in {@code destination} is reused to be overwritten if its length is
+     * {@link #size()}, or replaced with a new array.
+     *
+     * @param parser  the parser to capture values from
+     * @param destination  the array to capture arrays of JSON values into
+     * @return the number of arrays captured, which is less than the length only at the end of input
+     */
+    int captureFromParser(
+            final JsonParser parser,
+            final InternalJsonValueReader valueReader,
+            final JsonValue[][] destination) throws IOException {
+        final int size = this.size();
+        try {
+            for (int i = 0; i < destination.length; i++) {
+                final JsonValue[] reused = destination[i];
+                final JsonValue[] values =
+                        this.captureUntranslated(parser, valueReader, reused != null && reused.length == size ? reused : null);
+                if (values == null) {
+                    return i;
+                }
+                destination[i] = values;
+            }
+            return destination.length;
+        } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
+            throw new JsonParseException("Failed to parse JSON", ex);
+        } catch (final IOException ex) {
+            throw ex;
+        } catch (final JsonParseException ex) {
+            throw ex;
+        } catch (final RuntimeException ex) {
+            throw new JsonParseException("Failed to parse JSON", ex);
+        }
+    }
+
+    /**
+     * Returns the number of capturing pointers, which is the length of an array of captured JSON values.
+     */
+    abstract int size();
 
     static JsonPointer compileMemberNameToJsonPointer(final String memberName) {
         if ((!memberName.contains("~")) && (!memberName.contains("/"))) {
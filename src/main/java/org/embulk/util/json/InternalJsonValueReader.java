@@ -19,8 +19,7 @@ package org.embulk.util.json;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import org.embulk.spi.json.JsonArray;
 import org.embulk.spi.json.JsonBoolean;
 import org.embulk.spi.json.JsonDouble;
@@ -36,10 +35,34 @@ final class InternalJsonValueReader {
             final boolean hasFallbacksForUnparsableNumbers,
             final double defaultDouble,
             final long defaultLong) {
+        this(hasLiteralsWithNumbers, hasFallbacksForUnparsableNumbers, defaultDouble, defaultLong, DEFAULT_MAX_NESTING_DEPTH, null, null, null, null);
+    }
+
+    InternalJsonValueReader(
+            final boolean hasLiteralsWithNumbers,
+            final boolean hasFallbacksForUnparsableNumbers,
+            final double defaultDouble,
+            final long defaultLong,
+            final int maxNestingDepth,
+            final ObjectShapeCache shapeCache,
+            final JsonLongCache longCache,
+            final JsonStringCache stringCache,
+            final LazyJsonSource.Input lazySource) {
+        if (maxNestingDepth <= 0) {
+            throw new IllegalArgumentException("The maximum nesting depth must be positive.");
+        }
         this.hasLiteralsWithNumbers = hasLiteralsWithNumbers;
         this.hasFallbacksForUnparsableNumbers = hasFallbacksForUnparsableNumbers;
         this.defaultDouble = defaultDouble;
         this.defaultLong = defaultLong;
+        this.maxNestingDepth = maxNestingDepth;
+        this.shapeCache = shapeCache;
+        this.longCache = longCache;
+        this.stringCache = stringCache;
+        this.lazySource = lazySource;
+        this.builders = new ContainerBuilder[INITIAL_STACK_CAPACITY];
+        this.skippingObjects = new boolean[INITIAL_STACK_CAPACITY];
+        this.treeBasedCapturer = null;
     }
 
     boolean hasLiteralsWithNumbers() {
@@ -58,13 +81,40 @@ final class InternalJsonValueReader {
         return this.defaultLong;
     }
 
+    int maxNestingDepth() {
+        return this.maxNestingDepth;
+    }
+
+    /**
+     * Replaces the source to read JSON arrays and objects lazily from, for a new input to the same reader.
+     */
+    void resetLazySource(final LazyJsonSource.Input lazySource) {
+        this.lazySource = lazySource;
+    }
+
+    /**
+     * Returns the capturer for the list of JSON Pointers, which is cached and reused while the same list captures.
+     *
+     * <p>It is cached in the reader, because the reader is created per parser, and is not shared across threads.
+     */
+    TreeBasedCapturer treeBasedCapturer(final CapturingJsonPointerList capturingPointers) {
+        if (this.treeBasedCapturer == null || !this.treeBasedCapturer.isFor(capturingPointers)) {
+            this.treeBasedCapturer = new TreeBasedCapturer(capturingPointers, this);
+        }
+        return this.treeBasedCapturer;
+    }
+
+    JsonLongCache longCache() {
+        return this.longCache;
+    }
+
+    JsonStringCache stringCache() {
+        return this.stringCache;
+    }
+
     JsonValue read(final JsonParser jacksonParser) throws IOException {
         try {
-            final JsonToken token = jacksonParser.nextToken();
-            if (token == null) {
-                return null;
-            }
-            return readJsonValue(jacksonParser, token);
+            return this.readUntranslated(jacksonParser);
         } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
             throw new JsonParseException("Failed to parse JSON", ex);
         } catch (final IOException ex) {
@@ -76,13 +126,33 @@ final class InternalJsonValueReader {
         }
     }
 
-    void skip(final JsonParser jacksonParser) throws IOException {
+    /**
+     * Reads a JSON value without translating exceptions, which are translated by the caller once for many JSON values.
+     */
+    JsonValue readUntranslated(final JsonParser jacksonParser) throws IOException {
+        final JsonToken token = jacksonParser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        return readJsonValue(jacksonParser, token);
+    }
+
+    /**
+     * Reads JSON values up to the length of the array, with the exceptions translated only once out of the loop.
+     *
+     * @return the number of JSON values read, which is less than the length only at the end of input
+     */
+    int read(final JsonParser jacksonParser, final JsonValue[] values) throws IOException {
+        int count = 0;
         try {
-            final JsonToken token = jacksonParser.nextToken();
-            if (token == null) {
-                throw new JsonParseException("Failed to parse JSON");
+            while (count < values.length) {
+                final JsonToken token = jacksonParser.nextToken();
+                if (token == null) {
+                    break;
+                }
+                values[count++] = readJsonValue(jacksonParser, token);
             }
-            this.skipJsonValue(jacksonParser, token);
+            return count;
         } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
             throw new JsonParseException("Failed to parse JSON", ex);
         } catch (final IOException ex) {
@@ -94,75 +164,69 @@ final class InternalJsonValueReader {
         }
     }
 
-    private JsonValue readJsonValue(final JsonParser jacksonParser, final JsonToken token) throws IOException {
-        switch (token) {
-            case VALUE_NULL:
-                return JsonNull.NULL;
+    /**
+     * Skips a JSON value without translating exceptions, which are translated by the caller once for many JSON values.
+     */
+    void skip(final JsonParser jacksonParser) throws IOException {
+        final JsonToken token = jacksonParser.nextToken();
+        if (token == null) {
+            throw new JsonParseException("Failed to parse JSON");
+        }
+        this.skipJsonValue(jacksonParser, token, 0);
+    }
 
-            case VALUE_TRUE:
-                return JsonBoolean.TRUE;
+    /**
+     * Skips the rest of the JSON array or object whose start token has just been read, with validating it.
+     *
+     * <p>The nesting depth is checked as the JSON array or object is at the depth from where the depth is counted.
+     * Exceptions are not translated, but translated by the caller once for many JSON values.
+     *
+     * @param startToken  {@link JsonToken#START_ARRAY} or {@link JsonToken#START_OBJECT} just read
+     * @param depth  the depth of the JSON array or object
+     */
+    void skipChildren(final JsonParser jacksonParser, final JsonToken startToken, final int depth) throws IOException {
+        this.skipJsonValue(jacksonParser, startToken, depth);
+    }
 
-            case VALUE_FALSE:
-                return JsonBoolean.FALSE;
+    /**
+     * Reads a JSON value starting from the token, without recursion for nested structures.
+     *
+     * <p>JSON arrays and objects under construction are kept in an explicit stack {@link #builders}, instead
+     * of Java call frames, so that deeply nested JSON does not overflow the call stack.
+     *
+     * <p>A JSON array or object is only validated, and returned as {@link LazyJsonValue}, if {@link #lazySource} is set.
+     */
+    private JsonValue readJsonValue(final JsonParser jacksonParser, final JsonToken firstToken) throws IOException {
+        if (!firstToken.isStructStart()) {
+            return this.readScalarValue(jacksonParser, firstToken);
+        }
 
-            case VALUE_NUMBER_FLOAT:
-                if (this.hasLiteralsWithNumbers) {
-                    return JsonDouble.withLiteral(this.getDoubleValue(jacksonParser), jacksonParser.getValueAsString());
-                } else {
-                    return JsonDouble.of(this.getDoubleValue(jacksonParser));  // throws JsonParseException
-                }
+        if (this.lazySource != null) {
+            final int start = this.lazySource.startOffset(jacksonParser);
+            this.skipJsonValue(jacksonParser, firstToken, 0);
+            return this.lazySource.lazyValue(jacksonParser, firstToken == JsonToken.START_OBJECT, start);
+        }
 
-            case VALUE_NUMBER_INT:
-                if (this.hasLiteralsWithNumbers) {
-                    return JsonLong.withLiteral(this.getLongValue(jacksonParser), jacksonParser.getValueAsString());
-                } else {
-                    return JsonLong.of(this.getLongValue(jacksonParser));  // throws JsonParseException
-                }
+        int depth = 0;
+        this.pushBuilder(jacksonParser, depth++, firstToken);
 
-            case VALUE_STRING:
-                return JsonString.of(jacksonParser.getText());
+        while (true) {
+            final ContainerBuilder builder = this.builders[depth - 1];
+            final JsonToken token = jacksonParser.nextToken();
 
-            case START_ARRAY: {
-                final List<JsonValue> list = new ArrayList<>();
-                while (true) {
-                    final JsonToken nextToken = jacksonParser.nextToken();
-                    if (nextToken == null) {
-                        throw new JsonParseException(
-                                "Unexpected end of JSON at "
-                                        + jacksonParser.getTokenLocation()
-                                        + " while expecting an element of an array");
-                    }
-                    if (nextToken == JsonToken.END_ARRAY) {
-                        return JsonArray.ofList(list);
-                    }
-                    list.add(this.readJsonValue(jacksonParser, nextToken));
+            final JsonValue value;
+            if (builder.isObject) {
+                if (token == null) {
+                    throw new JsonParseException(
+                            "Unexpected end of JSON at "
+                                    + jacksonParser.getTokenLocation()
+                                    + " while expecting a key of an object");
                 }
-            }
-            // Never fall through from the previous branch of START_ARRAY.
-
-            case START_OBJECT: {
-                final List<String> keys = new ArrayList<>();
-                final List<JsonValue> values = new ArrayList<>();
-
-                while (true) {
-                    final JsonToken nextToken = jacksonParser.nextToken();
-
-                    if (nextToken == null) {
-                        throw new JsonParseException(
-                                "Unexpected end of JSON at "
-                                        + jacksonParser.getTokenLocation()
-                                        + " while expecting a key of an object");
-                    }
-                    if (nextToken == JsonToken.END_OBJECT) {
-                        return JsonObject.ofUnsafe(
-                                keys.toArray(new String[keys.size()]),
-                                values.toArray(new JsonValue[values.size()]));
-                    }
-
-                    if (nextToken != JsonToken.FIELD_NAME) {
+                if (token != JsonToken.END_OBJECT) {
+                    if (token != JsonToken.FIELD_NAME) {
                         throw new JsonParseException(
                                 "Unexpected token "
-                                        + nextToken
+                                        + token
                                         + " at "
                                         + jacksonParser.getTokenLocation());
                     }
@@ -171,25 +235,94 @@ final class InternalJsonValueReader {
                     if (key == null) {
                         throw new JsonParseException(
                                 "Unexpected token "
-                                        + nextToken
+                                        + token
                                         + " at "
                                         + jacksonParser.getTokenLocation());
                     }
 
-                    final JsonToken nextNextToken = jacksonParser.nextToken();
-                    if (nextNextToken == null) {
+                    final JsonToken valueToken = jacksonParser.nextToken();
+                    if (valueToken == null) {
                         throw new JsonParseException(
                                 "Unexpected end of JSON at "
                                         + jacksonParser.getTokenLocation()
                                         + " while expecting a value of an object");
                     }
-                    final JsonValue value = this.readJsonValue(jacksonParser, nextNextToken);
-                    keys.add(key);
-                    values.add(value);
+                    builder.key = key;
+                    if (valueToken.isStructStart()) {
+                        this.pushBuilder(jacksonParser, depth++, valueToken);
+                    } else {
+                        builder.add(this.readScalarValue(jacksonParser, valueToken));
+                    }
+                    continue;
+                }
+                value = builder.build();
+            } else {
+                if (token == null) {
+                    throw new JsonParseException(
+                            "Unexpected end of JSON at "
+                                    + jacksonParser.getTokenLocation()
+                                    + " while expecting an element of an array");
+                }
+                if (token != JsonToken.END_ARRAY) {
+                    if (token.isStructStart()) {
+                        this.pushBuilder(jacksonParser, depth++, token);
+                    } else {
+                        builder.add(this.readScalarValue(jacksonParser, token));
+                    }
+                    continue;
                 }
+                value = builder.build();
             }
-            // Never fall through from the previous branch of START_OBJECT.
 
+            // Reaching here only when a JSON array or object has been completed.
+            depth--;
+            if (depth == 0) {
+                return value;
+            }
+            this.builders[depth - 1].add(value);
+        }
+    }
+
+    /**
+     * Reads a scalar JSON value at the token.
+     *
+     * <p>It is shared with {@link TreeBasedCapturer} so that the number options and the caches work in the same way.
+     */
+    JsonValue readScalarValue(final JsonParser jacksonParser, final JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                return JsonNull.NULL;
+
+            case VALUE_TRUE:
+                return JsonBoolean.TRUE;
+
+            case VALUE_FALSE:
+                return JsonBoolean.FALSE;
+
+            case VALUE_NUMBER_FLOAT:
+                if (this.hasLiteralsWithNumbers) {
+                    return JsonDouble.withLiteral(this.getDoubleValue(jacksonParser), jacksonParser.getValueAsString());
+                } else {
+                    return JsonDouble.of(this.getDoubleValue(jacksonParser));  // throws JsonParseException
+                }
+
+            case VALUE_NUMBER_INT:
+                if (this.hasLiteralsWithNumbers) {
+                    return JsonLong.withLiteral(this.getLongValue(jacksonParser), jacksonParser.getValueAsString());
+                } else if (this.longCache != null) {
+                    return this.longCache.get(this.getLongValue(jacksonParser));  // throws JsonParseException
+                } else {
+                    return JsonLong.of(this.getLongValue(jacksonParser));  // throws JsonParseException
+                }
+
+            case VALUE_STRING:
+                if (this.stringCache != null) {
+                    return this.stringCache.get(jacksonParser);
+                }
+                return JsonString.of(jacksonParser.getText());
+
+            case START_ARRAY:
+            case START_OBJECT:
             case VALUE_EMBEDDED_OBJECT:
             case FIELD_NAME:
             case END_ARRAY:
@@ -201,7 +334,88 @@ final class InternalJsonValueReader {
         }
     }
 
-    private void skipJsonValue(final JsonParser jacksonParser, final JsonToken token) throws IOException {
+    private void pushBuilder(final JsonParser jacksonParser, final int depth, final JsonToken token) {
+        this.checkDepth(jacksonParser, depth);
+        if (depth >= this.builders.length) {
+            this.builders = Arrays.copyOf(this.builders, this.builders.length * 2);
+        }
+        ContainerBuilder builder = this.builders[depth];
+        if (builder == null) {
+            builder = new ContainerBuilder();
+            this.builders[depth] = builder;
+        }
+        builder.start(token == JsonToken.START_OBJECT, this.shapeCache);
+    }
+
+    /**
+     * Skips a JSON value starting from the token, without recursion for nested structures.
+     *
+     * <p>Only whether each nested structure is an object or an array is kept in an explicit stack
+     * {@link #skippingObjects}.
+     */
+    private void skipJsonValue(final JsonParser jacksonParser, final JsonToken firstToken, final int baseDepth) throws IOException {
+        if (!firstToken.isStructStart()) {
+            this.skipScalarValue(jacksonParser, firstToken);
+            return;
+        }
+
+        int depth = 0;
+        this.pushSkipping(jacksonParser, baseDepth, depth++, firstToken);
+
+        while (depth > 0) {
+            final JsonToken token = jacksonParser.nextToken();
+
+            if (this.skippingObjects[depth - 1]) {
+                if (token == null) {
+                    throw new JsonParseException(
+                            "Unexpected end of JSON at "
+                                    + jacksonParser.getTokenLocation()
+                                    + " while expecting a key of an object");
+                }
+                if (token == JsonToken.END_OBJECT) {
+                    depth--;
+                    continue;
+                }
+
+                if (token != JsonToken.FIELD_NAME) {
+                    throw new JsonParseException(
+                            "Unexpected token "
+                                    + token
+                                    + " at "
+                                    + jacksonParser.getTokenLocation());
+                }
+
+                final JsonToken valueToken = jacksonParser.nextToken();
+                if (valueToken == null) {
+                    throw new JsonParseException(
+                            "Unexpected end of JSON at "
+                                    + jacksonParser.getTokenLocation()
+                                    + " while expecting a value of an object");
+                }
+                if (valueToken.isStructStart()) {
+                    this.pushSkipping(jacksonParser, baseDepth, depth++, valueToken);
+                } else {
+                    this.skipScalarValue(jacksonParser, valueToken);
+                }
+            } else {
+                if (token == null) {
+                    throw new JsonParseException(
+                            "Unexpected end of JSON at "
+                                    + jacksonParser.getTokenLocation()
+                                    + " while expecting an element of an array");
+                }
+                if (token == JsonToken.END_ARRAY) {
+                    depth--;
+                } else if (token.isStructStart()) {
+                    this.pushSkipping(jacksonParser, baseDepth, depth++, token);
+                } else {
+                    this.skipScalarValue(jacksonParser, token);
+                }
+            }
+        }
+    }
+
+    private void skipScalarValue(final JsonParser jacksonParser, final JsonToken token) {
         switch (token) {
             case VALUE_NULL:
             case VALUE_TRUE:
@@ -212,54 +426,7 @@ final class InternalJsonValueReader {
                 return;
 
             case START_ARRAY:
-                while (true) {
-                    final JsonToken nextToken = jacksonParser.nextToken();
-                    if (nextToken == null) {
-                        throw new JsonParseException(
-                                "Unexpected end of JSON at "
-                                        + jacksonParser.getTokenLocation()
-                                        + " while expecting an element of an array");
-                    }
-                    if (nextToken == JsonToken.END_ARRAY) {
-                        return;
-                    }
-                    this.skipJsonValue(jacksonParser, nextToken);
-                }
-                // Never fall through from the previous branch of START_ARRAY.
-
             case START_OBJECT:
-                while (true) {
-                    final JsonToken nextToken = jacksonParser.nextToken();
-
-                    if (nextToken == null) {
-                        throw new JsonParseException(
-                                "Unexpected end of JSON at "
-                                        + jacksonParser.getTokenLocation()
-                                        + " while expecting a key of an object");
-                    }
-                    if (nextToken == JsonToken.END_OBJECT) {
-                        return;
-                    }
-
-                    if (nextToken != JsonToken.FIELD_NAME) {
-                        throw new JsonParseException(
-                                "Unexpected token "
-                                        + nextToken
-                                        + " at "
-                                        + jacksonParser.getTokenLocation());
-                    }
-
-                    final JsonToken nextNextToken = jacksonParser.nextToken();
-                    if (nextNextToken == null) {
-                        throw new JsonParseException(
-                                "Unexpected end of JSON at "
-                                        + jacksonParser.getTokenLocation()
-                                        + " while expecting a value of an object");
-                    }
-                    this.skipJsonValue(jacksonParser, nextNextToken);
-                }
-                // Never fall through from the previous branch of START_OBJECT.
-
             case VALUE_EMBEDDED_OBJECT:
             case FIELD_NAME:
             case END_ARRAY:
@@ -271,6 +438,22 @@ final class InternalJsonValueReader {
         }
     }
 
+    private void pushSkipping(final JsonParser jacksonParser, final int baseDepth, final int depth, final JsonToken token) {
+        this.checkDepth(jacksonParser, baseDepth + depth);
+        if (depth >= this.skippingObjects.length) {
+            this.skippingObjects = Arrays.copyOf(this.skippingObjects, this.skippingObjects.length * 2);
+        }
+        this.skippingObjects[depth] = (token == JsonToken.START_OBJECT);
+    }
+
+    private void checkDepth(final JsonParser jacksonParser, final int depth) {
+        if (depth >= this.maxNestingDepth) {
+            throw new JsonParseException(
+                    "JSON is nested deeper than the maximum depth " + this.maxNestingDepth
+                            + " at " + jacksonParser.getTokenLocation());
+        }
+    }
+
     private double getDoubleValue(final JsonParser jacksonParser) throws IOException {
         try {
             return jacksonParser.getDoubleValue();
@@ -293,8 +476,115 @@ final class InternalJsonValueReader {
         }
     }
 
+    /**
+     * A JSON array or object under construction in {@link #readJsonValue(JsonParser, JsonToken)}.
+     *
+     * <p>An instance is kept for each depth, and reused for JSON arrays and objects at the same depth. Its scratch
+     * arrays grow when needed, and are kept for next JSON arrays and objects so that their capacities adapt to
+     * the sizes seen in previous records. An exactly-sized array is copied out only once at the end of a JSON
+     * array or object.
+     */
+    private static final class ContainerBuilder {
+        ContainerBuilder() {
+            this.isObject = false;
+            this.keys = EMPTY_KEYS;
+            this.values = EMPTY_VALUES;
+            this.size = 0;
+            this.key = null;
+            this.shapeCache = null;
+        }
+
+        void start(final boolean isObject, final ObjectShapeCache shapeCache) {
+            this.isObject = isObject;
+            this.shapeCache = shapeCache;
+            this.size = 0;
+            this.key = null;
+        }
+
+        void add(final JsonValue value) {
+            if (this.size >= this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.max(INITIAL_CAPACITY, this.values.length * 2));
+            }
+            if (this.isObject) {
+                // The keys grow only for JSON objects, up to the same capacity with the values.
+                if (this.size >= this.keys.length) {
+                    this.keys = Arrays.copyOf(this.keys, this.values.length);
+                }
+                this.keys[this.size] = this.key;
+            }
+            this.values[this.size++] = value;
+        }
+
+        JsonValue build() {
+            final JsonValue value;
+            if (this.isObject) {
+                final String[] keysArray;
+                if (this.shapeCache != null) {
+                    keysArray = this.shapeCache.canonicalize(this.keys, this.size);
+                } else {
+                    keysArray = Arrays.copyOf(this.keys, this.size);
+                }
+                value = JsonObject.ofUnsafe(keysArray, Arrays.copyOf(this.values, this.size));
+                Arrays.fill(this.keys, 0, this.size, null);
+            } else {
+                value = JsonArray.ofUnsafe(Arrays.copyOf(this.values, this.size));
+            }
+
+            // Not to retain references to the values built.
+            Arrays.fill(this.values, 0, this.size, null);
+            if (this.values.length > MAX_RETAINED_CAPACITY) {
+                this.values = new JsonValue[MAX_RETAINED_CAPACITY];
+            }
+            if (this.keys.length > MAX_RETAINED_CAPACITY) {
+                this.keys = new String[MAX_RETAINED_CAPACITY];
+            }
+            this.size = 0;
+            return value;
+        }
+
+        boolean isObject;
+
+        private String[] keys;
+        private JsonValue[] values;
+        private int size;
+
+        // The member name of the value to be added next, only for a JSON object.
+        String key;
+
+        // The cache of object shapes, or null if not enabled.
+        ObjectShapeCache shapeCache;
+    }
+
+    private static final String[] EMPTY_KEYS = new String[0];
+    private static final JsonValue[] EMPTY_VALUES = new JsonValue[0];
+
+    // The initial capacity of scratch arrays for each depth.
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Scratch arrays larger than this capacity are released after a huge JSON array or object.
+    private static final int MAX_RETAINED_CAPACITY = 1 << 16;
+
+    // The same as the default of StreamReadConstraints of Jackson 2.15+.
+    static final int DEFAULT_MAX_NESTING_DEPTH = 1000;
+
+    private static final int INITIAL_STACK_CAPACITY = 16;
+
     private final boolean hasLiteralsWithNumbers;
     private final boolean hasFallbacksForUnparsableNumbers;
     private final double defaultDouble;
     private final long defaultLong;
+    private final int maxNestingDepth;
+    private final ObjectShapeCache shapeCache;
+    private final JsonLongCache longCache;
+    private final JsonStringCache stringCache;
+
+    // The source to read JSON arrays and objects lazily from, or null if not enabled. It is replaced for a new input.
+    private LazyJsonSource.Input lazySource;
+
+    // The explicit stacks for nested JSON arrays and objects. They grow when needed, and are reused.
+    private ContainerBuilder[] builders;
+    private boolean[] skippingObjects;
+
+    // The capturer for CapturingJsonPointerList last used, or null.
+    private TreeBasedCapturer treeBasedCapturer;
 }
@@ -0,0 +1,497 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits top-level JSON arrays and objects in UTF-8 into chunks of their elements and members, by a pre-scan.
+ *
+ * <p>The pre-scan looks only at brackets, commas, and quotes. Nested JSON strings, arrays, and objects in elements and
+ * members are skipped by {@link SwarJsonScanner}. It does not validate JSON values. A chunk is a sequence of JSON values at
+ * the top-level, which is parsed by {@link JsonValueParser} later:
+ *
+ * <ul>
+ * <li>An element of a top-level JSON array is copied as is, followed by a line feed instead of a comma.
+ * <li>A member of a top-level JSON object is copied in braces as a JSON object with the single member.
+ * </ul>
+ *
+ * <p>An invalid element or member, such as an empty one between commas, is copied so that it fails to be parsed at
+ * the same position.
+ *
+ * <p>With root member names, the pre-scan seeks down through JSON objects by the member names, and splits only the JSON
+ * arrays and objects found there, instead of the top-level ones. The other members, and the other top-level JSON
+ * values, are skipped, as {@link com.fasterxml.jackson.core.filter.JsonPointerBasedFilter} does for a root made only of
+ * member names.
+ */
+final class JsonElementSplitter {
+    JsonElementSplitter(final InputStream input, final int chunkSize, final int maxElementLength) {
+        this(input, chunkSize, maxElementLength, new String[0]);
+    }
+
+    JsonElementSplitter(final InputStream input, final int chunkSize, final int maxElementLength, final String[] rootNames) {
+        this.input = input;
+        this.chunkSize = chunkSize;
+        this.maxElementLength = maxElementLength;
+        this.block = new byte[BLOCK_SIZE];
+        this.blockPosition = 0;
+        this.blockLimit = 0;
+        this.hasInputEnded = false;
+        this.isFirstBlock = true;
+
+        this.isInTopLevel = false;
+        this.isInObject = false;
+        this.valueScanner = new SwarJsonScanner();
+        this.isSkippingValue = false;
+        this.hasElementStarted = false;
+        this.isAfterComma = false;
+
+        this.rootNames = new byte[rootNames.length][];
+        for (int i = 0; i < rootNames.length; i++) {
+            this.rootNames[i] = rootNames[i].getBytes(StandardCharsets.UTF_8);
+        }
+        this.pathDepth = 0;
+        this.seekState = SEEK_VALUE;
+        this.isNameMatched = false;
+        this.isReadingName = false;
+        this.isNameEscaped = false;
+        this.hasNameEscapes = false;
+        this.name = new byte[16];
+        this.nameLength = 0;
+
+        this.chunk = null;
+        this.chunkLength = 0;
+        this.elementStart = 0;
+        this.failure = null;
+    }
+
+    /**
+     * Reads elements and members up to about the chunk size into a new chunk.
+     *
+     * @return {@code true} if a chunk is read into {@link #chunk()}, or {@code false} at the end of input
+     * @throws JsonParseException  if the top-level is not a JSON array nor object, or an element is longer than the maximum,
+     *     after the chunk before it is returned
+     */
+    boolean readChunk() throws IOException {
+        if (this.failure != null) {
+            final JsonParseException failure = this.failure;
+            this.failure = null;
+            throw failure;
+        }
+        this.chunk = new byte[Math.min(this.chunkSize, BLOCK_SIZE) + 2];
+        this.chunkLength = 0;
+        this.elementStart = 0;
+
+        while (true) {
+            if (this.blockPosition >= this.blockLimit && !this.fillBlock()) {
+                if (!this.isInTopLevel && (this.pathDepth > 0 || this.isReadingName || this.isSkippingValue)) {
+                    // The end of input while seeking the root is reported after the chunk before it.
+                    final JsonParseException ex = new JsonParseException("Unexpected end of JSON before the end of the root");
+                    if (this.chunkLength > 0) {
+                        this.failure = ex;
+                        return true;
+                    }
+                    throw ex;
+                }
+                // An incomplete element is left as is, so that the parser reports the end of input in it.
+                return this.chunkLength > 0;
+            }
+            try {
+                if (this.scanBlock()) {
+                    return true;
+                }
+            } catch (final JsonParseException ex) {
+                this.blockPosition = this.blockLimit;
+                this.hasInputEnded = true;
+                if (this.chunkLength > 0) {
+                    this.failure = ex;
+                    return true;
+                }
+                throw ex;
+            }
+        }
+    }
+
+    byte[] chunk() {
+        return this.chunk;
+    }
+
+    int chunkLength() {
+        return this.chunkLength;
+    }
+
+    /**
+     * Scans the rest of the block, and copies bytes of elements and members into the chunk.
+     *
+     * @return {@code true} if the chunk reaches the chunk size at the end of an element or a member
+     */
+    private boolean scanBlock() {
+        final byte[] bytes = this.block;
+        final int limit = this.blockLimit;
+        int runStart = this.blockPosition;
+        int i = this.blockPosition;
+        while (i < limit) {
+            if (this.isSkippingValue) {
+                final int valueEnd = this.valueScanner.skipValue(bytes, i, limit);
+                if (valueEnd < 0) {
+                    if (!this.isInTopLevel) {
+                        runStart = limit;  // A value skipped while seeking the root is not copied.
+                    }
+                    break;
+                }
+                this.isSkippingValue = false;
+                i = valueEnd;
+                if (!this.isInTopLevel) {
+                    runStart = i;
+                }
+                continue;
+            }
+            if (this.isReadingName) {
+                i = this.readName(bytes, i, limit);
+                runStart = i;
+                continue;
+            }
+
+            final byte b = bytes[i];
+            if (b == ' ' || b == '\t' || b == '\n' || b == '\r') {
+                if (!this.hasElementStarted) {
+                    // Whitespaces out of elements and members are not copied.
+                    runStart = i + 1;
+                }
+                i++;
+                continue;
+            }
+
+            if (!this.isInTopLevel) {
+                if (this.rootNames.length == 0) {
+                    this.startTopLevel(b);
+                    i++;
+                } else {
+                    i = this.seek(bytes, i);
+                }
+                runStart = i;
+                continue;
+            }
+
+            if (!this.hasElementStarted && b != ',' && b != ']' && b != '}') {
+                // The first character of an element or a member.
+                this.appendRun(bytes, runStart, i);
+                runStart = i;
+                if (this.isInObject) {
+                    this.append((byte) '{');
+                }
+                this.hasElementStarted = true;
+            }
+
+            switch (b) {
+                case '"':
+                case '[':
+                case '{':
+                    // A nested JSON string, array, or object is skipped by words from its first byte.
+                    this.isSkippingValue = true;
+                    continue;
+                case ']':
+                case '}':
+                    this.appendRun(bytes, runStart, i);
+                    runStart = i + 1;
+                    if ((b == '}') != this.isInObject) {
+                        throw new JsonParseException("Unexpected close marker '" + (char) b + "' of the top-level JSON value");
+                    }
+                    this.isInTopLevel = false;
+                    if (this.endElement(true)) {
+                        this.blockPosition = i + 1;
+                        return true;
+                    }
+                    break;
+                case ',':
+                    this.appendRun(bytes, runStart, i);
+                    runStart = i + 1;
+                    final boolean isChunkFull = this.endElement(false);
+                    this.isAfterComma = true;
+                    if (isChunkFull) {
+                        this.blockPosition = i + 1;
+                        return true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            i++;
+        }
+        this.appendRun(bytes, runStart, limit);
+        this.blockPosition = limit;
+        return false;
+    }
+
+    /**
+     * Steps the seek for the root by a byte out of JSON strings and whitespaces, which is not copied into the chunk.
+     *
+     * @return the index to continue the scan
+     */
+    private int seek(final byte[] bytes, final int i) {
+        final byte b = bytes[i];
+        switch (this.seekState) {
+            case SEEK_VALUE:
+                if (this.pathDepth == this.rootNames.length && this.isNameMatched) {
+                    // The root is found. It is split, then the seek continues after it.
+                    this.startTopLevel(b);
+                    this.seekState = SEEK_COMMA;
+                    return i + 1;
+                }
+                if (b == '{' && (this.pathDepth == 0 || this.isNameMatched)) {
+                    this.pathDepth++;
+                    this.seekState = SEEK_NAME;
+                    return i + 1;
+                }
+                this.seekState = this.pathDepth == 0 ? SEEK_VALUE : SEEK_COMMA;
+                if (b == '"' || b == '[' || b == '{') {
+                    this.isSkippingValue = true;
+                    return i;
+                }
+                return i + 1;  // The first byte of a scalar. The rest of it is skipped as well.
+            case SEEK_NAME:
+                if (b == '"') {
+                    this.isReadingName = true;
+                    this.isNameEscaped = false;
+                    this.hasNameEscapes = false;
+                    this.nameLength = 0;
+                    return i + 1;
+                }
+                if (b == '}') {
+                    return this.endObject(i);
+                }
+                throw new JsonParseException("Expected a member name in a JSON object on the way to the root, but '" + (char) (b & 0xff) + "'");
+            case SEEK_COLON:
+                if (b != ':') {
+                    throw new JsonParseException("Expected ':' after a member name on the way to the root, but '" + (char) (b & 0xff) + "'");
+                }
+                this.seekState = SEEK_VALUE;
+                return i + 1;
+            default:  // SEEK_COMMA
+                if (b == ',') {
+                    this.seekState = SEEK_NAME;
+                } else if (b == '}') {
+                    return this.endObject(i);
+                } else if (b == ']') {
+                    throw new JsonParseException("Unexpected close marker ']' of a JSON object on the way to the root");
+                }
+                return i + 1;
+        }
+    }
+
+    private int endObject(final int i) {
+        this.pathDepth--;
+        this.seekState = this.pathDepth == 0 ? SEEK_VALUE : SEEK_COMMA;
+        this.isNameMatched = false;
+        return i + 1;
+    }
+
+    /**
+     * Reads bytes of a member name up to its closing quote, and matches it with the root member name at the depth.
+     *
+     * @return the index to continue the scan
+     */
+    private int readName(final byte[] bytes, final int start, final int limit) {
+        int i = start;
+        while (i < limit) {
+            final byte b = bytes[i++];
+            if (this.isNameEscaped) {
+                this.isNameEscaped = false;
+            } else if (b == '\\') {
+                this.isNameEscaped = true;
+                this.hasNameEscapes = true;
+            } else if (b == '"') {
+                this.isReadingName = false;
+                this.isNameMatched = this.matchesName(this.rootNames[this.pathDepth - 1]);
+                this.seekState = SEEK_COLON;
+                return i;
+            }
+            if (this.nameLength >= this.name.length) {
+                this.name = Arrays.copyOf(this.name, this.name.length * 2);
+            }
+            this.name[this.nameLength++] = b;
+        }
+        return i;
+    }
+
+    private boolean matchesName(final byte[] rootName) {
+        if (!this.hasNameEscapes) {
+            if (this.nameLength != rootName.length) {
+                return false;
+            }
+            for (int i = 0; i < rootName.length; i++) {
+                if (this.name[i] != rootName[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        // A member name with escapes is rare on the way to the root. It is decoded by Jackson to be compared.
+        final byte[] quoted = new byte[this.nameLength + 2];
+        quoted[0] = '"';
+        System.arraycopy(this.name, 0, quoted, 1, this.nameLength);
+        quoted[quoted.length - 1] = '"';
+        try (final JsonParser parser = NAME_FACTORY.createParser(quoted)) {
+            parser.nextToken();
+            return parser.getText().equals(new String(rootName, StandardCharsets.UTF_8));
+        } catch (final IOException ex) {
+            throw new JsonParseException("Failed to parse a member name on the way to the root", ex);
+        }
+    }
+
+    private void startTopLevel(final byte b) {
+        if (b == '[') {
+            this.isInObject = false;
+        } else if (b == '{') {
+            this.isInObject = true;
+        } else {
+            throw new JsonParseException("Expected a JSON array or object at the top-level, but '" + (char) (b & 0xff) + "'");
+        }
+        this.isInTopLevel = true;
+        this.hasElementStarted = false;
+        this.isAfterComma = false;
+    }
+
+    /**
+     * Ends an element or a member at a comma or the end of the top-level JSON value.
+     *
+     * @return {@code true} if the chunk reaches the chunk size
+     */
+    private boolean endElement(final boolean isLast) {
+        if (this.hasElementStarted) {
+            if (this.isInObject) {
+                this.append((byte) '}');
+            }
+            this.append((byte) '\n');
+        } else if (!isLast || this.isAfterComma) {
+            // An empty element is copied as a comma to fail at the same position.
+            this.append((byte) ',');
+        }
+        this.hasElementStarted = false;
+        this.isAfterComma = false;
+        this.elementStart = this.chunkLength;
+        return this.chunkLength >= this.chunkSize;
+    }
+
+    private boolean fillBlock() throws IOException {
+        while (!this.hasInputEnded) {
+            int filled = 0;
+            // At least 3 bytes are read first to find the byte order mark.
+            while (filled == 0 || (this.isFirstBlock && filled < 3)) {
+                final int read = this.input.read(this.block, filled, this.block.length - filled);
+                if (read < 0) {
+                    this.hasInputEnded = true;
+                    break;
+                }
+                filled += read;
+            }
+            this.blockPosition = 0;
+            this.blockLimit = filled;
+            if (this.isFirstBlock) {
+                this.isFirstBlock = false;
+                if (filled >= 3 && this.block[0] == (byte) 0xef && this.block[1] == (byte) 0xbb && this.block[2] == (byte) 0xbf) {
+                    this.blockPosition = 3;
+                }
+            }
+            if (this.blockPosition < this.blockLimit) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void appendRun(final byte[] bytes, final int start, final int end) {
+        final int length = end - start;
+        if (length <= 0) {
+            return;
+        }
+        this.ensureCapacity(length);
+        System.arraycopy(bytes, start, this.chunk, this.chunkLength, length);
+        this.chunkLength += length;
+    }
+
+    private void append(final byte b) {
+        this.ensureCapacity(1);
+        this.chunk[this.chunkLength++] = b;
+    }
+
+    private void ensureCapacity(final int additional) {
+        final int required = this.chunkLength + additional;
+        if (required < 0) {
+            throw new JsonParseException("An element of JSON is too large.");
+        }
+        if (required - this.elementStart > this.maxElementLength) {
+            // The chunk is returned only with the elements before it, so that the failure is thrown after them.
+            this.chunkLength = this.elementStart;
+            throw new JsonParseException("An element of JSON is longer than the maximum size of chunks in flight: " + this.maxElementLength + " bytes");
+        }
+        if (required > this.chunk.length) {
+            this.chunk = Arrays.copyOf(this.chunk, (int) Math.min(Integer.MAX_VALUE - 8, Math.max((long) required, this.chunk.length * 2L)));
+        }
+    }
+
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    // The states of the seek for the root: a JSON value, a member name or '}', ':' after a member name, and ',' or '}'.
+    private static final int SEEK_VALUE = 0;
+    private static final int SEEK_NAME = 1;
+    private static final int SEEK_COLON = 2;
+    private static final int SEEK_COMMA = 3;
+
+    private static final JsonFactory NAME_FACTORY = new JsonFactory();
+
+    private final InputStream input;
+    private final int chunkSize;
+    private final int maxElementLength;
+
+    private final byte[] block;
+    private int blockPosition;
+    private int blockLimit;
+    private boolean hasInputEnded;
+    private boolean isFirstBlock;
+
+    // The state of the pre-scan, which continues over blocks and chunks.
+    private boolean isInTopLevel;
+    private boolean isInObject;
+    private final SwarJsonScanner valueScanner;
+    private boolean isSkippingValue;
+    private boolean hasElementStarted;
+    private boolean isAfterComma;
+
+    // The state of the seek for the root, which continues over blocks and chunks. The JSON array or object being split is
+    // in the "top-level" above even with the root.
+    private final byte[][] rootNames;
+    private int pathDepth;  // The number of JSON objects entered on the way to the root.
+    private int seekState;
+    private boolean isNameMatched;
+    private boolean isReadingName;
+    private boolean isNameEscaped;
+    private boolean hasNameEscapes;
+    private byte[] name;
+    private int nameLength;
+
+    private byte[] chunk;
+    private int chunkLength;
+    // The length of the chunk up to the end of the last element.
+    private int elementStart;
+    private JsonParseException failure;
+}
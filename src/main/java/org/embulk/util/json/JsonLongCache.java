@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import org.embulk.spi.json.JsonLong;
+
+/**
+ * A cache of {@link JsonLong} instances for integers in a small range.
+ *
+ * <p>The instances are created lazily for the first occurrences. It is not thread-safe.
+ */
+final class JsonLongCache {
+    private JsonLongCache(final long min, final int size) {
+        this.min = min;
+        this.values = new JsonLong[size];
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Creates a new cache for integers from {@code min} to {@code max}, inclusive.
+     *
+     * @param min  the minimum integer to be cached
+     * @param max  the maximum integer to be cached
+     * @return the new cache
+     */
+    static JsonLongCache ofRange(final long min, final long max) {
+        if (min > max) {
+            throw new IllegalArgumentException("The minimum must not be larger than the maximum.");
+        }
+        final long span = max - min;  // It is negative only if it overflows.
+        if (span < 0 || span >= MAX_SIZE) {
+            throw new IllegalArgumentException("The range of cached integers must contain " + MAX_SIZE + " integers or less.");
+        }
+        return new JsonLongCache(min, (int) span + 1);
+    }
+
+    /**
+     * Returns a {@link JsonLong} instance for the integer, from the cache if the integer is in the range.
+     *
+     * @param value  the integer
+     * @return the {@link JsonLong} instance
+     */
+    JsonLong get(final long value) {
+        final long index = value - this.min;
+        if (index < 0 || index >= this.values.length) {
+            this.misses++;
+            return JsonLong.of(value);
+        }
+
+        final JsonLong cached = this.values[(int) index];
+        if (cached != null) {
+            this.hits++;
+            return cached;
+        }
+
+        this.misses++;
+        final JsonLong created = JsonLong.of(value);
+        this.values[(int) index] = created;
+        return created;
+    }
+
+    long hits() {
+        return this.hits;
+    }
+
+    long misses() {
+        return this.misses;
+    }
+
+    static final int MAX_SIZE = 1 << 16;
+
+    private final long min;
+    private final JsonLong[] values;
+
+    private long hits;
+    private long misses;
+}
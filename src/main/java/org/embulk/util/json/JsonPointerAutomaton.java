@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A flat state machine compiled from {@link JsonPointerTree} to match JSON Pointers.
+ *
+ * <p>Each node of the tree is a state in {@code int}. The root is {@link #ROOT}, and {@link #INVALID} is the state
+ * where no JSON Pointer can match any more. The transitions by member names, and by array indices, are kept in two
+ * open-addressing hash tables over all the states, instead of a hash map per node. The captures of the states are
+ * kept in {@code int[]}s.
+ *
+ * <p>It is immutable, and thread-safe.
+ */
+final class JsonPointerAutomaton {
+    private JsonPointerAutomaton(
+            final int[][] captures,
+            final boolean[] hasIndices,
+            final int[] nameSources,
+            final String[] names,
+            final int[] nameTargets,
+            final long[] indexKeys,
+            final int[] indexTargets) {
+        this.captures = captures;
+        this.hasIndices = hasIndices;
+        this.nameSources = nameSources;
+        this.names = names;
+        this.nameTargets = nameTargets;
+        this.indexKeys = indexKeys;
+        this.indexTargets = indexTargets;
+    }
+
+    /**
+     * Compiles a {@link JsonPointerTree} into a {@link JsonPointerAutomaton}.
+     *
+     * <p>The tree is walked in breadth-first order without recursions, then the states are numbered from the root.
+     *
+     * @param tree  the root of the tree to compile
+     * @return the compiled {@link JsonPointerAutomaton}
+     */
+    static JsonPointerAutomaton compile(final JsonPointerTree tree) {
+        final ArrayList<JsonPointerTree> states = new ArrayList<>();
+        final IdentityHashMap<JsonPointerTree, Integer> stateIds = new IdentityHashMap<>();
+        states.add(tree);
+        stateIds.put(tree, ROOT);
+
+        final ArrayList<Integer> nameSources = new ArrayList<>();
+        final ArrayList<String> names = new ArrayList<>();
+        final ArrayList<Integer> nameTargets = new ArrayList<>();
+        for (int state = 0; state < states.size(); state++) {
+            for (final Map.Entry<String, JsonPointerTree> entry : states.get(state).entrySet()) {
+                final int target = states.size();
+                states.add(entry.getValue());
+                stateIds.put(entry.getValue(), target);
+                nameSources.add(state);
+                names.add(entry.getKey());
+                nameTargets.add(target);
+            }
+        }
+
+        final int[][] captures = new int[states.size()][];
+        final boolean[] hasIndices = new boolean[states.size()];
+        final ArrayList<Long> indexKeys = new ArrayList<>();
+        final ArrayList<Integer> indexTargets = new ArrayList<>();
+        for (int state = 0; state < states.size(); state++) {
+            final JsonPointerTree node = states.get(state);
+            captures[state] = toCaptures(node.captures());
+            for (final Map.Entry<Integer, JsonPointerTree> entry : node.indexedSegments().entrySet()) {
+                hasIndices[state] = true;
+                indexKeys.add(indexKey(state, entry.getKey()));
+                indexTargets.add(stateIds.get(entry.getValue()));
+            }
+        }
+
+        final int nameCapacity = capacityFor(names.size());
+        final int[] nameSourceTable = new int[nameCapacity];
+        final String[] nameTable = new String[nameCapacity];
+        final int[] nameTargetTable = new int[nameCapacity];
+        for (int i = 0; i < names.size(); i++) {
+            // Interned as Jackson interns member names by default, so that they are usually compared by identity.
+            final String name = names.get(i).intern();
+            int slot = hash(nameSources.get(i), name.hashCode()) & (nameCapacity - 1);
+            while (nameTable[slot] != null) {
+                slot = (slot + 1) & (nameCapacity - 1);
+            }
+            nameSourceTable[slot] = nameSources.get(i);
+            nameTable[slot] = name;
+            nameTargetTable[slot] = nameTargets.get(i);
+        }
+
+        final int indexCapacity = capacityFor(indexKeys.size());
+        final long[] indexKeyTable = new long[indexCapacity];
+        final int[] indexTargetTable = new int[indexCapacity];
+        Arrays.fill(indexKeyTable, NO_INDEX_KEY);
+        for (int i = 0; i < indexKeys.size(); i++) {
+            final long key = indexKeys.get(i);
+            int slot = hash((int) (key >>> 32), (int) key) & (indexCapacity - 1);
+            while (indexKeyTable[slot] != NO_INDEX_KEY) {
+                slot = (slot + 1) & (indexCapacity - 1);
+            }
+            indexKeyTable[slot] = key;
+            indexTargetTable[slot] = indexTargets.get(i);
+        }
+
+        return new JsonPointerAutomaton(captures, hasIndices, nameSourceTable, nameTable, nameTargetTable, indexKeyTable, indexTargetTable);
+    }
+
+    /**
+     * Returns the next state for a member name in a JSON object.
+     *
+     * @param state  the state of the JSON object, which may be {@link #INVALID}
+     * @param name  the member name
+     * @return the next state, or {@link #INVALID} if no JSON Pointer continues with the member name
+     */
+    int nextByName(final int state, final String name) {
+        if (state < 0) {
+            return INVALID;
+        }
+        final int mask = this.names.length - 1;
+        for (int slot = hash(state, name.hashCode()) & mask; ; slot = (slot + 1) & mask) {
+            final String candidate = this.names[slot];
+            if (candidate == null) {
+                return INVALID;
+            }
+            if (this.nameSources[slot] == state && (candidate == name || candidate.equals(name))) {
+                return this.nameTargets[slot];
+            }
+        }
+    }
+
+    /**
+     * Returns the next state for the index of an element in a JSON array.
+     *
+     * @param state  the state of the JSON array, which may be {@link #INVALID}
+     * @param index  the index of the element, which is not negative
+     * @return the next state, or {@link #INVALID} if no JSON Pointer continues with the index
+     */
+    int nextByIndex(final int state, final int index) {
+        if (state < 0 || !this.hasIndices[state]) {
+            return INVALID;
+        }
+        final long key = indexKey(state, index);
+        final int mask = this.indexKeys.length - 1;
+        for (int slot = hash(state, index) & mask; ; slot = (slot + 1) & mask) {
+            final long candidate = this.indexKeys[slot];
+            if (candidate == NO_INDEX_KEY) {
+                return INVALID;
+            }
+            if (candidate == key) {
+                return this.indexTargets[slot];
+            }
+        }
+    }
+
+    /**
+     * Returns the captures of the state, which must not be modified.
+     *
+     * @param state  the state, which may be {@link #INVALID}
+     * @return the captures, or an empty array if the state captures nothing
+     */
+    int[] captures(final int state) {
+        if (state < 0) {
+            return NO_CAPTURES;
+        }
+        return this.captures[state];
+    }
+
+    /**
+     * Returns the number of the states, except for {@link #INVALID}.
+     */
+    int numberOfStates() {
+        return this.captures.length;
+    }
+
+    private static int[] toCaptures(final List<Integer> captures) {
+        if (captures.isEmpty()) {
+            return NO_CAPTURES;
+        }
+        final int[] array = new int[captures.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = captures.get(i);
+        }
+        return array;
+    }
+
+    private static long indexKey(final int state, final int index) {
+        return (((long) state) << 32) | (index & 0xffffffffL);
+    }
+
+    private static int hash(final int state, final int key) {
+        final int h = (key * 31 + state) * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    // The tables are kept at most half full, so that a lookup always reaches at an empty slot.
+    private static int capacityFor(final int count) {
+        int capacity = 2;
+        while (capacity < count * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    static final int ROOT = 0;
+
+    static final int INVALID = -1;
+
+    private static final int[] NO_CAPTURES = new int[0];
+
+    // Never a key of an actual transition, as both a state and an index are not negative.
+    private static final long NO_INDEX_KEY = -1L;
+
+    private final int[][] captures;
+
+    // Whether each state has any transition by an array index, to skip looking up the table for most JSON arrays.
+    private final boolean[] hasIndices;
+
+    private final int[] nameSources;
+    private final String[] names;
+    private final int[] nameTargets;
+
+    private final long[] indexKeys;
+    private final int[] indexTargets;
+}
@@ -65,20 +65,34 @@ import java.util.Set;
  *     </ul>
  *   </ul>
  * </ul>
+ *
+ * <p>Segments which are valid array indices, such as {@code "0"} and {@code "1"} above, are also kept keyed by integers,
+ * so that {@link JsonPointerAutomaton} compiles transitions by indices of JSON array elements from them. The tree is only
+ * an intermediate to be compiled, so it keeps them only in a hash map, without tables to look them up fast.
  */
 class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
-    private JsonPointerTree(final HashMap<String, JsonPointerTree> nextSegments, final ArrayList<Integer> captures) {
+    private JsonPointerTree(
+            final HashMap<String, JsonPointerTree> nextSegments,
+            final HashMap<Integer, JsonPointerTree> nextIndices,
+            final ArrayList<Integer> captures) {
         this.nextSegments = Collections.unmodifiableMap(nextSegments);
         if (captures.isEmpty()) {
             this.captures = Collections.emptyList();
         } else {
             this.captures = Collections.unmodifiableList(captures);
         }
+
+        if (nextIndices.isEmpty()) {
+            this.nextIndices = Collections.emptyMap();
+        } else {
+            this.nextIndices = Collections.unmodifiableMap(nextIndices);
+        }
     }
 
     private JsonPointerTree() {  // Only for INVALID.
         this.nextSegments = null;
         this.captures = Collections.emptyList();
+        this.nextIndices = Collections.emptyMap();
     }
 
     /**
@@ -87,6 +101,7 @@ class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
     static class Builder {
         private Builder() {
             this.nextSegments = new HashMap<>();
+            this.nextIndices = new HashMap<>();
             this.captures = new ArrayList<>();
         }
 
@@ -97,11 +112,17 @@ class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
          */
         JsonPointerTree build() {
             final HashMap<String, JsonPointerTree> fixedTokens = new HashMap<>();
+            final HashMap<Integer, JsonPointerTree> fixedIndices = new HashMap<>();
             for (final Map.Entry<String, Builder> entry : this.nextSegments.entrySet()) {
                 // TODO: Remove recursions to avoid call stack overflow.
-                fixedTokens.put(entry.getKey(), entry.getValue().build());
+                final JsonPointerTree next = entry.getValue().build();
+                fixedTokens.put(entry.getKey(), next);
+                final Integer index = this.nextIndices.get(entry.getKey());
+                if (index != null) {
+                    fixedIndices.put(index, next);
+                }
             }
-            return new JsonPointerTree(fixedTokens, this.captures);
+            return new JsonPointerTree(fixedTokens, fixedIndices, this.captures);
         }
 
         /**
@@ -124,21 +145,23 @@ class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
                 return this;
             }
 
-            final List<String> splitPointers = split(pointer);
-
             Builder node = this;
-            for (final String pointerElement : splitPointers) {
-                node = node.addOnThis(pointerElement);
+            for (JsonPointer tail = pointer; !isJsonPointerEmpty(tail); tail = tail.tail()) {
+                // The index is -1 if the segment is not a valid array index, such as "-" and "01".
+                node = node.addOnThis(tail.getMatchingProperty(), tail.getMatchingIndex());
             }
             node.captures.add(capture);
             return this;
         }
 
-        private Builder addOnThis(final String element) {
+        private Builder addOnThis(final String element, final int index) {
             final Builder node = this.nextSegments.get(element);
             if (node == null) {
                 final Builder newNode = new Builder();
                 this.nextSegments.put(element, newNode);
+                if (index >= 0) {
+                    this.nextIndices.put(element, index);
+                }
                 return newNode;
             }
             return node;
@@ -174,6 +197,9 @@ class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
 
         private final HashMap<String, Builder> nextSegments;
 
+        // The array indices of segments in nextSegments which are valid array indices.
+        private final HashMap<String, Integer> nextIndices;
+
         private final ArrayList<Integer> captures;
     }
 
@@ -231,6 +257,26 @@ class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
         return this.nextSegments.entrySet();
     }
 
+    /**
+     * Returns the next matching tree node for the segment, which is a member name, or an array index in a string.
+     *
+     * <p>It looks up the hash map directly, instead of iterating over {@link #entrySet()} as {@link AbstractMap} does.
+     */
+    @Override
+    public JsonPointerTree get(final Object segment) {
+        if (this.nextSegments == null) {
+            return null;
+        }
+        return this.nextSegments.get(segment);
+    }
+
+    /**
+     * Returns the next matching tree nodes keyed by the array indices which any JSON Pointer continues with from this node.
+     */
+    Map<Integer, JsonPointerTree> indexedSegments() {
+        return this.nextIndices;
+    }
+
     /**
      * Returns {@code true} if this {@link JsonPointerTree} is invalid.
      */
@@ -309,4 +355,7 @@ class JsonPointerTree extends AbstractMap<String, JsonPointerTree> {
     private final Map<String, JsonPointerTree> nextSegments;
 
     private final List<Integer> captures;
+
+    // The next nodes for array indices, derived from nextSegments.
+    private final Map<Integer, JsonPointerTree> nextIndices;
 }
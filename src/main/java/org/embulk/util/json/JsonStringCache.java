@@ -0,0 +1,121 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import org.embulk.spi.json.JsonString;
+
+/**
+ * A bounded cache of {@link JsonString} instances for short strings, such as enum-like values and country codes.
+ *
+ * <p>It looks up the cache with the characters in the buffer of {@link JsonParser}, so that it does not allocate
+ * even a {@link String} when it hits.
+ *
+ * <p>It is a direct-mapped cache indexed by a hash of the string. A string replaces an older one at the same
+ * index. It is not thread-safe.
+ */
+final class JsonStringCache {
+    private JsonStringCache(final int capacity, final int maxLength) {
+        this.entries = new JsonString[capacity];
+        this.mask = capacity - 1;
+        this.maxLength = maxLength;
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity  the number of strings to be cached, rounded up to a power of two
+     * @param maxLength  the maximum length of strings to be cached
+     * @return the new cache
+     */
+    static JsonStringCache of(final int capacity, final int maxLength) {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity of the string cache must be from 1 to " + MAX_CAPACITY + ".");
+        }
+        if (maxLength < 0) {
+            throw new IllegalArgumentException("The maximum length of cached strings must not be negative.");
+        }
+        final int highest = Integer.highestOneBit(capacity);
+        return new JsonStringCache((highest == capacity) ? capacity : highest << 1, maxLength);
+    }
+
+    /**
+     * Returns a {@link JsonString} instance for the current {@code VALUE_STRING} token of the parser.
+     *
+     * @param parser  the parser at a {@code VALUE_STRING} token
+     * @return the {@link JsonString} instance
+     * @throws IOException  if failing to read the string
+     */
+    JsonString get(final JsonParser parser) throws IOException {
+        final int length = parser.getTextLength();
+        if (length > this.maxLength) {
+            this.misses++;
+            return JsonString.of(parser.getText());
+        }
+
+        final char[] chars = parser.getTextCharacters();
+        final int offset = parser.getTextOffset();
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + chars[offset + i];
+        }
+        final int index = (hash ^ (hash >>> 16)) & this.mask;
+
+        final JsonString cached = this.entries[index];
+        if (cached != null && matches(cached.getString(), chars, offset, length)) {
+            this.hits++;
+            return cached;
+        }
+
+        this.misses++;
+        final JsonString created = JsonString.of(new String(chars, offset, length));
+        this.entries[index] = created;
+        return created;
+    }
+
+    long hits() {
+        return this.hits;
+    }
+
+    long misses() {
+        return this.misses;
+    }
+
+    private static boolean matches(final String cached, final char[] chars, final int offset, final int length) {
+        if (cached.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (cached.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static final int MAX_CAPACITY = 1 << 16;
+
+    private final JsonString[] entries;
+    private final int mask;
+    private final int maxLength;
+
+    private long hits;
+    private long misses;
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import org.embulk.spi.json.JsonArray;
+import org.embulk.spi.json.JsonBoolean;
+import org.embulk.spi.json.JsonDouble;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonNull;
+import org.embulk.spi.json.JsonObject;
+import org.embulk.spi.json.JsonString;
+import org.embulk.spi.json.JsonValue;
+
+/**
+ * A batch of JSON values in a compact representation, in the style of the "tape" of simdjson.
+ *
+ * <p>JSON values are laid out in a {@code long[]} of entries, and a {@code byte[]} of strings. Each entry has a
+ * type tag in its highest 8 bits, and a payload in the rest. A JSON array or object is a pair of start and end
+ * entries. The start entry points to the next of its end entry so that it can be skipped at once. An integral or
+ * floating-point number takes the entry following the tag entry for its 64-bit value. A string, including a
+ * member name of a JSON object, points to its characters in the {@code byte[]}.
+ *
+ * <p>It costs much less heap than {@link JsonValue} instances for each JSON value, and it can be scanned many
+ * times with different {@link CapturingPointers} by {@link Capturer}, which reuses its context to capture over calls.
+ * {@link JsonValue}s are created on demand by {@link #get(int)}. A JSON array or object returned is a view,
+ * which is materialized from the tape the first time its content is accessed.
+ *
+ * <p>It is created by {@link JsonValueParser#readJsonTape(int)}. It is immutable, and it can be shared among threads.
+ *
+ * @see <a href="https://github.com/simdjson/simdjson/blob/master/doc/tape.md">simdjson: The tape structure</a>
+ */
+public final class JsonTape {
+    JsonTape(final long[] entries, final byte[] strings, final int[] starts, final boolean hasLiteralsWithNumbers) {
+        this.entries = entries;
+        this.strings = strings;
+        this.starts = starts;
+        this.hasLiteralsWithNumbers = hasLiteralsWithNumbers;
+        this.source = new Source();
+    }
+
+    /**
+     * Returns the number of JSON values in this tape.
+     *
+     * @return the number of JSON values
+     */
+    public int size() {
+        return this.starts.length;
+    }
+
+    /**
+     * Returns the JSON value at the index.
+     *
+     * <p>A JSON array or object returned is materialized from the tape the first time its content is accessed.
+     *
+     * @param index  the index of the JSON value in this tape
+     * @return the JSON value
+     * @throws IndexOutOfBoundsException  if the index is out of range
+     */
+    public JsonValue get(final int index) {
+        return this.valueAt(this.startOf(index));
+    }
+
+    /**
+     * Captures {@link org.embulk.spi.json.JsonValue}s from the JSON value at the index with the specified capturing pointers.
+     *
+     * <p>It scans the tape, not the stringified JSON. It can be called many times for the same JSON value, but it creates a
+     * context to capture for each call. Use {@link #capturer()} to capture many times.
+     *
+     * @param index  the index of the JSON value in this tape
+     * @param capturingPointers  the capturing pointers
+     * @return an array of the captured JSON values
+     * @throws IndexOutOfBoundsException  if the index is out of range
+     * @throws JsonParseException  if failing to capture
+     */
+    public JsonValue[] captureJsonValues(final int index, final CapturingPointers capturingPointers) {
+        return this.capturer().captureJsonValues(index, capturingPointers);
+    }
+
+    /**
+     * Returns a new {@link Capturer} to capture {@link org.embulk.spi.json.JsonValue}s from this tape repeatedly.
+     *
+     * @return the new {@link Capturer}
+     */
+    public Capturer capturer() {
+        return new Capturer(this);
+    }
+
+    /**
+     * Captures {@link org.embulk.spi.json.JsonValue}s from JSON values in a {@link JsonTape} repeatedly.
+     *
+     * <p>It keeps its context to capture, such as the stacks of the JSON values being captured, and reuses it over calls.
+     * It is not thread-safe, while the tape is. Create a {@link Capturer} per thread to capture from the tape in threads.
+     */
+    public static final class Capturer {
+        private Capturer(final JsonTape tape) {
+            this.tape = tape;
+            this.parser = new JsonTapeParser(tape, 0, 0);
+            // The numbers in the tape have already been parsed, or fallen back to the defaults.
+            this.valueReader = new InternalJsonValueReader(tape.hasLiteralsWithNumbers, false, 0.0, 0L);
+        }
+
+        /**
+         * Captures {@link org.embulk.spi.json.JsonValue}s from the JSON value at the index with the specified capturing pointers.
+         *
+         * @param index  the index of the JSON value in the tape
+         * @param capturingPointers  the capturing pointers
+         * @return an array of the captured JSON values
+         * @throws IndexOutOfBoundsException  if the index is out of range
+         * @throws JsonParseException  if failing to capture
+         */
+        public JsonValue[] captureJsonValues(final int index, final CapturingPointers capturingPointers) {
+            return this.capture(index, capturingPointers, null);
+        }
+
+        /**
+         * Captures {@link org.embulk.spi.json.JsonValue}s from the JSON value at the index into the array.
+         *
+         * @param index  the index of the JSON value in the tape
+         * @param capturingPointers  the capturing pointers
+         * @param destination  the array to overwrite with the captured JSON values, whose length must be the number of
+         *     the capturing pointers
+         * @throws IndexOutOfBoundsException  if the index is out of range
+         * @throws JsonParseException  if failing to capture
+         * @throws IllegalArgumentException  if the length of the array is not the number of the capturing pointers
+         */
+        public void captureJsonValuesInto(final int index, final CapturingPointers capturingPointers, final JsonValue[] destination) {
+            if (destination.length != capturingPointers.size()) {
+                throw new IllegalArgumentException(
+                        "The array to capture JSON values into must have the length " + capturingPointers.size() + ", but " + destination.length + ".");
+            }
+            this.capture(index, capturingPointers, destination);
+        }
+
+        private JsonValue[] capture(final int index, final CapturingPointers capturingPointers, final JsonValue[] destination) {
+            final int start = this.tape.startOf(index);
+            final int end = (index + 1 < this.tape.starts.length) ? this.tape.starts[index + 1] : this.tape.entries.length;
+            this.parser.reset(start, end);
+            try {
+                return capturingPointers.captureFromParserInto(this.parser, this.valueReader, destination);
+            } catch (final IOException ex) {
+                throw new JsonParseException("Failed to capture JSON values from the tape", ex);
+            } finally {
+                this.parser.close();
+            }
+        }
+
+        private final JsonTape tape;
+        private final JsonTapeParser parser;
+        private final InternalJsonValueReader valueReader;
+    }
+
+    /**
+     * Returns the approximate size of this tape in bytes.
+     *
+     * @return the approximate size in bytes
+     */
+    public long presumeSizeInBytes() {
+        return 8L * this.entries.length + this.strings.length + 4L * this.starts.length;
+    }
+
+    static long entry(final byte tag, final long payload) {
+        return ((long) tag << TAG_SHIFT) | payload;
+    }
+
+    static byte tagOf(final long entry) {
+        return (byte) (entry >>> TAG_SHIFT);
+    }
+
+    /**
+     * Returns the index next to the end entry of a JSON array or object from its start entry.
+     */
+    static int endOf(final long startEntry) {
+        return (int) (startEntry & END_MASK);
+    }
+
+    /**
+     * Returns the number of elements or members of a JSON array or object from its start entry.
+     *
+     * <p>It is {@link #MAX_COUNT} if the number is {@link #MAX_COUNT} or larger.
+     */
+    static int countOf(final long startEntry) {
+        return (int) ((startEntry >>> COUNT_SHIFT) & MAX_COUNT);
+    }
+
+    /**
+     * Returns the number of entries in this tape.
+     */
+    int entryCount() {
+        return this.entries.length;
+    }
+
+    long entryAt(final int index) {
+        return this.entries[index];
+    }
+
+    /**
+     * Returns the index of the entry next to the JSON value at the index.
+     */
+    int nextOf(final int index) {
+        final long entry = this.entries[index];
+        switch (tagOf(entry)) {
+            case START_ARRAY:
+            case START_OBJECT:
+                return endOf(entry);
+            case LONG:
+            case LONG_WITH_LITERAL:
+            case DOUBLE:
+            case DOUBLE_WITH_LITERAL:
+                return index + 2;
+            default:
+                return index + 1;
+        }
+    }
+
+    /**
+     * Returns the string that the entry points to.
+     */
+    String stringOf(final long entry) {
+        final int offset = (int) (entry & STRING_OFFSET_MASK);
+        final int length = this.lengthAt(offset);
+        if ((entry & UTF16_FLAG) == 0) {
+            return new String(this.strings, offset + 4, length, StandardCharsets.ISO_8859_1);
+        }
+        final char[] chars = new char[length];
+        this.copyUtf16(offset, length, chars);
+        return new String(chars);
+    }
+
+    /**
+     * Returns the length in chars of the string that the entry points to.
+     */
+    int stringLengthOf(final long entry) {
+        return this.lengthAt((int) (entry & STRING_OFFSET_MASK));
+    }
+
+    /**
+     * Copies the chars of the string that the entry points to into the array, without creating {@link String}.
+     *
+     * @param chars  the array at least as long as {@link #stringLengthOf(long)}
+     */
+    void copyStringOf(final long entry, final char[] chars) {
+        final int offset = (int) (entry & STRING_OFFSET_MASK);
+        final int length = this.lengthAt(offset);
+        if ((entry & UTF16_FLAG) != 0) {
+            this.copyUtf16(offset, length, chars);
+            return;
+        }
+        for (int i = 0, p = offset + 4; i < length; i++, p++) {
+            chars[i] = (char) (this.strings[p] & 0xff);
+        }
+    }
+
+    private int lengthAt(final int offset) {
+        return ((this.strings[offset] & 0xff) << 24)
+                | ((this.strings[offset + 1] & 0xff) << 16)
+                | ((this.strings[offset + 2] & 0xff) << 8)
+                | (this.strings[offset + 3] & 0xff);
+    }
+
+    private void copyUtf16(final int offset, final int length, final char[] chars) {
+        for (int i = 0, p = offset + 4; i < length; i++, p += 2) {
+            chars[i] = (char) (((this.strings[p] & 0xff) << 8) | (this.strings[p + 1] & 0xff));
+        }
+    }
+
+    private int startOf(final int index) {
+        if (index < 0 || index >= this.starts.length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + this.starts.length);
+        }
+        return this.starts[index];
+    }
+
+    private JsonValue valueAt(final int index) {
+        final long entry = this.entries[index];
+        switch (tagOf(entry)) {
+            case NULL:
+                return JsonNull.NULL;
+            case TRUE:
+                return JsonBoolean.TRUE;
+            case FALSE:
+                return JsonBoolean.FALSE;
+            case LONG:
+                return JsonLong.of(this.entries[index + 1]);
+            case LONG_WITH_LITERAL:
+                return JsonLong.withLiteral(this.entries[index + 1], this.stringOf(entry));
+            case DOUBLE:
+                return JsonDouble.of(Double.longBitsToDouble(this.entries[index + 1]));
+            case DOUBLE_WITH_LITERAL:
+                return JsonDouble.withLiteral(Double.longBitsToDouble(this.entries[index + 1]), this.stringOf(entry));
+            case STRING:
+                return JsonString.of(this.stringOf(entry));
+            case START_ARRAY:
+                return new LazyJsonValue(this.source, false, index, endOf(entry));
+            case START_OBJECT:
+                return new LazyJsonValue(this.source, true, index, endOf(entry));
+            default:
+                throw new IllegalStateException("Unexpected entry in the JSON tape at " + index);
+        }
+    }
+
+    /**
+     * Materializes views of JSON arrays and objects from the tape, where ranges are indices of entries.
+     */
+    private final class Source extends LazyJsonSource {
+        @Override
+        JsonValue materialize(final boolean isObject, final int start, final int end) {
+            int count = countOf(entries[start]);
+            if (count == MAX_COUNT) {
+                count = 0;
+                for (int i = start + 1; i < end - 1; i = nextOf(isObject ? i + 1 : i)) {
+                    count++;
+                }
+            }
+
+            final String[] keys = isObject ? new String[count] : null;
+            final JsonValue[] values = new JsonValue[count];
+            int index = start + 1;
+            for (int i = 0; i < count; i++) {
+                if (isObject) {
+                    keys[i] = stringOf(entries[index]);
+                    index++;
+                }
+                values[i] = valueAt(index);
+                index = nextOf(index);
+            }
+
+            if (isObject) {
+                return JsonObject.ofUnsafe(keys, values);
+            }
+            return JsonArray.ofUnsafe(values);
+        }
+
+        @Override
+        int presumeReferenceSizeInBytes(final int start, final int end) {
+            // Roughly estimated as a JsonValue instance for each entry, without materialization.
+            return (end - start) * 24;
+        }
+    }
+
+    static final byte NULL = 'n';
+    static final byte TRUE = 't';
+    static final byte FALSE = 'f';
+    static final byte LONG = 'l';
+    static final byte LONG_WITH_LITERAL = 'L';
+    static final byte DOUBLE = 'd';
+    static final byte DOUBLE_WITH_LITERAL = 'D';
+    static final byte STRING = '"';
+    static final byte START_ARRAY = '[';
+    static final byte END_ARRAY = ']';
+    static final byte START_OBJECT = '{';
+    static final byte END_OBJECT = '}';
+
+    static final int TAG_SHIFT = 56;
+
+    // A start entry of a JSON array or object: the index next to its end entry in the lower 32 bits, and
+    // the number of its elements or members in the upper 24 bits of its payload.
+    static final long END_MASK = 0xffffffffL;
+    static final int COUNT_SHIFT = 32;
+    static final int MAX_COUNT = 0xffffff;
+
+    // A string entry: the offset in the strings in the lower 32 bits of its payload, and the flag whether its
+    // characters are in UTF-16 (2 bytes per character), or in ISO-8859-1 (1 byte per character). The characters
+    // follow 4 bytes of the number of characters.
+    static final long STRING_OFFSET_MASK = 0xffffffffL;
+    static final long UTF16_FLAG = 1L << 55;
+
+    private final long[] entries;
+    private final byte[] strings;
+    private final int[] starts;
+    private final boolean hasLiteralsWithNumbers;
+    private final Source source;
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.base.ParserMinimalBase;
+import com.fasterxml.jackson.core.json.JsonReadContext;
+import com.fasterxml.jackson.core.json.PackageVersion;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Replays entries of {@link JsonTape} as tokens of {@link com.fasterxml.jackson.core.JsonParser}.
+ *
+ * <p>It lets {@link CapturingPointers} scan a tape in the same way with a stringified JSON.
+ */
+final class JsonTapeParser extends ParserMinimalBase {
+    JsonTapeParser(final JsonTape tape, final int start, final int end) {
+        super(0);
+        this.tape = tape;
+        this.position = start;
+        this.end = end;
+        this.current = -1;
+        this.context = JsonReadContext.createRootContext(null);
+        this.closed = false;
+        this.textCharacters = new char[INITIAL_TEXT_CAPACITY];
+        this.textLength = 0;
+        this.decodedIndex = -1;
+    }
+
+    /**
+     * Resets the parser to replay another range of entries in the same tape.
+     */
+    void reset(final int start, final int end) {
+        this.position = start;
+        this.end = end;
+        this.current = -1;
+        this.context = JsonReadContext.createRootContext(null);
+        this.closed = false;
+        this._currToken = null;
+        this.decodedIndex = -1;
+    }
+
+    @Override
+    public JsonToken nextToken() throws IOException {
+        if (this.closed || this.position >= this.end) {
+            this._currToken = null;
+            return null;
+        }
+
+        final int index = this.position;
+        final long entry = this.tape.entryAt(index);
+        this.current = index;
+        this.position = index + 1;
+        final JsonToken token;
+        switch (JsonTape.tagOf(entry)) {
+            case JsonTape.START_ARRAY:
+                this.context.expectComma();
+                this.context = this.context.createChildArrayContext(-1, -1);
+                token = JsonToken.START_ARRAY;
+                break;
+            case JsonTape.START_OBJECT:
+                this.context.expectComma();
+                this.context = this.context.createChildObjectContext(-1, -1);
+                token = JsonToken.START_OBJECT;
+                break;
+            case JsonTape.END_ARRAY:
+                this.context = this.context.clearAndGetParent();
+                token = JsonToken.END_ARRAY;
+                break;
+            case JsonTape.END_OBJECT:
+                this.context = this.context.clearAndGetParent();
+                token = JsonToken.END_OBJECT;
+                break;
+            case JsonTape.STRING:
+                if (this.context.inObject() && this._currToken != JsonToken.FIELD_NAME) {
+                    this.context.expectComma();
+                    this.context.setCurrentName(this.tape.stringOf(entry));
+                    token = JsonToken.FIELD_NAME;
+                } else {
+                    this.context.expectComma();
+                    token = JsonToken.VALUE_STRING;
+                }
+                break;
+            case JsonTape.LONG:
+            case JsonTape.LONG_WITH_LITERAL:
+                this.context.expectComma();
+                this.position = index + 2;
+                token = JsonToken.VALUE_NUMBER_INT;
+                break;
+            case JsonTape.DOUBLE:
+            case JsonTape.DOUBLE_WITH_LITERAL:
+                this.context.expectComma();
+                this.position = index + 2;
+                token = JsonToken.VALUE_NUMBER_FLOAT;
+                break;
+            case JsonTape.NULL:
+                this.context.expectComma();
+                token = JsonToken.VALUE_NULL;
+                break;
+            case JsonTape.TRUE:
+                this.context.expectComma();
+                token = JsonToken.VALUE_TRUE;
+                break;
+            case JsonTape.FALSE:
+                this.context.expectComma();
+                token = JsonToken.VALUE_FALSE;
+                break;
+            default:
+                throw new com.fasterxml.jackson.core.JsonParseException(this, "Unexpected entry in the JSON tape at " + index);
+        }
+        this._currToken = token;
+        return token;
+    }
+
+    @Override
+    protected void _handleEOF() {
+    }
+
+    @Override
+    public String getCurrentName() {
+        if (this._currToken == JsonToken.START_OBJECT || this._currToken == JsonToken.START_ARRAY) {
+            final JsonReadContext parent = this.context.getParent();
+            return parent == null ? null : parent.getCurrentName();
+        }
+        return this.context.getCurrentName();
+    }
+
+    @Override
+    public void overrideCurrentName(final String name) {
+        JsonReadContext context = this.context;
+        if (this._currToken == JsonToken.START_OBJECT || this._currToken == JsonToken.START_ARRAY) {
+            context = context.getParent();
+        }
+        this.decodedIndex = -1;
+        try {
+            context.setCurrentName(name);
+        } catch (final JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        this._currToken = null;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public JsonStreamContext getParsingContext() {
+        return this.context;
+    }
+
+    @Override
+    public JsonLocation getCurrentLocation() {
+        return JsonLocation.NA;
+    }
+
+    @Override
+    public JsonLocation getTokenLocation() {
+        return JsonLocation.NA;
+    }
+
+    @Override
+    public String getText() {
+        if (this._currToken == null) {
+            return null;
+        }
+        switch (this._currToken) {
+            case FIELD_NAME:
+                return this.context.getCurrentName();
+            case VALUE_STRING:
+                return this.tape.stringOf(this.currentEntry());
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                if (this.hasLiteral()) {
+                    return this.tape.stringOf(this.currentEntry());
+                }
+                if (this._currToken == JsonToken.VALUE_NUMBER_INT) {
+                    return Long.toString(this.tape.entryAt(this.current + 1));
+                }
+                return Double.toString(Double.longBitsToDouble(this.tape.entryAt(this.current + 1)));
+            default:
+                return this._currToken.asString();
+        }
+    }
+
+    @Override
+    public char[] getTextCharacters() {
+        return this.decodeText() ? this.textCharacters : null;
+    }
+
+    @Override
+    public boolean hasTextCharacters() {
+        // JSON Strings are decoded from the tape into the reusable array without creating String.
+        return this._currToken == JsonToken.VALUE_STRING;
+    }
+
+    @Override
+    public int getTextLength() {
+        return this.decodeText() ? this.textLength : 0;
+    }
+
+    @Override
+    public int getTextOffset() {
+        return 0;
+    }
+
+    @Override
+    public byte[] getBinaryValue(final Base64Variant base64Variant) throws IOException {
+        throw new com.fasterxml.jackson.core.JsonParseException(this, "Binary values are not in the JSON tape.");
+    }
+
+    @Override
+    public ObjectCodec getCodec() {
+        return null;
+    }
+
+    @Override
+    public void setCodec(final ObjectCodec codec) {
+        throw new UnsupportedOperationException("JsonTapeParser does not support ObjectCodec.");
+    }
+
+    @Override
+    public Version version() {
+        return PackageVersion.VERSION;
+    }
+
+    @Override
+    public Number getNumberValue() throws IOException {
+        if (this._currToken == JsonToken.VALUE_NUMBER_INT) {
+            return this.getLongValue();
+        }
+        return this.getDoubleValue();
+    }
+
+    @Override
+    public NumberType getNumberType() throws IOException {
+        if (this._currToken == JsonToken.VALUE_NUMBER_INT) {
+            return NumberType.LONG;
+        }
+        if (this._currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            return NumberType.DOUBLE;
+        }
+        return null;
+    }
+
+    @Override
+    public int getIntValue() throws IOException {
+        final long value = this.getLongValue();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new com.fasterxml.jackson.core.JsonParseException(this, "Numeric value (" + value + ") out of range of int");
+        }
+        return (int) value;
+    }
+
+    @Override
+    public long getLongValue() throws IOException {
+        if (this._currToken == JsonToken.VALUE_NUMBER_INT) {
+            return this.tape.entryAt(this.current + 1);
+        }
+        if (this._currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            return (long) Double.longBitsToDouble(this.tape.entryAt(this.current + 1));
+        }
+        throw new com.fasterxml.jackson.core.JsonParseException(this, "Current token (" + this._currToken + ") not numeric");
+    }
+
+    @Override
+    public BigInteger getBigIntegerValue() throws IOException {
+        if (this._currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            return this.getDecimalValue().toBigInteger();
+        }
+        return BigInteger.valueOf(this.getLongValue());
+    }
+
+    @Override
+    public float getFloatValue() throws IOException {
+        return (float) this.getDoubleValue();
+    }
+
+    @Override
+    public double getDoubleValue() throws IOException {
+        if (this._currToken == JsonToken.VALUE_NUMBER_FLOAT) {
+            return Double.longBitsToDouble(this.tape.entryAt(this.current + 1));
+        }
+        if (this._currToken == JsonToken.VALUE_NUMBER_INT) {
+            return (double) this.tape.entryAt(this.current + 1);
+        }
+        throw new com.fasterxml.jackson.core.JsonParseException(this, "Current token (" + this._currToken + ") not numeric");
+    }
+
+    @Override
+    public BigDecimal getDecimalValue() throws IOException {
+        if (this._currToken == JsonToken.VALUE_NUMBER_INT) {
+            return BigDecimal.valueOf(this.getLongValue());
+        }
+        try {
+            return BigDecimal.valueOf(this.getDoubleValue());
+        } catch (final NumberFormatException ex) {
+            throw new com.fasterxml.jackson.core.JsonParseException(this, "Numeric value is not a finite decimal", ex);
+        }
+    }
+
+    /**
+     * Decodes the text of the current token into the reusable array, only once for a token.
+     */
+    private boolean decodeText() {
+        if (this._currToken == null) {
+            return false;
+        }
+        if (this.decodedIndex == this.current) {
+            return true;
+        }
+        if (this._currToken == JsonToken.VALUE_STRING || (this._currToken.isNumeric() && this.hasLiteral())) {
+            final long entry = this.currentEntry();
+            this.textLength = this.tape.stringLengthOf(entry);
+            this.ensureTextCapacity();
+            this.tape.copyStringOf(entry, this.textCharacters);
+        } else {
+            final String text = this.getText();
+            this.textLength = text.length();
+            this.ensureTextCapacity();
+            text.getChars(0, this.textLength, this.textCharacters, 0);
+        }
+        this.decodedIndex = this.current;
+        return true;
+    }
+
+    private void ensureTextCapacity() {
+        if (this.textCharacters.length < this.textLength) {
+            this.textCharacters = new char[Math.max(this.textLength, this.textCharacters.length * 2)];
+        }
+    }
+
+    private long currentEntry() {
+        return this.tape.entryAt(this.current);
+    }
+
+    private boolean hasLiteral() {
+        final byte tag = JsonTape.tagOf(this.currentEntry());
+        return tag == JsonTape.LONG_WITH_LITERAL || tag == JsonTape.DOUBLE_WITH_LITERAL;
+    }
+
+    private static final int INITIAL_TEXT_CAPACITY = 64;
+
+    private final JsonTape tape;
+    private int end;
+
+    private int position;  // The index of the next entry to read
+    private int current;  // The index of the entry of the current token
+    private JsonReadContext context;
+    private boolean closed;
+
+    private char[] textCharacters;
+    private int textLength;
+    private int decodedIndex;  // The index of the entry whose text is in textCharacters, or -1
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reads JSON values into {@link JsonTape} in one pass.
+ *
+ * <p>It is the counterpart of {@link InternalJsonValueReader} for {@link JsonTape}. Numbers are parsed in the same
+ * way with the same options. Its scratch arrays grow when needed, and are reused for next batches.
+ *
+ * <p>It reads tokens one by one without recursion, so that it can also stop at any token from a non-blocking parser
+ * of Jackson, and resume from there by {@link #appendAvailable(JsonParser, JsonToken)}.
+ */
+final class JsonTapeReader {
+    JsonTapeReader(
+            final boolean hasLiteralsWithNumbers,
+            final boolean hasFallbacksForUnparsableNumbers,
+            final double defaultDouble,
+            final long defaultLong,
+            final int maxNestingDepth) {
+        this.hasLiteralsWithNumbers = hasLiteralsWithNumbers;
+        this.hasFallbacksForUnparsableNumbers = hasFallbacksForUnparsableNumbers;
+        this.defaultDouble = defaultDouble;
+        this.defaultLong = defaultLong;
+        this.maxNestingDepth = maxNestingDepth;
+        this.entries = new long[INITIAL_CAPACITY];
+        this.entriesSize = 0;
+        this.strings = new byte[INITIAL_CAPACITY];
+        this.stringsSize = 0;
+        this.starts = new int[INITIAL_CAPACITY];
+        this.openings = new int[INITIAL_CAPACITY];
+        this.counts = new int[INITIAL_CAPACITY];
+        this.depth = 0;
+        this.chars = new char[INITIAL_CAPACITY];
+        this.availableSize = 0;
+        this.availableEntries = 0;
+        this.availableStrings = 0;
+    }
+
+    /**
+     * Reads JSON values up to the maximum into a new {@link JsonTape}.
+     *
+     * @return the tape, or {@code null} if the parser reaches at the end of input in the beginning
+     */
+    JsonTape read(final JsonParser jacksonParser, final int maxValues) throws IOException {
+        this.entriesSize = 0;
+        this.stringsSize = 0;
+        this.depth = 0;
+        int size = 0;
+        try {
+            while (size < maxValues) {
+                JsonToken token = jacksonParser.nextToken();
+                if (token == null) {
+                    break;
+                }
+                this.markStart(size++);
+                while (!this.appendToken(jacksonParser, token)) {
+                    token = jacksonParser.nextToken();
+                    if (token == null) {
+                        throw new JsonParseException("Unexpected end of JSON at " + jacksonParser.getTokenLocation());
+                    }
+                }
+            }
+        } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
+            throw new JsonParseException("Failed to parse JSON", ex);
+        } catch (final IOException ex) {
+            throw ex;
+        } catch (final JsonParseException ex) {
+            throw ex;
+        } catch (final RuntimeException ex) {
+            throw new JsonParseException("Failed to parse JSON", ex);
+        }
+
+        if (size == 0) {
+            return null;
+        }
+        return new JsonTape(
+                Arrays.copyOf(this.entries, this.entriesSize),
+                Arrays.copyOf(this.strings, this.stringsSize),
+                Arrays.copyOf(this.starts, size),
+                this.hasLiteralsWithNumbers);
+    }
+
+    /**
+     * Appends a token of a JSON value from a non-blocking parser of Jackson into the scratch arrays.
+     *
+     * <p>The JSON values completed are kept in the scratch arrays until {@link #takeAvailable()}. A JSON value which is
+     * not completed yet is continued by the next call, even after {@link #takeAvailable()}.
+     *
+     * @return {@code true} if the token completes a JSON value
+     */
+    boolean appendAvailable(final JsonParser nonBlockingParser, final JsonToken token) throws IOException {
+        if (this.depth == 0) {
+            this.markStart(this.availableSize);
+        }
+        if (this.appendToken(nonBlockingParser, token)) {
+            this.availableSize++;
+            this.availableEntries = this.entriesSize;
+            this.availableStrings = this.stringsSize;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if it is in the middle of a JSON value appended by {@link #appendAvailable(JsonParser, JsonToken)}.
+     */
+    boolean isInValue() {
+        return this.depth > 0;
+    }
+
+    /**
+     * Takes the JSON values completed by {@link #appendAvailable(JsonParser, JsonToken)} into a new {@link JsonTape}.
+     *
+     * <p>The entries of a JSON value which is not completed yet are moved to the beginning of the scratch arrays.
+     *
+     * @return the tape of the JSON values completed, or {@code null} if no JSON value is completed
+     */
+    JsonTape takeAvailable() {
+        if (this.availableSize == 0) {
+            return null;
+        }
+        final JsonTape tape = new JsonTape(
+                Arrays.copyOf(this.entries, this.availableEntries),
+                Arrays.copyOf(this.strings, this.availableStrings),
+                Arrays.copyOf(this.starts, this.availableSize),
+                this.hasLiteralsWithNumbers);
+        this.shiftIncomplete(this.availableEntries, this.availableStrings);
+        if (this.depth > 0) {
+            this.starts[0] = 0;  // The incomplete JSON value has been moved to the beginning.
+        }
+        this.availableSize = 0;
+        this.availableEntries = 0;
+        this.availableStrings = 0;
+        return tape;
+    }
+
+    private void markStart(final int index) {
+        if (index >= this.starts.length) {
+            this.starts = Arrays.copyOf(this.starts, this.starts.length * 2);
+        }
+        this.starts[index] = this.entriesSize;
+    }
+
+    /**
+     * Appends a token into the tape, and returns {@code true} if it completes a JSON value at the top-level.
+     */
+    private boolean appendToken(final JsonParser jacksonParser, final JsonToken token) throws IOException {
+        final int depth = this.depth;
+        switch (token) {
+            case START_ARRAY:
+            case START_OBJECT:
+                if (depth >= this.maxNestingDepth) {
+                    throw new JsonParseException(
+                            "JSON is nested deeper than the maximum depth " + this.maxNestingDepth
+                                    + " at " + jacksonParser.getTokenLocation());
+                }
+                if (depth >= this.openings.length) {
+                    this.openings = Arrays.copyOf(this.openings, this.openings.length * 2);
+                    this.counts = Arrays.copyOf(this.counts, this.counts.length * 2);
+                }
+                this.openings[depth] = this.appendEntry(
+                        JsonTape.entry(token == JsonToken.START_OBJECT ? JsonTape.START_OBJECT : JsonTape.START_ARRAY, 0L));
+                this.counts[depth] = 0;
+                this.depth = depth + 1;
+                return false;
+
+            case END_ARRAY:
+            case END_OBJECT: {
+                if (depth <= 0) {
+                    throw new JsonParseException("Unexpected token " + token + " at " + jacksonParser.getTokenLocation());
+                }
+                final int opening = this.openings[depth - 1];
+                this.appendEntry(JsonTape.entry(token == JsonToken.END_OBJECT ? JsonTape.END_OBJECT : JsonTape.END_ARRAY, opening));
+                this.entries[opening] |= ((long) Math.min(this.counts[depth - 1], JsonTape.MAX_COUNT) << JsonTape.COUNT_SHIFT)
+                        | this.entriesSize;
+                this.depth = depth - 1;
+                if (depth > 1) {
+                    this.counts[depth - 2]++;
+                }
+                return depth == 1;
+            }
+
+            case FIELD_NAME:
+                // Not from getTextCharacters(), which may return stale characters for names from a non-blocking parser.
+                this.appendEntry(this.appendString(JsonTape.STRING, jacksonParser.currentName()));
+                return false;
+
+            default:
+                this.appendScalarValue(jacksonParser, token);
+                if (depth > 0) {
+                    this.counts[depth - 1]++;
+                }
+                return depth == 0;
+        }
+    }
+
+    /**
+     * Moves the entries and the strings of an incomplete JSON value to the beginning of the scratch arrays.
+     *
+     * <p>Indices of entries and offsets of strings in the entries moved are shifted accordingly.
+     */
+    private void shiftIncomplete(final int entryShift, final int stringShift) {
+        if (entryShift == 0 && stringShift == 0) {
+            return;
+        }
+        for (int i = entryShift; i < this.entriesSize; i++) {
+            final long entry = this.entries[i];
+            switch (JsonTape.tagOf(entry)) {
+                case JsonTape.START_ARRAY:
+                case JsonTape.START_OBJECT:
+                    // The end of a start entry is set only when the JSON array or object is closed.
+                    this.entries[i - entryShift] = JsonTape.endOf(entry) == 0 ? entry : entry - entryShift;
+                    break;
+                case JsonTape.END_ARRAY:
+                case JsonTape.END_OBJECT:
+                    this.entries[i - entryShift] = entry - entryShift;
+                    break;
+                case JsonTape.STRING:
+                    this.entries[i - entryShift] = entry - stringShift;
+                    break;
+                case JsonTape.LONG_WITH_LITERAL:
+                case JsonTape.DOUBLE_WITH_LITERAL:
+                    this.entries[i - entryShift] = entry - stringShift;
+                    this.entries[i + 1 - entryShift] = this.entries[i + 1];
+                    i++;
+                    break;
+                case JsonTape.LONG:
+                case JsonTape.DOUBLE:
+                    this.entries[i - entryShift] = entry;
+                    this.entries[i + 1 - entryShift] = this.entries[i + 1];
+                    i++;
+                    break;
+                default:
+                    this.entries[i - entryShift] = entry;
+            }
+        }
+        for (int i = 0; i < this.depth; i++) {
+            this.openings[i] -= entryShift;
+        }
+        System.arraycopy(this.strings, stringShift, this.strings, 0, this.stringsSize - stringShift);
+        this.entriesSize -= entryShift;
+        this.stringsSize -= stringShift;
+    }
+
+    private void appendScalarValue(final JsonParser jacksonParser, final JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_NULL:
+                this.appendEntry(JsonTape.entry(JsonTape.NULL, 0L));
+                return;
+
+            case VALUE_TRUE:
+                this.appendEntry(JsonTape.entry(JsonTape.TRUE, 0L));
+                return;
+
+            case VALUE_FALSE:
+                this.appendEntry(JsonTape.entry(JsonTape.FALSE, 0L));
+                return;
+
+            case VALUE_NUMBER_FLOAT: {
+                final double value = this.getDoubleValue(jacksonParser);
+                if (this.hasLiteralsWithNumbers) {
+                    this.appendEntry(this.appendString(JsonTape.DOUBLE_WITH_LITERAL, jacksonParser.getValueAsString()));
+                } else {
+                    this.appendEntry(JsonTape.entry(JsonTape.DOUBLE, 0L));
+                }
+                this.appendEntry(Double.doubleToRawLongBits(value));
+                return;
+            }
+
+            case VALUE_NUMBER_INT: {
+                final long value = this.getLongValue(jacksonParser);
+                if (this.hasLiteralsWithNumbers) {
+                    this.appendEntry(this.appendString(JsonTape.LONG_WITH_LITERAL, jacksonParser.getValueAsString()));
+                } else {
+                    this.appendEntry(JsonTape.entry(JsonTape.LONG, 0L));
+                }
+                this.appendEntry(value);
+                return;
+            }
+
+            case VALUE_STRING:
+                this.appendEntry(this.appendString(
+                        JsonTape.STRING,
+                        jacksonParser.getTextCharacters(),
+                        jacksonParser.getTextOffset(),
+                        jacksonParser.getTextLength()));
+                return;
+
+            case START_ARRAY:
+            case START_OBJECT:
+            case VALUE_EMBEDDED_OBJECT:
+            case FIELD_NAME:
+            case END_ARRAY:
+            case END_OBJECT:
+            case NOT_AVAILABLE:
+            default:
+                throw new JsonParseException(
+                        "Unexpected token " + token + " at " + jacksonParser.getTokenLocation());
+        }
+    }
+
+    private int appendEntry(final long entry) {
+        if (this.entriesSize >= this.entries.length) {
+            this.entries = Arrays.copyOf(this.entries, grow(this.entries.length, this.entriesSize + 1));
+        }
+        this.entries[this.entriesSize] = entry;
+        return this.entriesSize++;
+    }
+
+    private long appendString(final byte tag, final String string) {
+        final int length = string.length();
+        if (length > this.chars.length) {
+            this.chars = new char[Math.max(length, this.chars.length * 2)];
+        }
+        string.getChars(0, length, this.chars, 0);
+        return this.appendString(tag, this.chars, 0, length);
+    }
+
+    /**
+     * Appends characters into the strings, and returns an entry pointing to them.
+     */
+    private long appendString(final byte tag, final char[] chars, final int offset, final int length) {
+        boolean isLatin1 = true;
+        for (int i = offset; i < offset + length; i++) {
+            if (chars[i] > 0xff) {
+                isLatin1 = false;
+                break;
+            }
+        }
+
+        final long bytesLength = 4L + (isLatin1 ? length : 2L * length);
+        if (this.stringsSize + bytesLength > MAX_ARRAY_SIZE) {
+            throw new JsonParseException("Strings in JSON are too large for a tape.");
+        }
+        final int required = this.stringsSize + (int) bytesLength;
+        if (required > this.strings.length) {
+            this.strings = Arrays.copyOf(this.strings, grow(this.strings.length, required));
+        }
+
+        final int start = this.stringsSize;
+        int p = start;
+        this.strings[p++] = (byte) (length >>> 24);
+        this.strings[p++] = (byte) (length >>> 16);
+        this.strings[p++] = (byte) (length >>> 8);
+        this.strings[p++] = (byte) length;
+        if (isLatin1) {
+            for (int i = offset; i < offset + length; i++) {
+                this.strings[p++] = (byte) chars[i];
+            }
+        } else {
+            for (int i = offset; i < offset + length; i++) {
+                this.strings[p++] = (byte) (chars[i] >>> 8);
+                this.strings[p++] = (byte) chars[i];
+            }
+        }
+        this.stringsSize = p;
+        return JsonTape.entry(tag, isLatin1 ? start : (start | JsonTape.UTF16_FLAG));
+    }
+
+    private static int grow(final int capacity, final int required) {
+        if (required < 0 || required > MAX_ARRAY_SIZE) {
+            throw new JsonParseException("JSON is too large for a tape.");
+        }
+        return (int) Math.min(MAX_ARRAY_SIZE, Math.max((long) required, capacity * 2L));
+    }
+
+    private double getDoubleValue(final JsonParser jacksonParser) throws IOException {
+        try {
+            return jacksonParser.getDoubleValue();
+        } catch (final IOException ex) {
+            if (this.hasFallbacksForUnparsableNumbers) {
+                return this.defaultDouble;
+            }
+            throw ex;
+        }
+    }
+
+    private long getLongValue(final JsonParser jacksonParser) throws IOException {
+        try {
+            return jacksonParser.getLongValue();
+        } catch (final IOException ex) {
+            if (this.hasFallbacksForUnparsableNumbers) {
+                return this.defaultLong;
+            }
+            throw ex;
+        }
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    // Some VMs reserve some header words in an array.
+    private static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private final boolean hasLiteralsWithNumbers;
+    private final boolean hasFallbacksForUnparsableNumbers;
+    private final double defaultDouble;
+    private final long defaultLong;
+    private final int maxNestingDepth;
+
+    private long[] entries;
+    private int entriesSize;
+    private byte[] strings;
+    private int stringsSize;
+    private int[] starts;
+
+    // The explicit stacks of start entries and counts of nested JSON arrays and objects.
+    private int[] openings;
+    private int[] counts;
+    private int depth;
+
+    // The scratch to copy characters of a String.
+    private char[] chars;
+
+    // The number, the entries, and the strings of JSON values completed from a non-blocking parser, not taken yet.
+    private int availableSize;
+    private int availableEntries;
+    private int availableStrings;
+}
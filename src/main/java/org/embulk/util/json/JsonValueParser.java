@@ -22,10 +22,21 @@ import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
 import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
 import com.fasterxml.jackson.core.filter.TokenFilter;
 import com.fasterxml.jackson.core.json.PackageVersion;
+import com.fasterxml.jackson.core.json.UTF8StreamJsonParser;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import org.embulk.spi.json.JsonDouble;
 import org.embulk.spi.json.JsonLong;
 import org.embulk.spi.json.JsonValue;
@@ -35,20 +46,31 @@ import org.embulk.spi.json.JsonValue;
  */
 public final class JsonValueParser implements Closeable {
     private JsonValueParser(
-            final com.fasterxml.jackson.core.JsonParser jacksonParser,
-            final int depthToFlattenJsonArrays,
-            final boolean hasLiteralsWithNumbers,
-            final boolean hasFallbacksForUnparsableNumbers,
-            final double defaultDouble,
-            final long defaultLong) {
-        this.jacksonParser = Objects.requireNonNull(jacksonParser);
+            final Builder builder,
+            final com.fasterxml.jackson.core.JsonParser baseParser,
+            final LazyJsonSource.Input lazySource,
+            final JsonValueSpliterator.ByteSource byteSource) {
+        this.builder = builder;
+        this.rootFilter = builder.root != null ? new JsonPointerBasedFilter(builder.root) : null;
+        this.flattenFilter = builder.depthToFlattenJsonArrays > 0 ? new FlattenJsonArrayFilter(builder.depthToFlattenJsonArrays) : null;
+        this.jacksonParser = Builder.extendJacksonParser(Objects.requireNonNull(baseParser), this.rootFilter, this.flattenFilter);
         this.valueReader = new InternalJsonValueReader(
-                hasLiteralsWithNumbers, hasFallbacksForUnparsableNumbers, defaultDouble, defaultLong);
-        this.depthToFlattenJsonArrays = depthToFlattenJsonArrays;
-        this.hasLiteralsWithNumbers = hasLiteralsWithNumbers;
-        this.hasFallbacksForUnparsableNumbers = hasFallbacksForUnparsableNumbers;
-        this.defaultDouble = defaultDouble;
-        this.defaultLong = defaultLong;
+                builder.hasLiteralsWithNumbers,
+                builder.hasFallbacksForUnparsableNumbers,
+                builder.defaultDouble,
+                builder.defaultLong,
+                builder.maxNestingDepth,
+                builder.objectShapeCacheSize > 0 ? ObjectShapeCache.withCapacity(builder.objectShapeCacheSize) : null,
+                builder.hasLongCache ? JsonLongCache.ofRange(builder.longCacheMin, builder.longCacheMax) : null,
+                builder.stringCacheCapacity > 0 ? JsonStringCache.of(builder.stringCacheCapacity, builder.stringCacheMaxLength) : null,
+                lazySource);
+        this.depthToFlattenJsonArrays = builder.depthToFlattenJsonArrays;
+        this.hasLiteralsWithNumbers = builder.hasLiteralsWithNumbers;
+        this.hasFallbacksForUnparsableNumbers = builder.hasFallbacksForUnparsableNumbers;
+        this.defaultDouble = builder.defaultDouble;
+        this.defaultLong = builder.defaultLong;
+        this.tapeReader = null;
+        this.byteSource = byteSource;
     }
 
     /**
@@ -63,6 +85,38 @@ public final class JsonValueParser implements Closeable {
             this.hasFallbacksForUnparsableNumbers = false;
             this.defaultDouble = 0.0;
             this.defaultLong = 0;
+            this.maxNestingDepth = InternalJsonValueReader.DEFAULT_MAX_NESTING_DEPTH;
+            this.objectShapeCacheSize = 0;
+            this.hasLongCache = false;
+            this.longCacheMin = 0;
+            this.longCacheMax = 0;
+            this.stringCacheCapacity = 0;
+            this.stringCacheMaxLength = 0;
+            this.hasLazyJsonValues = false;
+            this.parallelChunkSize = DEFAULT_PARALLEL_CHUNK_SIZE;
+            this.parallelMaxInFlightBytes = DEFAULT_PARALLEL_MAX_IN_FLIGHT_BYTES;
+            this.isSnapshot = false;
+        }
+
+        private Builder(final Builder other) {
+            this.factory = other.factory;
+            this.root = other.root;
+            this.depthToFlattenJsonArrays = other.depthToFlattenJsonArrays;
+            this.hasLiteralsWithNumbers = other.hasLiteralsWithNumbers;
+            this.hasFallbacksForUnparsableNumbers = other.hasFallbacksForUnparsableNumbers;
+            this.defaultDouble = other.defaultDouble;
+            this.defaultLong = other.defaultLong;
+            this.maxNestingDepth = other.maxNestingDepth;
+            this.objectShapeCacheSize = other.objectShapeCacheSize;
+            this.hasLongCache = other.hasLongCache;
+            this.longCacheMin = other.longCacheMin;
+            this.longCacheMax = other.longCacheMax;
+            this.stringCacheCapacity = other.stringCacheCapacity;
+            this.stringCacheMaxLength = other.stringCacheMaxLength;
+            this.hasLazyJsonValues = other.hasLazyJsonValues;
+            this.parallelChunkSize = other.parallelChunkSize;
+            this.parallelMaxInFlightBytes = other.parallelMaxInFlightBytes;
+            this.isSnapshot = false;
         }
 
         /**
@@ -133,6 +187,176 @@ public final class JsonValueParser implements Closeable {
             return this;
         }
 
+        /**
+         * Sets the maximum nesting depth of JSON arrays and objects to read.
+         *
+         * <p>The parser reads nested JSON arrays and objects without recursive calls, so a deeply nested JSON
+         * does not overflow the call stack. The parser throws {@link JsonParseException} for a JSON value nested
+         * deeper than the maximum. The depth is counted from the JSON value read, or from the JSON value
+         * captured by {@link CapturingPointers.Builder#addDirectMemberName(String) direct member names}, or from the top-level for
+         * {@link CapturingPointers.Builder#addJsonPointer(String) JSON Pointers}. It is 1000 by default, the same as
+         * the default of {@link com.fasterxml.jackson.core.StreamReadConstraints}, to bound the memory for a hostile input.
+         *
+         * <p>The internal {@link JsonFactory} of {@link JsonValueParser#builder()} does not limit the nesting depth by
+         * {@code StreamReadConstraints}, so that this maximum is the only bound applied, and a deeper JSON can be read by
+         * setting a larger maximum explicitly. Note that {@code StreamReadConstraints} of a {@link JsonFactory} given to
+         * {@link JsonValueParser#builder(JsonFactory)} still limit the nesting depth.
+         *
+         * @param maxNestingDepth  the maximum nesting depth, which must be positive
+         * @return this builder
+         * @throws IllegalArgumentException  if the maximum nesting depth is not positive
+         */
+        public Builder setMaxNestingDepth(final int maxNestingDepth) {
+            if (maxNestingDepth <= 0) {
+                throw new IllegalArgumentException("The maximum nesting depth must be positive.");
+            }
+            this.maxNestingDepth = maxNestingDepth;
+            return this;
+        }
+
+        /**
+         * Sets the size of the cache of "shapes", sequences of member names, of JSON objects.
+         *
+         * <p>JSON objects in a homogeneous input, such as NDJSON with a fixed schema, mostly have the same
+         * sequence of member names. If enabled, when a JSON object has the same sequence of member names with
+         * a JSON object read recently, the {@link org.embulk.spi.json.JsonObject}s share the same array of member
+         * names. Only an array of values is allocated for each of such JSON objects then. It is similar to
+         * "hidden classes" of JavaScript engines.
+         *
+         * <p>It is disabled by default, or when the size is {@code 0}. The size is rounded up to a power of two.
+         * A larger size keeps more shapes, but looking up the cache costs for every JSON object.
+         *
+         * @param objectShapeCacheSize  the number of shapes to be cached, from {@code 0} to {@code 65536}
+         * @return this builder
+         * @throws IllegalArgumentException  if the size is out of the range
+         */
+        public Builder setObjectShapeCacheSize(final int objectShapeCacheSize) {
+            if (objectShapeCacheSize < 0 || objectShapeCacheSize > ObjectShapeCache.MAX_CAPACITY) {
+                throw new IllegalArgumentException(
+                        "The size of the object shape cache must be from 0 to " + ObjectShapeCache.MAX_CAPACITY + ".");
+            }
+            this.objectShapeCacheSize = objectShapeCacheSize;
+            return this;
+        }
+
+        /**
+         * Enables reusing {@link JsonLong} instances for integers in the specified range.
+         *
+         * <p>Integral JSON values in the range, such as status codes and small counts, share the same
+         * {@link JsonLong} instances in a parser, instead of allocating a new instance for every occurrence. The
+         * instances are created lazily for the first occurrences.
+         *
+         * <p>It is not effective when {@link #enableSupplementalLiteralsWithNumbers()} is enabled.
+         *
+         * @param min  the minimum integer to be cached
+         * @param max  the maximum integer to be cached
+         * @return this builder
+         * @throws IllegalArgumentException  if {@code min} is larger than {@code max}, or the range contains more than 65536 integers
+         */
+        public Builder enableJsonLongCache(final long min, final long max) {
+            JsonLongCache.ofRange(min, max);  // Only to validate the range.
+            this.hasLongCache = true;
+            this.longCacheMin = min;
+            this.longCacheMax = max;
+            return this;
+        }
+
+        /**
+         * Enables reusing {@link org.embulk.spi.json.JsonString} instances for short strings through a bounded cache.
+         *
+         * <p>JSON Strings of low cardinality, such as enum-like values and country codes, share the same
+         * {@link org.embulk.spi.json.JsonString} instances in a parser if they hit the cache. The cache does not
+         * allocate even a {@link String} when it hits.
+         *
+         * <p>The cache is direct-mapped by hashes of strings. A string replaces an older one at the same slot.
+         *
+         * @param capacity  the number of strings to be cached, from {@code 1} to {@code 65536}, rounded up to a power of two
+         * @param maxLength  the maximum length of strings to be cached
+         * @return this builder
+         * @throws IllegalArgumentException  if the capacity is out of the range, or the maximum length is negative
+         */
+        public Builder enableJsonStringCache(final int capacity, final int maxLength) {
+            JsonStringCache.of(capacity, maxLength);  // Only to validate the parameters.
+            this.stringCacheCapacity = capacity;
+            this.stringCacheMaxLength = maxLength;
+            return this;
+        }
+
+        /**
+         * Enables reading JSON arrays and objects lazily from the stringified JSON.
+         *
+         * <p>If enabled, a JSON array or object read is only validated, and returned as a lightweight
+         * {@link JsonValue} which keeps only the range of the stringified JSON. It is materialized into
+         * {@link org.embulk.spi.json.JsonArray} or {@link org.embulk.spi.json.JsonObject} the first time its
+         * content is accessed. Only its direct elements or members are materialized then, and nested JSON arrays
+         * and objects in it are materialized when they are accessed in turn. It saves building JSON values which
+         * are never accessed, such as when only a few members of a large JSON object are looked at.
+         *
+         * <p>Note that a lazy JSON value keeps a reference to the whole stringified JSON until it is discarded.
+         * It throws {@link JsonParseException} when it is materialized if it contains unparsable numbers without
+         * {@link #fallbackForUnparsableNumbers(double, long)}. The caches of JSON values are not used for lazy
+         * JSON values. It is effective for {@link #build(String)}, {@link #build(char[], int, int)}, and for
+         * {@link #build(byte[], int, int)} and {@link #build(ByteBuffer)} in UTF-8. A parser built for an
+         * {@link java.io.InputStream} reads JSON values eagerly, because the input is not retained.
+         *
+         * @return this builder
+         */
+        public Builder enableLazyJsonValues() {
+            this.hasLazyJsonValues = true;
+            return this;
+        }
+
+        /**
+         * Sets the size of a chunk of input to be parsed by a task of {@link ParallelJsonValueParser}.
+         *
+         * <p>A chunk is cut right after the last line feed in the size, or extended to the next line feed for a line
+         * longer than the size. A larger chunk costs less to submit tasks, but more memory for each task. It is 1 MB
+         * by default.
+         *
+         * @param chunkSize  the size of a chunk in bytes, which must be positive
+         * @return this builder
+         * @throws IllegalArgumentException  if the size is not positive
+         */
+        public Builder setParallelChunkSize(final int chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("The size of a chunk must be positive.");
+            }
+            this.parallelChunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum total size of chunks in flight in {@link ParallelJsonValueParser}.
+         *
+         * <p>Chunks are read ahead and parsed in parallel until the chunks submitted, but not read completely yet,
+         * reach the maximum. It bounds the memory for the input and the JSON values parsed from it. It can exceed the
+         * maximum by a chunk. A line, or an element, longer than the maximum, or than the chunk size if larger, fails
+         * to be parsed instead of being buffered further. It is 64 MB by default.
+         *
+         * @param maxInFlightBytes  the maximum total size of chunks in bytes, which must be positive
+         * @return this builder
+         * @throws IllegalArgumentException  if the maximum is not positive
+         */
+        public Builder setParallelMaxInFlightBytes(final long maxInFlightBytes) {
+            if (maxInFlightBytes <= 0) {
+                throw new IllegalArgumentException("The maximum size of chunks in flight must be positive.");
+            }
+            this.parallelMaxInFlightBytes = maxInFlightBytes;
+            return this;
+        }
+
+        /**
+         * Builds {@link JsonValueParserFactory}, which creates {@link JsonValueParser}s with the configurations of this
+         * builder at this time.
+         *
+         * <p>The factory is immutable, and thread-safe. Changes to this builder after building are not reflected.
+         *
+         * @return the {@link JsonValueParserFactory} instance created
+         */
+        public JsonValueParserFactory buildFactory() {
+            return new JsonValueParserFactory(this.snapshot());
+        }
+
         /**
          * Builds {@link JsonValueParser} for the stringified JSON.
          *
@@ -140,13 +364,8 @@ public final class JsonValueParser implements Closeable {
          * @return the {@link JsonValueParser} instance created
          */
         public JsonValueParser build(final String json) throws IOException {
-            return new JsonValueParser(
-                    buildJacksonParser(json),
-                    this.depthToFlattenJsonArrays,
-                    this.hasLiteralsWithNumbers,
-                    this.hasFallbacksForUnparsableNumbers,
-                    this.defaultDouble,
-                    this.defaultLong);
+            final com.fasterxml.jackson.core.JsonParser baseParser = this.factory.createParser(Objects.requireNonNull(json));
+            return this.buildWithJacksonParser(baseParser, this.lazySourceInString(json));
         }
 
         /**
@@ -156,37 +375,422 @@ public final class JsonValueParser implements Closeable {
          * @return the {@link JsonValueParser} instance created
          */
         public JsonValueParser build(final InputStream jsonStream) throws IOException {
-            return new JsonValueParser(
-                    buildJacksonParser(jsonStream),
-                    this.depthToFlattenJsonArrays,
+            return this.buildWithJacksonParser(this.factory.createParser(Objects.requireNonNull(jsonStream)), null);
+        }
+
+        /**
+         * Builds {@link JsonValueParser} for the stringified JSON in the region of the byte array.
+         *
+         * <p>The bytes are read directly by the byte-array-based parser of Jackson, without copying them in advance.
+         * The encoding is detected in the same way with {@link #build(InputStream)}. The byte array must not be
+         * modified while the parser, or lazy JSON values from the parser, are in use.
+         *
+         * @param json  the byte array of the stringified JSON
+         * @param offset  the offset of the stringified JSON in the byte array
+         * @param length  the length of the stringified JSON in bytes
+         * @return the {@link JsonValueParser} instance created
+         * @throws IndexOutOfBoundsException  if the region is out of the byte array
+         */
+        public JsonValueParser build(final byte[] json, final int offset, final int length) throws IOException {
+            checkRegion(Objects.requireNonNull(json).length, offset, length);
+            final com.fasterxml.jackson.core.JsonParser baseParser = this.factory.createParser(json, offset, length);
+            final Builder snapshot = this.snapshot();
+            return this.buildWithJacksonParser(
+                    snapshot,
+                    baseParser,
+                    this.lazySourceInBytes(baseParser, ByteBuffer.wrap(json, offset, length)),
+                    byteSource(snapshot, baseParser, json, offset, length));
+        }
+
+        /**
+         * Builds {@link JsonValueParser} for the stringified JSON from the position to the limit of the buffer.
+         *
+         * <p>The bytes in a heap buffer are read directly by the byte-array-based parser of Jackson. The bytes in
+         * a direct buffer, or a read-only buffer, are streamed to the parser without copying them all in advance.
+         * The position of the buffer is not changed. The content of the buffer must not be modified while the
+         * parser, or lazy JSON values from the parser, are in use.
+         *
+         * @param json  the buffer of the stringified JSON
+         * @return the {@link JsonValueParser} instance created
+         */
+        public JsonValueParser build(final ByteBuffer json) throws IOException {
+            final Builder snapshot = this.snapshot();
+            final com.fasterxml.jackson.core.JsonParser baseParser;
+            final JsonValueSpliterator.ByteSource byteSource;
+            if (Objects.requireNonNull(json).hasArray()) {
+                final int offset = json.arrayOffset() + json.position();
+                baseParser = this.factory.createParser(json.array(), offset, json.remaining());
+                byteSource = byteSource(snapshot, baseParser, json.array(), offset, json.remaining());
+            } else {
+                baseParser = this.factory.createParser(new ByteBufferInputStream(json));
+                byteSource = null;
+            }
+            return this.buildWithJacksonParser(snapshot, baseParser, this.lazySourceInBytes(baseParser, json), byteSource);
+        }
+
+        /**
+         * Builds {@link JsonValueParser} for the stringified JSON in the region of the char array.
+         *
+         * <p>The characters are read directly by the char-array-based parser of Jackson, without copying them into
+         * a {@link String}. The char array must not be modified while the parser, or lazy JSON values from the parser,
+         * are in use.
+         *
+         * @param json  the char array of the stringified JSON
+         * @param offset  the offset of the stringified JSON in the char array
+         * @param length  the length of the stringified JSON in characters
+         * @return the {@link JsonValueParser} instance created
+         * @throws IndexOutOfBoundsException  if the region is out of the char array
+         */
+        public JsonValueParser build(final char[] json, final int offset, final int length) throws IOException {
+            checkRegion(Objects.requireNonNull(json).length, offset, length);
+            final com.fasterxml.jackson.core.JsonParser baseParser = this.factory.createParser(json, offset, length);
+            return this.buildWithJacksonParser(
+                    baseParser,
+                    this.hasLazyJsonValues ? LazyJsonSource.ofChars(
+                            this.factory,
+                            json,
+                            offset,
+                            this.hasLiteralsWithNumbers,
+                            this.hasFallbacksForUnparsableNumbers,
+                            this.defaultDouble,
+                            this.defaultLong) : null);
+        }
+
+        /**
+         * Builds {@link JsonValueParser} for the stringified JSON in the file, by memory-mapping the file.
+         *
+         * <p>The file is memory-mapped in segments, and the mapped segments are read by the blocking parser of Jackson
+         * one after another. Only one segment is mapped at a time, so that a file larger than 2 GB can be read. The
+         * encoding is detected in the same way with {@link #build(InputStream)}. JSON values are read eagerly even if
+         * {@link #enableLazyJsonValues()} is enabled.
+         *
+         * <p>The file is closed when the {@link JsonValueParser} is closed.
+         *
+         * @param jsonPath  the path to the file of the stringified JSON
+         * @return the {@link JsonValueParser} instance created
+         */
+        public JsonValueParser build(final Path jsonPath) throws IOException {
+            final FileChannel channel = FileChannel.open(Objects.requireNonNull(jsonPath), StandardOpenOption.READ);
+            try {
+                return this.build(channel, MappedSegmentsParser.DEFAULT_SEGMENT_SIZE, true);
+            } catch (final IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+        }
+
+        /**
+         * Builds {@link JsonValueParser} for the stringified JSON from the current position to the end of the file
+         * channel, by memory-mapping the file.
+         *
+         * <p>It reads the file in the same way with {@link #build(Path)}. The channel is closed when the
+         * {@link JsonValueParser} is closed if {@link com.fasterxml.jackson.core.JsonParser.Feature#AUTO_CLOSE_SOURCE}
+         * is enabled in the {@link JsonFactory}, as it is for {@link java.io.InputStream}.
+         *
+         * @param jsonChannel  the file channel of the stringified JSON
+         * @return the {@link JsonValueParser} instance created
+         */
+        public JsonValueParser build(final FileChannel jsonChannel) throws IOException {
+            return this.build(
+                    Objects.requireNonNull(jsonChannel),
+                    MappedSegmentsParser.DEFAULT_SEGMENT_SIZE,
+                    this.factory.isEnabled(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE));
+        }
+
+        JsonValueParser build(final FileChannel jsonChannel, final int segmentSize, final boolean closesChannel) throws IOException {
+            return this.buildWithJacksonParser(MappedSegmentsParser.of(this.factory, jsonChannel, segmentSize, closesChannel), null);
+        }
+
+        /**
+         * Builds {@link NonBlockingJsonValueParser}, to which the stringified JSON in UTF-8 is fed in pieces.
+         *
+         * <p>It is built on the non-blocking parser of Jackson. JSON values are read eagerly even if
+         * {@link #enableLazyJsonValues()} is enabled. The maximum nesting depth is counted in the same way with
+         * {@link JsonValueParser}.
+         *
+         * @return the {@link NonBlockingJsonValueParser} instance created
+         */
+        public NonBlockingJsonValueParser buildNonBlocking() throws IOException {
+            return new NonBlockingJsonValueParser(
+                    this.factory.createNonBlockingByteArrayParser(),
+                    new JsonValueSelector(this.root, this.depthToFlattenJsonArrays),
+                    new InternalJsonValueReader(
+                            this.hasLiteralsWithNumbers,
+                            this.hasFallbacksForUnparsableNumbers,
+                            this.defaultDouble,
+                            this.defaultLong,
+                            this.maxNestingDepth,
+                            this.objectShapeCacheSize > 0 ? ObjectShapeCache.withCapacity(this.objectShapeCacheSize) : null,
+                            this.hasLongCache ? JsonLongCache.ofRange(this.longCacheMin, this.longCacheMax) : null,
+                            this.stringCacheCapacity > 0 ? JsonStringCache.of(this.stringCacheCapacity, this.stringCacheMaxLength) : null,
+                            null),
+                    // The depth is checked when the JSON values are read from the tapes, from the JSON values selected.
+                    new JsonTapeReader(
+                            this.hasLiteralsWithNumbers,
+                            this.hasFallbacksForUnparsableNumbers,
+                            this.defaultDouble,
+                            this.defaultLong,
+                            Integer.MAX_VALUE));
+        }
+
+        /**
+         * Builds {@link ParallelJsonValueParser} for newline-delimited JSON in UTF-8, which parses chunks of the input
+         * in parallel on {@link ForkJoinPool#commonPool()}.
+         *
+         * @param jsonLines  {@link java.io.InputStream} of the newline-delimited JSON
+         * @return the {@link ParallelJsonValueParser} instance created
+         */
+        public ParallelJsonValueParser buildParallel(final InputStream jsonLines) {
+            return this.buildParallel(jsonLines, ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Builds {@link ParallelJsonValueParser} for newline-delimited JSON in UTF-8, which parses chunks of the input
+         * in parallel on the executor.
+         *
+         * <p>The configurations of this builder at this time are applied to parse each chunk. The input is closed
+         * when the parser is closed if {@link com.fasterxml.jackson.core.JsonParser.Feature#AUTO_CLOSE_SOURCE} is
+         * enabled in the {@link JsonFactory}.
+         *
+         * @param jsonLines  {@link java.io.InputStream} of the newline-delimited JSON
+         * @param executor  the executor to run tasks to parse chunks
+         * @return the {@link ParallelJsonValueParser} instance created
+         */
+        public ParallelJsonValueParser buildParallel(final InputStream jsonLines, final Executor executor) {
+            return this.buildParallel(jsonLines, executor, null);
+        }
+
+        /**
+         * Builds {@link ParallelJsonValueParser} for newline-delimited JSON in UTF-8, which captures JSON values from
+         * each line with the capturing pointers, in parallel on the executor.
+         *
+         * @param jsonLines  {@link java.io.InputStream} of the newline-delimited JSON
+         * @param executor  the executor to run tasks to parse chunks
+         * @param capturingPointers  the capturing pointers for {@link ParallelJsonValueParser#captureJsonValues()}
+         * @return the {@link ParallelJsonValueParser} instance created
+         */
+        public ParallelJsonValueParser buildParallel(
+                final InputStream jsonLines,
+                final Executor executor,
+                final CapturingPointers capturingPointers) {
+            return new ParallelJsonValueParser(
+                    Objects.requireNonNull(jsonLines),
+                    this.factory.isEnabled(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE),
+                    Objects.requireNonNull(executor),
+                    new Builder(this),
+                    capturingPointers,
+                    null,
+                    this.parallelChunkSize,
+                    this.parallelMaxInFlightBytes);
+        }
+
+        /**
+         * Builds {@link ParallelJsonValueParser} for huge top-level JSON arrays and objects in UTF-8, which parses their
+         * elements and members in parallel on {@link ForkJoinPool#commonPool()}.
+         *
+         * @param json  {@link java.io.InputStream} of the stringified JSON
+         * @return the {@link ParallelJsonValueParser} instance created
+         * @throws IllegalStateException  if the root is set
+         */
+        public ParallelJsonValueParser buildParallelElements(final InputStream json) {
+            return this.buildParallelElements(json, ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Builds {@link ParallelJsonValueParser} for huge top-level JSON arrays and objects in UTF-8, which parses their
+         * elements and members in parallel on the executor.
+         *
+         * <p>The input is split into chunks of elements of top-level JSON arrays, and members of top-level JSON objects,
+         * by a fast pre-scan which tracks only nesting, JSON strings, and escapes in them. The chunks are parsed in
+         * parallel, and JSON values are returned in the order of input:
+         *
+         * <ul>
+         * <li>A top-level JSON array is flattened into its elements, as {@link #setDepthToFlattenJsonArrays(int)}
+         * with {@code 1} does. Deeper flattening set by {@link #setDepthToFlattenJsonArrays(int)} is applied further.
+         * <li>A top-level JSON object is split into JSON objects with its single member each, in the order of members.
+         * </ul>
+         *
+         * <p>Only JSON arrays and objects are expected at the top-level, or at the root. {@link #root(String)} is supported
+         * only if it is made of member names, such as {@code "/data"} for {@code {"data":[...]}}. The pre-scan seeks down to
+         * the root through JSON objects, and splits the JSON arrays and objects there instead of the top-level ones.
+         *
+         * <p>It returns the same JSON values with {@link #build(InputStream)} for JSON arrays at the top-level, or at the
+         * root, if {@link #setDepthToFlattenJsonArrays(int)} is {@code 1} or more. Otherwise, no sequential parser splits
+         * them in the same way. A JSON array is flattened even without {@link #setDepthToFlattenJsonArrays(int)}, and a JSON
+         * object is split into its members, while a sequential parser returns the JSON array or object as is, or skips the
+         * JSON object to flatten JSON arrays.
+         *
+         * @param json  {@link java.io.InputStream} of the stringified JSON
+         * @param executor  the executor to run tasks to parse chunks
+         * @return the {@link ParallelJsonValueParser} instance created
+         * @throws IllegalStateException  if the root is set, but not made only of member names
+         */
+        public ParallelJsonValueParser buildParallelElements(final InputStream json, final Executor executor) {
+            return this.buildParallelElements(json, executor, null);
+        }
+
+        /**
+         * Builds {@link ParallelJsonValueParser} for huge top-level JSON arrays and objects in UTF-8, which captures
+         * JSON values from their elements and members with the capturing pointers, in parallel on the executor.
+         *
+         * @param json  {@link java.io.InputStream} of the stringified JSON
+         * @param executor  the executor to run tasks to parse chunks
+         * @param capturingPointers  the capturing pointers for {@link ParallelJsonValueParser#captureJsonValues()}
+         * @return the {@link ParallelJsonValueParser} instance created
+         * @throws IllegalStateException  if the root is set, but not made only of member names
+         */
+        public ParallelJsonValueParser buildParallelElements(
+                final InputStream json,
+                final Executor executor,
+                final CapturingPointers capturingPointers) {
+            final String[] rootNames = rootNamesOf(this.root);
+            final Builder chunkParserBuilder = new Builder(this);
+            // The JSON arrays at the top-level, or at the root, are flattened by the splitter.
+            chunkParserBuilder.root = null;
+            chunkParserBuilder.depthToFlattenJsonArrays = Math.max(0, this.depthToFlattenJsonArrays - 1);
+            return new ParallelJsonValueParser(
+                    Objects.requireNonNull(json),
+                    this.factory.isEnabled(com.fasterxml.jackson.core.JsonParser.Feature.AUTO_CLOSE_SOURCE),
+                    Objects.requireNonNull(executor),
+                    chunkParserBuilder,
+                    capturingPointers,
+                    new JsonElementSplitter(
+                            json,
+                            this.parallelChunkSize,
+                            ParallelJsonValueParser.maxChunkLength(this.parallelChunkSize, this.parallelMaxInFlightBytes),
+                            rootNames),
+                    this.parallelChunkSize,
+                    this.parallelMaxInFlightBytes);
+        }
+
+        /**
+         * Returns the member names of the root from the top-level, or an empty array if no root is set.
+         *
+         * @throws IllegalStateException  if the root is empty, or has a segment which may match an index of a JSON array
+         */
+        private static String[] rootNamesOf(final JsonPointer root) {
+            if (root == null) {
+                return new String[0];
+            }
+            final ArrayList<String> names = new ArrayList<>();
+            for (JsonPointer pointer = root; !pointer.matches(); pointer = pointer.tail()) {
+                if (pointer.mayMatchElement()) {
+                    throw new IllegalStateException("The root with an index of a JSON array is not supported to parse elements in parallel.");
+                }
+                names.add(pointer.getMatchingProperty());
+            }
+            if (names.isEmpty()) {
+                throw new IllegalStateException("The empty root is not supported to parse elements in parallel.");
+            }
+            return names.toArray(new String[0]);
+        }
+
+        private JsonValueParser buildWithJacksonParser(
+                final com.fasterxml.jackson.core.JsonParser baseParser,
+                final LazyJsonSource.Input lazySource) {
+            return this.buildWithJacksonParser(this.snapshot(), baseParser, lazySource, null);
+        }
+
+        /**
+         * Builds with the snapshot taken by the caller, which is shared with the byte source.
+         */
+        private JsonValueParser buildWithJacksonParser(
+                final Builder snapshot,
+                final com.fasterxml.jackson.core.JsonParser baseParser,
+                final LazyJsonSource.Input lazySource,
+                final JsonValueSpliterator.ByteSource byteSource) {
+            return new JsonValueParser(snapshot, baseParser, lazySource, byteSource);
+        }
+
+        /**
+         * Returns a copy of this builder not to be affected by changes after building, or this builder if it is a copy.
+         */
+        private Builder snapshot() {
+            if (this.isSnapshot) {
+                return this;
+            }
+            final Builder snapshot = new Builder(this);
+            snapshot.isSnapshot = true;
+            return snapshot;
+        }
+
+        private static JsonValueSpliterator.ByteSource byteSource(
+                final Builder snapshot,
+                final com.fasterxml.jackson.core.JsonParser baseParser,
+                final byte[] json,
+                final int offset,
+                final int length) {
+            // Only UTF-8 is split by bytes.
+            if (!(baseParser instanceof UTF8StreamJsonParser)) {
+                return null;
+            }
+            return new JsonValueSpliterator.ByteSource(snapshot, baseParser, json, offset, length);
+        }
+
+        private LazyJsonSource.Input lazySourceInString(final String json) {
+            if (!this.hasLazyJsonValues) {
+                return null;
+            }
+            return LazyJsonSource.ofString(
+                    this.factory,
+                    json,
+                    this.hasLiteralsWithNumbers,
+                    this.hasFallbacksForUnparsableNumbers,
+                    this.defaultDouble,
+                    this.defaultLong);
+        }
+
+        private LazyJsonSource.Input lazySourceInBytes(final com.fasterxml.jackson.core.JsonParser baseParser, final ByteBuffer json) {
+            // Offsets in bytes are available only from the parser for UTF-8. Other encodings are read eagerly.
+            if (!this.hasLazyJsonValues || !(baseParser instanceof UTF8StreamJsonParser)) {
+                return null;
+            }
+            return LazyJsonSource.ofBytes(
+                    this.factory,
+                    json,
                     this.hasLiteralsWithNumbers,
                     this.hasFallbacksForUnparsableNumbers,
                     this.defaultDouble,
                     this.defaultLong);
         }
 
-        private com.fasterxml.jackson.core.JsonParser buildJacksonParser(final String json) throws IOException {
-            return this.extendJacksonParser(this.factory.createParser(Objects.requireNonNull(json)));
+        static void checkRegion(final int arrayLength, final int offset, final int length) {
+            if (offset < 0 || length < 0 || offset > arrayLength - length) {
+                throw new IndexOutOfBoundsException(
+                        "The region [" + offset + ", " + offset + " + " + length + ") is out of the array of length " + arrayLength + ".");
+            }
         }
 
-        private com.fasterxml.jackson.core.JsonParser buildJacksonParser(final InputStream jsonStream) throws IOException {
-            return this.extendJacksonParser(this.factory.createParser(Objects.requireNonNull(jsonStream)));
+        static com.fasterxml.jackson.core.JsonParser extendJacksonParser(
+                final com.fasterxml.jackson.core.JsonParser baseParser,
+                final JsonPointer root,
+                final int depthToFlattenJsonArrays) {
+            return extendJacksonParser(
+                    baseParser,
+                    root != null ? new JsonPointerBasedFilter(root) : null,
+                    depthToFlattenJsonArrays > 0 ? new FlattenJsonArrayFilter(depthToFlattenJsonArrays) : null);
         }
 
-        private com.fasterxml.jackson.core.JsonParser extendJacksonParser(final com.fasterxml.jackson.core.JsonParser baseParser) {
+        /**
+         * Extends the parser with the filters, which are immutable to be reused for another parser.
+         */
+        static com.fasterxml.jackson.core.JsonParser extendJacksonParser(
+                final com.fasterxml.jackson.core.JsonParser baseParser,
+                final TokenFilter rootFilter,
+                final TokenFilter flattenFilter) {
             com.fasterxml.jackson.core.JsonParser parser = baseParser;
-            if (this.root != null) {
+            if (rootFilter != null) {
                 parser = new FilteringParserDelegate(
                         parser,
-                        new JsonPointerBasedFilter(this.root),
+                        rootFilter,
                         TokenFilter.Inclusion.ONLY_INCLUDE_ALL,
                         true  // Allow multiple matches
                         );
             }
-            if (this.depthToFlattenJsonArrays > 0) {
+            if (flattenFilter != null) {
                 parser = new FilteringParserDelegate(
                         parser,
-                        new FlattenJsonArrayFilter(this.depthToFlattenJsonArrays),
+                        flattenFilter,
                         TokenFilter.Inclusion.ONLY_INCLUDE_ALL,
                         true  // Allow multiple matches
                         );
@@ -202,6 +806,88 @@ public final class JsonValueParser implements Closeable {
         private boolean hasFallbacksForUnparsableNumbers;
         private double defaultDouble;
         private long defaultLong;
+        private int maxNestingDepth;
+        private int objectShapeCacheSize;
+        private boolean hasLongCache;
+        private long longCacheMin;
+        private long longCacheMax;
+        private int stringCacheCapacity;
+        private int stringCacheMaxLength;
+        private boolean hasLazyJsonValues;
+        private int parallelChunkSize;
+        private long parallelMaxInFlightBytes;
+
+        // True if it is a copy which is never modified, to be shared by parsers and factories.
+        private boolean isSnapshot;
+
+        private static final int DEFAULT_PARALLEL_CHUNK_SIZE = 1 << 20;
+        private static final long DEFAULT_PARALLEL_MAX_IN_FLIGHT_BYTES = 64L << 20;
+    }
+
+    /**
+     * Statistics of the caches of JSON values in a {@link JsonValueParser}.
+     *
+     * <p>It is a snapshot at the time when {@link JsonValueParser#getCacheStatistics()} is called. The numbers are
+     * zero for a cache that is not enabled. A lookup that is not served from a cache counts as a miss, including
+     * a value out of the range, or a string longer than the maximum length.
+     */
+    public static final class CacheStatistics {
+        CacheStatistics(final long longHits, final long longMisses, final long stringHits, final long stringMisses) {
+            this.longHits = longHits;
+            this.longMisses = longMisses;
+            this.stringHits = stringHits;
+            this.stringMisses = stringMisses;
+        }
+
+        /**
+         * Returns the number of hits in the cache of {@link JsonLong}.
+         *
+         * @return the number of hits
+         */
+        public long getLongHits() {
+            return this.longHits;
+        }
+
+        /**
+         * Returns the number of misses in the cache of {@link JsonLong}.
+         *
+         * @return the number of misses
+         */
+        public long getLongMisses() {
+            return this.longMisses;
+        }
+
+        /**
+         * Returns the number of hits in the cache of {@link org.embulk.spi.json.JsonString}.
+         *
+         * @return the number of hits
+         */
+        public long getStringHits() {
+            return this.stringHits;
+        }
+
+        /**
+         * Returns the number of misses in the cache of {@link org.embulk.spi.json.JsonString}.
+         *
+         * @return the number of misses
+         */
+        public long getStringMisses() {
+            return this.stringMisses;
+        }
+
+        /**
+         * Returns a string representation of the statistics.
+         */
+        @Override
+        public String toString() {
+            return "[CacheStatistics long: " + this.longHits + " hits / " + this.longMisses + " misses, string: "
+                    + this.stringHits + " hits / " + this.stringMisses + " misses]";
+        }
+
+        private final long longHits;
+        private final long longMisses;
+        private final long stringHits;
+        private final long stringMisses;
     }
 
     /**
@@ -212,17 +898,19 @@ public final class JsonValueParser implements Closeable {
      * <ul>
      * <li>Allowing JSON Strings to contain unquoted control characters
      * <li>Allowing to recognize set of "Not-a-Number" (NaN) tokens as legal floating number values
+     * <li>Not limiting the nesting depth by {@link com.fasterxml.jackson.core.StreamReadConstraints}, which is limited
+     *     by {@link Builder#setMaxNestingDepth(int)} instead, 1000 by default
      * </ul>
      *
+     * <p>The internal {@link JsonFactory} is shared by all the builders returned, so that its tables of canonicalized
+     * member names are reused over parsers. It is never modified after it is configured.
+     *
      * <p>Note that the defaults may change in future versions.
      *
      * @return the new builder
      */
     public static Builder builder() {
-        final JsonFactory factory = new JsonFactory();
-        factory.enable(com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS);
-        factory.enable(com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS);
-        return builder(factory);
+        return builder(DefaultJsonFactoryHolder.INSTANCE);
     }
 
     /**
@@ -259,6 +947,183 @@ public final class JsonValueParser implements Closeable {
         return capturingPointers.captureFromParser(this.jacksonParser, this.valueReader);
     }
 
+    /**
+     * Captures {@link org.embulk.spi.json.JsonValue}s from the parser with the specified capturing pointers into the
+     * array, instead of allocating a new array.
+     *
+     * <p>It captures in the same way with {@link #captureJsonValues(CapturingPointers)}. The array is cleared, and then
+     * overwritten with the captured JSON values. It can be reused for the next call.
+     *
+     * @param capturingPointers  the capturing pointers
+     * @param destination  the array to capture JSON values into, whose length is the number of the capturing pointers
+     * @return {@code true} if JSON values are captured, or {@code false} if the parser reaches at the end of input in the beginning
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON
+     * @throws IllegalArgumentException  if the length of the array is not the number of the capturing pointers
+     */
+    public boolean captureJsonValuesInto(final CapturingPointers capturingPointers, final JsonValue[] destination) throws IOException {
+        if (destination.length != capturingPointers.size()) {
+            throw new IllegalArgumentException(
+                    "The array to capture JSON values into must have the length " + capturingPointers.size() + ", but " + destination.length + ".");
+        }
+        return capturingPointers.captureFromParserInto(this.jacksonParser, this.valueReader, destination) != null;
+    }
+
+    /**
+     * Reads {@link org.embulk.spi.json.JsonValue}s from the parser into the array, up to its length.
+     *
+     * <p>It reads in the same way with {@link #readJsonValue()} repeatedly, but without the overhead per JSON value. The
+     * array can be reused for the next call. If it fails, JSON values read before the failure in the call may be left
+     * in the array.
+     *
+     * @param values  the array to read JSON values into, which must not be empty
+     * @return the number of JSON values read, which is less than the length of the array only at the end of input, or
+     *     {@code 0} if the parser reaches at the end of input in the beginning
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON
+     * @throws IllegalArgumentException  if the array is empty
+     */
+    public int readJsonValues(final JsonValue[] values) throws IOException {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("The array to read JSON values into must not be empty.");
+        }
+        return this.valueReader.read(this.jacksonParser, values);
+    }
+
+    /**
+     * Captures {@link org.embulk.spi.json.JsonValue}s from the parser with the specified capturing pointers into the
+     * array, up to its length.
+     *
+     * <p>It captures in the same way with {@link #captureJsonValues(CapturingPointers)} repeatedly. The array can be
+     * reused for the next call. An array of captured JSON values in it may be reused to be overwritten, or replaced
+     * with a new array.
+     *
+     * @param capturingPointers  the capturing pointers
+     * @param values  the array to capture arrays of JSON values into, which must not be empty
+     * @return the number of arrays of JSON values captured, which is less than the length of the array only at the end
+     *     of input, or {@code 0} if the parser reaches at the end of input in the beginning
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON
+     * @throws IllegalArgumentException  if the array is empty
+     */
+    public int captureJsonValues(final CapturingPointers capturingPointers, final JsonValue[][] values) throws IOException {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("The array to capture JSON values into must not be empty.");
+        }
+        return capturingPointers.captureFromParser(this.jacksonParser, this.valueReader, values);
+    }
+
+    /**
+     * Returns a sequential {@link java.util.stream.Stream} of {@link org.embulk.spi.json.JsonValue}s read from the parser.
+     *
+     * <p>The stream reads JSON values in the same way with {@link #readJsonValue()}. The parser must not be read other
+     * than by the stream after this. Closing the stream closes the parser. {@link java.io.IOException} in reading is
+     * thrown as {@link java.io.UncheckedIOException}.
+     *
+     * <p>If the parser is built from a byte array, or a heap {@link java.nio.ByteBuffer}, in UTF-8, and it is between
+     * top-level JSON values, the rest of the bytes are split into ranges at line feeds between top-level JSON values for
+     * a parallel stream. Each range is parsed by its own parser built in the same way, with its own caches, then the
+     * parsing itself runs in parallel. It fits newline-delimited JSON. Otherwise, JSON values are read in batches to be
+     * processed in parallel, while parsing is sequential.
+     *
+     * @return the stream of JSON values
+     */
+    public Stream<JsonValue> stream() {
+        return StreamSupport.stream(JsonValueSpliterator.<JsonValue>of(this, null, this.byteSource), false).onClose(this::closeUnchecked);
+    }
+
+    /**
+     * Returns a sequential {@link java.util.stream.Stream} of arrays of {@link org.embulk.spi.json.JsonValue}s captured
+     * from the parser with the specified capturing pointers.
+     *
+     * <p>The stream captures JSON values in the same way with {@link #captureJsonValues(CapturingPointers)}. It is split
+     * for a parallel stream in the same way with {@link #stream()}.
+     *
+     * @param capturingPointers  the capturing pointers
+     * @return the stream of arrays of captured JSON values
+     */
+    public Stream<JsonValue[]> captureStream(final CapturingPointers capturingPointers) {
+        return StreamSupport.stream(
+                JsonValueSpliterator.<JsonValue[]>of(this, Objects.requireNonNull(capturingPointers), this.byteSource),
+                false).onClose(this::closeUnchecked);
+    }
+
+    /**
+     * Reads {@link org.embulk.spi.json.JsonValue}s up to the maximum from the parser into a {@link JsonTape}.
+     *
+     * <p>The JSON values are read in the same way with {@link #readJsonValue()}, but they are laid out in the compact
+     * representation of {@link JsonTape}, not as {@link org.embulk.spi.json.JsonValue} instances. The caches of JSON
+     * values, the object shape cache, and lazy JSON values are not used for {@link JsonTape}.
+     *
+     * @param maxValues  the maximum number of JSON values to read, which must be positive
+     * @return the tape of JSON values, or {@code null} if the parser reaches at the end of input in the beginning
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON
+     * @throws IllegalArgumentException  if the maximum number is not positive
+     */
+    public JsonTape readJsonTape(final int maxValues) throws IOException {
+        if (maxValues <= 0) {
+            throw new IllegalArgumentException("The maximum number of JSON values must be positive.");
+        }
+        if (this.tapeReader == null) {
+            this.tapeReader = new JsonTapeReader(
+                    this.hasLiteralsWithNumbers,
+                    this.hasFallbacksForUnparsableNumbers,
+                    this.defaultDouble,
+                    this.defaultLong,
+                    this.valueReader.maxNestingDepth());
+        }
+        return this.tapeReader.read(this.jacksonParser, maxValues);
+    }
+
+    /**
+     * Returns the statistics of the caches of JSON values enabled by {@link Builder#enableJsonLongCache(long, long)}
+     * and {@link Builder#enableJsonStringCache(int, int)}.
+     *
+     * @return the statistics of the caches
+     */
+    public CacheStatistics getCacheStatistics() {
+        final JsonLongCache longCache = this.valueReader.longCache();
+        final JsonStringCache stringCache = this.valueReader.stringCache();
+        return new CacheStatistics(
+                longCache == null ? 0 : longCache.hits(),
+                longCache == null ? 0 : longCache.misses(),
+                stringCache == null ? 0 : stringCache.hits(),
+                stringCache == null ? 0 : stringCache.misses());
+    }
+
+    /**
+     * Resets the parser to read another stringified JSON, in the same way with {@link Builder#build(String)}.
+     *
+     * <p>The input being read is closed as {@link #close()} does. The caches of JSON values, the object shape cache,
+     * the scratch buffers, and the filters for {@link Builder#root(String)} and
+     * {@link Builder#setDepthToFlattenJsonArrays(int)} are reused for the new input, instead of building a new parser.
+     * It saves building parsers for many small inputs one by one. JSON values read before the reset are not affected.
+     *
+     * @param json  the stringified JSON
+     * @throws IOException  if failing to close the input being read, or to start reading the new input
+     */
+    public void reset(final String json) throws IOException {
+        this.resetWithJacksonParser(
+                this.builder.factory.createParser(Objects.requireNonNull(json)),
+                this.builder.lazySourceInString(json));
+    }
+
+    /**
+     * Resets the parser to read another stringified JSON, in the same way with {@link Builder#build(InputStream)}.
+     *
+     * <p>The input being read is closed as {@link #close()} does. The caches and the filters are reused for the new
+     * input in the same way with {@link #reset(String)}. The new input is closed when the parser is closed, or reset
+     * again, if {@link com.fasterxml.jackson.core.JsonParser.Feature#AUTO_CLOSE_SOURCE} is enabled in the
+     * {@link JsonFactory}.
+     *
+     * @param jsonStream  {@link java.io.InputStream} of the stringified JSON
+     * @throws IOException  if failing to close the input being read, or to start reading the new input
+     */
+    public void reset(final InputStream jsonStream) throws IOException {
+        this.resetWithJacksonParser(this.builder.factory.createParser(Objects.requireNonNull(jsonStream)), null);
+    }
+
     /**
      * Closes the parser.
      *
@@ -269,23 +1134,84 @@ public final class JsonValueParser implements Closeable {
         this.jacksonParser.close();
     }
 
+    private void resetWithJacksonParser(
+            final com.fasterxml.jackson.core.JsonParser baseParser,
+            final LazyJsonSource.Input lazySource) throws IOException {
+        final com.fasterxml.jackson.core.JsonParser previous = this.jacksonParser;
+        // The Jackson parser itself is not reusable, but it recycles its buffers through the JsonFactory.
+        this.jacksonParser = Builder.extendJacksonParser(baseParser, this.rootFilter, this.flattenFilter);
+        this.valueReader.resetLazySource(lazySource);
+        this.byteSource = null;
+        previous.close();
+    }
+
+    private void closeUnchecked() {
+        try {
+            this.close();
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     private static void assertJacksonVersion() {
+        // The version is checked only once, as it never changes at runtime.
+        if (JACKSON_VERSION_ERROR != null) {
+            throw new UnsupportedOperationException(JACKSON_VERSION_ERROR);
+        }
+    }
+
+    private static String checkJacksonVersion() {
         if (PackageVersion.VERSION.getMajorVersion() != 2) {
-            throw new UnsupportedOperationException("embulk-util-json is not used with Jackson 2.");
+            return "embulk-util-json is not used with Jackson 2.";
         }
 
         final int minor = PackageVersion.VERSION.getMinorVersion();
         if (minor < 14 || (minor == 15 && PackageVersion.VERSION.getPatchLevel() <= 2)) {
-            throw new UnsupportedOperationException("embulk-util-json is not used with Jackson 2.15.3 or later.");
+            return "embulk-util-json is not used with Jackson 2.15.3 or later.";
+        }
+        return null;
+    }
+
+    private static JsonFactory newDefaultJsonFactory() {
+        final JsonFactory factory = new JsonFactory();
+        factory.enable(com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_UNQUOTED_CONTROL_CHARS);
+        factory.enable(com.fasterxml.jackson.core.JsonParser.Feature.ALLOW_NON_NUMERIC_NUMBERS);
+        if (PackageVersion.VERSION.getMinorVersion() >= 15) {
+            removeNestingDepthConstraint(factory);
         }
+        return factory;
+    }
+
+    // StreamReadConstraints is available since Jackson 2.15. It is referenced only in this method, not to be loaded with 2.14.
+    private static void removeNestingDepthConstraint(final JsonFactory factory) {
+        factory.setStreamReadConstraints(factory.streamReadConstraints().rebuild().maxNestingDepth(Integer.MAX_VALUE).build());
+    }
+
+    // Initialized lazily at the first call of builder(), not to be initialized only with builder(JsonFactory).
+    private static final class DefaultJsonFactoryHolder {
+        static final JsonFactory INSTANCE = newDefaultJsonFactory();
     }
 
-    private final com.fasterxml.jackson.core.JsonParser jacksonParser;
+    // The error message if the version of Jackson is not supported, or null.
+    private static final String JACKSON_VERSION_ERROR = checkJacksonVersion();
+
+    // The configurations, and the filters built from them, to reset the parser for another input.
+    private final Builder builder;
+    private final TokenFilter rootFilter;
+    private final TokenFilter flattenFilter;
+
+    private com.fasterxml.jackson.core.JsonParser jacksonParser;
     private final InternalJsonValueReader valueReader;
 
+    // Created when JSON values are read into JsonTape for the first time.
+    private JsonTapeReader tapeReader;
+
     private final int depthToFlattenJsonArrays;
     private final boolean hasLiteralsWithNumbers;
     private final boolean hasFallbacksForUnparsableNumbers;
     private final double defaultDouble;
     private final long defaultLong;
+
+    // The bytes to split for a parallel stream, or null.
+    private JsonValueSpliterator.ByteSource byteSource;
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates {@link JsonValueParser}s with the configurations fixed at the time when it is built.
+ *
+ * <p>It is immutable, and thread-safe. It is built once by {@link JsonValueParser.Builder#buildFactory()}, and shared
+ * across threads to create parsers for many small inputs, such as files and strings. All the parsers created share the
+ * same {@link com.fasterxml.jackson.core.JsonFactory}, so that its tables of canonicalized member names are warmed up
+ * by earlier parsers, and reused by later parsers. Each parser still has its own caches of JSON values, such as
+ * {@link JsonValueParser.Builder#setObjectShapeCacheSize(int)}, because a parser is not thread-safe.
+ *
+ * <pre>{@code
+ * final JsonValueParserFactory factory = JsonValueParser.builder().setObjectShapeCacheSize(64).buildFactory();
+ * // In any threads:
+ * try (final JsonValueParser parser = factory.createParser(json)) {
+ *     ...
+ * }
+ * }</pre>
+ */
+public final class JsonValueParserFactory {
+    JsonValueParserFactory(final JsonValueParser.Builder builder) {
+        // The builder is a copy dedicated to this factory, which is never modified.
+        this.builder = builder;
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON, in the same way with {@link JsonValueParser.Builder#build(String)}.
+     *
+     * @param json  the stringified JSON
+     * @return the {@link JsonValueParser} instance created
+     */
+    public JsonValueParser createParser(final String json) throws IOException {
+        return this.builder.build(json);
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON, in the same way with {@link JsonValueParser.Builder#build(InputStream)}.
+     *
+     * @param jsonStream  {@link java.io.InputStream} of the stringified JSON
+     * @return the {@link JsonValueParser} instance created
+     */
+    public JsonValueParser createParser(final InputStream jsonStream) throws IOException {
+        return this.builder.build(jsonStream);
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON in the region of the byte array, in the same way with
+     * {@link JsonValueParser.Builder#build(byte[], int, int)}.
+     *
+     * @param json  the byte array of the stringified JSON
+     * @param offset  the offset of the stringified JSON in the byte array
+     * @param length  the length of the stringified JSON in bytes
+     * @return the {@link JsonValueParser} instance created
+     * @throws IndexOutOfBoundsException  if the region is out of the byte array
+     */
+    public JsonValueParser createParser(final byte[] json, final int offset, final int length) throws IOException {
+        return this.builder.build(json, offset, length);
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON from the position to the limit of the buffer, in the same
+     * way with {@link JsonValueParser.Builder#build(ByteBuffer)}.
+     *
+     * @param json  the buffer of the stringified JSON
+     * @return the {@link JsonValueParser} instance created
+     */
+    public JsonValueParser createParser(final ByteBuffer json) throws IOException {
+        return this.builder.build(json);
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON in the region of the char array, in the same way with
+     * {@link JsonValueParser.Builder#build(char[], int, int)}.
+     *
+     * @param json  the char array of the stringified JSON
+     * @param offset  the offset of the stringified JSON in the char array
+     * @param length  the length of the stringified JSON in characters
+     * @return the {@link JsonValueParser} instance created
+     * @throws IndexOutOfBoundsException  if the region is out of the char array
+     */
+    public JsonValueParser createParser(final char[] json, final int offset, final int length) throws IOException {
+        return this.builder.build(json, offset, length);
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON in the file, in the same way with
+     * {@link JsonValueParser.Builder#build(Path)}.
+     *
+     * @param jsonPath  the path to the file of the stringified JSON
+     * @return the {@link JsonValueParser} instance created
+     */
+    public JsonValueParser createParser(final Path jsonPath) throws IOException {
+        return this.builder.build(jsonPath);
+    }
+
+    /**
+     * Creates {@link JsonValueParser} for the stringified JSON from the current position to the end of the file channel,
+     * in the same way with {@link JsonValueParser.Builder#build(FileChannel)}.
+     *
+     * @param jsonChannel  the file channel of the stringified JSON
+     * @return the {@link JsonValueParser} instance created
+     */
+    public JsonValueParser createParser(final FileChannel jsonChannel) throws IOException {
+        return this.builder.build(jsonChannel);
+    }
+
+    /**
+     * Creates {@link NonBlockingJsonValueParser}, in the same way with {@link JsonValueParser.Builder#buildNonBlocking()}.
+     *
+     * @return the {@link NonBlockingJsonValueParser} instance created
+     */
+    public NonBlockingJsonValueParser createNonBlockingParser() throws IOException {
+        return this.builder.buildNonBlocking();
+    }
+
+    /**
+     * Creates {@link ParallelJsonValueParser} for newline-delimited JSON in UTF-8, in the same way with
+     * {@link JsonValueParser.Builder#buildParallel(InputStream, Executor, CapturingPointers)}.
+     *
+     * @param jsonLines  {@link java.io.InputStream} of the newline-delimited JSON
+     * @param executor  the executor to run tasks to parse chunks
+     * @param capturingPointers  the capturing pointers for {@link ParallelJsonValueParser#captureJsonValues()}, or
+     *     {@code null} to read JSON values
+     * @return the {@link ParallelJsonValueParser} instance created
+     */
+    public ParallelJsonValueParser createParallelParser(
+            final InputStream jsonLines,
+            final Executor executor,
+            final CapturingPointers capturingPointers) {
+        return this.builder.buildParallel(jsonLines, executor, capturingPointers);
+    }
+
+    /**
+     * Creates {@link ParallelJsonValueParser} for huge top-level JSON arrays and objects in UTF-8, in the same way with
+     * {@link JsonValueParser.Builder#buildParallelElements(InputStream, Executor, CapturingPointers)}.
+     *
+     * @param json  {@link java.io.InputStream} of the stringified JSON
+     * @param executor  the executor to run tasks to parse chunks
+     * @param capturingPointers  the capturing pointers for {@link ParallelJsonValueParser#captureJsonValues()}, or
+     *     {@code null} to read JSON values
+     * @return the {@link ParallelJsonValueParser} instance created
+     * @throws IllegalStateException  if the root is set
+     */
+    public ParallelJsonValueParser createParallelElementsParser(
+            final InputStream json,
+            final Executor executor,
+            final CapturingPointers capturingPointers) {
+        return this.builder.buildParallelElements(json, executor, capturingPointers);
+    }
+
+    private final JsonValueParser.Builder builder;
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Selects JSON values to be read from a stream of tokens, token by token, in the same way with the root and the
+ * flattening filters of {@link JsonValueParser}.
+ *
+ * <p>It is given the tokens out of the JSON values selected. When a token starts a JSON value to be selected, the
+ * caller reads the JSON value by itself, and gives the tokens after it again. It keeps only the path to the current
+ * position, and a counter of the depth in a JSON value skipped, so that it can stop at any token from a non-blocking
+ * parser of Jackson, and resume from there.
+ *
+ * <p>The root filter ({@link com.fasterxml.jackson.core.filter.JsonPointerBasedFilter}) selects every JSON value at the
+ * root pointer. The flattening filter ({@link FlattenJsonArrayFilter}) selects elements of JSON arrays nested up to the
+ * depth, and scalars on the way. JSON objects on the way are skipped. They are applied in this order.
+ */
+final class JsonValueSelector {
+    JsonValueSelector(final JsonPointer root, final int depthToFlattenJsonArrays) {
+        this.root = root;
+        this.depthToFlattenJsonArrays = depthToFlattenJsonArrays;
+        this.frames = new Frame[INITIAL_CAPACITY];
+        this.depth = 0;
+        this.skippingDepth = 0;
+    }
+
+    /**
+     * Consumes a token out of the JSON values selected, and returns {@code true} if it starts a JSON value to be selected.
+     *
+     * @param jacksonParser  the parser whose current token is the token
+     * @param token  the token, which is not {@link JsonToken#NOT_AVAILABLE}
+     * @return {@code true} if the token starts a JSON value to be selected
+     */
+    boolean select(final JsonParser jacksonParser, final JsonToken token) throws IOException {
+        if (this.skippingDepth > 0) {
+            if (token.isStructStart()) {
+                this.skippingDepth++;
+            } else if (token.isStructEnd()) {
+                this.skippingDepth--;
+            }
+            return false;
+        }
+
+        if (token == JsonToken.FIELD_NAME) {
+            if (this.depth > 0) {
+                this.frames[this.depth - 1].name = jacksonParser.currentName();
+            }
+            return false;
+        }
+        if (token.isStructEnd()) {
+            if (this.depth > 0) {
+                this.depth--;
+            }
+            return false;
+        }
+
+        // A JSON value starts. The pointer to match under it is null if the root pointer has matched, or no root is set.
+        //
+        // The root pointer is kept at the top-level even if it is empty "", as JsonPointerBasedFilter includes only
+        // scalars at the top-level then.
+        final JsonPointer pointer;
+        final int level;
+        if (this.depth == 0) {
+            pointer = this.root;
+            level = this.depthToFlattenJsonArrays;
+        } else {
+            final Frame parent = this.frames[this.depth - 1];
+            if (parent.pointer != null) {
+                final JsonPointer next;
+                if (parent.isObject) {
+                    next = parent.pointer.matchProperty(parent.name);
+                } else {
+                    next = parent.pointer.matchElement(++parent.index);
+                }
+                if (next == null) {  // It is out of the root.
+                    this.skip(token);
+                    return false;
+                }
+                pointer = next.matches() ? null : next;
+                level = this.depthToFlattenJsonArrays;
+            } else {
+                pointer = null;
+                level = parent.level;
+            }
+        }
+
+        if (pointer != null) {  // On the way to the root.
+            if (token.isStructStart()) {
+                this.push(token == JsonToken.START_OBJECT, pointer, 0);
+                return false;
+            }
+            return pointer.matches();
+        }
+        if (level == 0 || token.isScalarValue()) {
+            return true;
+        }
+        if (token == JsonToken.START_ARRAY) {
+            this.push(false, null, level - 1);
+            return false;
+        }
+        this.skip(token);  // A JSON object on the way to flatten JSON arrays.
+        return false;
+    }
+
+    /**
+     * Returns {@code true} if it is in the middle of a JSON value at the top-level.
+     */
+    boolean isInProgress() {
+        return this.depth > 0 || this.skippingDepth > 0;
+    }
+
+    private void skip(final JsonToken token) {
+        if (token.isStructStart()) {
+            this.skippingDepth = 1;
+        }
+    }
+
+    private void push(final boolean isObject, final JsonPointer pointer, final int level) {
+        if (this.depth >= this.frames.length) {
+            this.frames = Arrays.copyOf(this.frames, this.frames.length * 2);
+        }
+        Frame frame = this.frames[this.depth];
+        if (frame == null) {
+            frame = new Frame();
+            this.frames[this.depth] = frame;
+        }
+        frame.isObject = isObject;
+        frame.pointer = pointer;
+        frame.level = level;
+        frame.index = -1;
+        frame.name = null;
+        this.depth++;
+    }
+
+    /**
+     * A JSON array or object on the way to the JSON values selected.
+     */
+    private static final class Frame {
+        boolean isObject;
+        // The rest of the root pointer to match under this, or null if the root has matched.
+        JsonPointer pointer;
+        // The depth to flatten JSON arrays under this, only if the root has matched.
+        int level;
+        int index;
+        String name;
+    }
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final JsonPointer root;
+    private final int depthToFlattenJsonArrays;
+
+    private Frame[] frames;
+    private int depth;
+
+    // The depth in a JSON array or object skipped, which does not contain any JSON value selected.
+    private int skippingDepth;
+}
@@ -0,0 +1,301 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import org.embulk.spi.json.JsonValue;
+
+/**
+ * Spliterates JSON values, or arrays of captured JSON values, from {@link JsonValueParser}.
+ *
+ * <p>If the parser reads the bytes of a byte array in UTF-8, and it is between top-level JSON values, the rest of the
+ * bytes are split in halves at a line feed out of JSON strings, arrays, and objects, which is found by
+ * {@link SwarJsonScanner}. Each half is parsed by its own {@link JsonValueParser} built in the same way, so that the
+ * halves are parsed in parallel. Otherwise, JSON values are read in batches, as
+ * {@link java.util.Spliterators.AbstractSpliterator} does, so that only the processing after parsing is in parallel.
+ *
+ * @param <T>  {@link org.embulk.spi.json.JsonValue}, or an array of captured {@link org.embulk.spi.json.JsonValue}s
+ */
+final class JsonValueSpliterator<T> implements Spliterator<T> {
+    private JsonValueSpliterator(
+            final JsonValueParser parser,
+            final CapturingPointers capturingPointers,
+            final JsonValueParser.Builder builder,
+            final byte[] bytes,
+            final int start,
+            final int end) {
+        this.parser = parser;
+        this.capturingPointers = capturingPointers;
+        this.builder = builder;
+        this.bytes = bytes;
+        this.start = start;
+        this.end = end;
+        this.ownsParser = false;
+        this.hasStarted = false;
+        this.batchSize = 0;
+    }
+
+    /**
+     * The bytes in UTF-8 which a {@link JsonValueParser} reads, to split.
+     */
+    static final class ByteSource {
+        ByteSource(
+                final JsonValueParser.Builder builder,
+                final com.fasterxml.jackson.core.JsonParser baseParser,
+                final byte[] bytes,
+                final int offset,
+                final int length) {
+            this.builder = builder;
+            this.baseParser = baseParser;
+            this.bytes = bytes;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * Returns the position of the next top-level JSON value in the byte array.
+         *
+         * @return the position, or {@code -1} if the parser is in a top-level JSON value
+         */
+        int position() {
+            if (!this.baseParser.getParsingContext().inRoot()) {
+                return -1;
+            }
+            return this.offset + (int) this.baseParser.getCurrentLocation().getByteOffset();
+        }
+
+        private final JsonValueParser.Builder builder;
+        private final com.fasterxml.jackson.core.JsonParser baseParser;
+        private final byte[] bytes;
+        private final int offset;
+        private final int length;
+    }
+
+    /**
+     * Creates a spliterator which starts from the parser.
+     *
+     * @param parser  the parser to read from
+     * @param capturingPointers  the capturing pointers to capture JSON values, or {@code null} to read JSON values
+     * @param byteSource  the bytes which the parser reads, or {@code null} if it is not read from a byte array in UTF-8
+     */
+    static <T> JsonValueSpliterator<T> of(
+            final JsonValueParser parser,
+            final CapturingPointers capturingPointers,
+            final ByteSource byteSource) {
+        final int position = byteSource == null ? -1 : byteSource.position();
+        if (position < 0) {
+            return new JsonValueSpliterator<>(parser, capturingPointers, null, null, 0, 0);
+        }
+        return new JsonValueSpliterator<>(
+                parser,
+                capturingPointers,
+                byteSource.builder,
+                byteSource.bytes,
+                position,
+                byteSource.offset + byteSource.length);
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super T> action) {
+        try {
+            final T value = this.next();
+            if (value == null) {
+                return false;
+            }
+            action.accept(value);
+            return true;
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super T> action) {
+        try {
+            final Object[] batch = this.newBatch(FOR_EACH_BATCH_SIZE);
+            while (true) {
+                final int count = this.readBatch(batch);
+                for (int i = 0; i < count; i++) {
+                    @SuppressWarnings("unchecked")
+                    final T value = (T) batch[i];
+                    // Not to be reused for the next batch, as it may be an array of captured JSON values.
+                    batch[i] = null;
+                    action.accept(value);
+                }
+                if (count < batch.length) {
+                    return;
+                }
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        try {
+            if (!this.hasStarted && this.bytes != null && this.end - this.start >= MIN_SPLIT_BYTES) {
+                final int split = findSplit(this.bytes, this.start, this.end);
+                if (split > 0) {
+                    final JsonValueSpliterator<T> prefix =
+                            new JsonValueSpliterator<>(null, this.capturingPointers, this.builder, this.bytes, this.start, split);
+                    // The parser given first is left, as it would read beyond the split.
+                    this.parser = null;
+                    this.start = split;
+                    return prefix;
+                }
+            }
+
+            this.batchSize = Math.min(this.batchSize + BATCH_UNIT, MAX_BATCH_SIZE);
+            final Object[] batch = this.newBatch(this.batchSize);
+            final int count = this.readBatch(batch);
+            if (count == 0) {
+                return null;
+            }
+            return Spliterators.spliterator(batch, 0, count, this.characteristics());
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Returns the number of bytes remaining before it starts to read, or {@link Long#MAX_VALUE} as unknown.
+     *
+     * <p>The number of bytes is not the number of JSON values, but it is proportional to split the bytes evenly.
+     */
+    @Override
+    public long estimateSize() {
+        if (!this.hasStarted && this.bytes != null) {
+            return this.end - this.start;
+        }
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public int characteristics() {
+        return Spliterator.ORDERED | Spliterator.NONNULL;
+    }
+
+    /**
+     * Finds the first line feed out of JSON strings, arrays, and objects in the latter half of the bytes.
+     *
+     * @return the position right after the line feed, or {@code -1} if not found
+     */
+    static int findSplit(final byte[] bytes, final int start, final int end) {
+        final int middle = start + (end - start) / 2;
+        // The scan starts from the beginning to know whether the middle is in a JSON string, array, or object.
+        final SwarJsonScanner scanner = new SwarJsonScanner();
+        for (int i = scanner.findLineFeed(bytes, start, end); i >= 0; i = scanner.findLineFeed(bytes, i + 1, end)) {
+            if (i >= middle) {
+                return i + 1 < end ? i + 1 : -1;
+            }
+        }
+        return -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T next() throws IOException {
+        final JsonValueParser parser = this.startParser();
+        if (parser == null) {
+            return null;
+        }
+        final Object value;
+        if (this.capturingPointers == null) {
+            value = parser.readJsonValue();
+        } else {
+            value = parser.captureJsonValues(this.capturingPointers);
+        }
+        if (value == null) {
+            this.finish();
+        }
+        return (T) value;
+    }
+
+    private int readBatch(final Object[] batch) throws IOException {
+        final JsonValueParser parser = this.startParser();
+        if (parser == null) {
+            return 0;
+        }
+        final int count;
+        if (this.capturingPointers == null) {
+            count = parser.readJsonValues((JsonValue[]) batch);
+        } else {
+            count = parser.captureJsonValues(this.capturingPointers, (JsonValue[][]) batch);
+        }
+        if (count < batch.length) {
+            this.finish();
+        }
+        return count;
+    }
+
+    private Object[] newBatch(final int size) {
+        if (this.capturingPointers == null) {
+            return new JsonValue[size];
+        }
+        return new JsonValue[size][];
+    }
+
+    /**
+     * Returns the parser, which is built for the range of bytes at the first time if split.
+     *
+     * @return the parser, or {@code null} if it has reached at the end
+     */
+    private JsonValueParser startParser() throws IOException {
+        if (!this.hasStarted) {
+            this.hasStarted = true;
+            if (this.parser == null) {
+                this.parser = this.builder.build(this.bytes, this.start, this.end - this.start);
+                this.ownsParser = true;
+            }
+        }
+        return this.parser;
+    }
+
+    private void finish() throws IOException {
+        // The parser given first is closed with the stream.
+        if (this.ownsParser) {
+            this.parser.close();
+        }
+        this.parser = null;
+    }
+
+    // Split in halves only if large enough, for the cost of building a parser.
+    static final int MIN_SPLIT_BYTES = 1 << 16;
+
+    private static final int FOR_EACH_BATCH_SIZE = 256;
+
+    // The same with java.util.Spliterators.AbstractSpliterator.
+    private static final int BATCH_UNIT = 1 << 10;
+    private static final int MAX_BATCH_SIZE = 1 << 25;
+
+    private JsonValueParser parser;
+    private boolean ownsParser;
+    private final CapturingPointers capturingPointers;
+
+    // The range of bytes to split, or null if not splittable by bytes.
+    private final JsonValueParser.Builder builder;
+    private final byte[] bytes;
+    private int start;
+    private final int end;
+
+    private boolean hasStarted;
+    private int batchSize;
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Objects;
+import org.embulk.spi.json.JsonArray;
+import org.embulk.spi.json.JsonObject;
+import org.embulk.spi.json.JsonValue;
+
+/**
+ * The source of JSON values, which {@link LazyJsonValue}s refer to by ranges.
+ *
+ * <p>It is immutable, and it can be shared among threads.
+ */
+abstract class LazyJsonSource {
+    /**
+     * Materializes the JSON array or object in the range only at the top level.
+     *
+     * <p>Nested JSON arrays and objects in the range are {@link LazyJsonValue}s, to be materialized later.
+     */
+    abstract JsonValue materialize(boolean isObject, int start, int end);
+
+    /**
+     * Estimates the size of the JSON array or object in the range roughly, without materialization.
+     */
+    abstract int presumeReferenceSizeInBytes(int start, int end);
+
+    static Input ofString(
+            final JsonFactory factory,
+            final String json,
+            final boolean hasLiteralsWithNumbers,
+            final boolean hasFallbacksForUnparsableNumbers,
+            final double defaultDouble,
+            final long defaultLong) {
+        return new InString(
+                Objects.requireNonNull(factory),
+                Objects.requireNonNull(json),
+                scalarReader(hasLiteralsWithNumbers, hasFallbacksForUnparsableNumbers, defaultDouble, defaultLong));
+    }
+
+    static Input ofChars(
+            final JsonFactory factory,
+            final char[] json,
+            final int offset,
+            final boolean hasLiteralsWithNumbers,
+            final boolean hasFallbacksForUnparsableNumbers,
+            final double defaultDouble,
+            final long defaultLong) {
+        return new InChars(
+                Objects.requireNonNull(factory),
+                Objects.requireNonNull(json),
+                offset,
+                scalarReader(hasLiteralsWithNumbers, hasFallbacksForUnparsableNumbers, defaultDouble, defaultLong));
+    }
+
+    /**
+     * Creates a source in UTF-8 bytes from the position to the limit of the buffer.
+     */
+    static Input ofBytes(
+            final JsonFactory factory,
+            final ByteBuffer json,
+            final boolean hasLiteralsWithNumbers,
+            final boolean hasFallbacksForUnparsableNumbers,
+            final double defaultDouble,
+            final long defaultLong) {
+        return new InBytes(
+                Objects.requireNonNull(factory),
+                json.slice(),
+                scalarReader(hasLiteralsWithNumbers, hasFallbacksForUnparsableNumbers, defaultDouble, defaultLong));
+    }
+
+    private static InternalJsonValueReader scalarReader(
+            final boolean hasLiteralsWithNumbers,
+            final boolean hasFallbacksForUnparsableNumbers,
+            final double defaultDouble,
+            final long defaultLong) {
+        // Only its readScalarValue is used, which does not touch its mutable stacks. No caches are given to it.
+        return new InternalJsonValueReader(hasLiteralsWithNumbers, hasFallbacksForUnparsableNumbers, defaultDouble, defaultLong);
+    }
+
+    /**
+     * The source of the input, where ranges are offsets in the input, which {@link JsonParser} reports.
+     */
+    abstract static class Input extends LazyJsonSource {
+        Input(final JsonFactory factory, final InternalJsonValueReader scalarReader) {
+            this.factory = factory;
+            this.scalarReader = scalarReader;
+        }
+
+        /**
+         * Creates a new {@link JsonParser} for the range.
+         */
+        abstract JsonParser createParser(JsonFactory factory, int start, int end) throws IOException;
+
+        /**
+         * Creates a {@link LazyJsonValue} for the JSON array or object that started at the offset, and has just ended.
+         *
+         * @param jacksonParser  the parser at the end of the JSON array or object
+         * @param isObject  {@code true} if it is a JSON object
+         * @param start  the offset where the JSON array or object started, from {@link #startOffset(JsonParser)}
+         */
+        LazyJsonValue lazyValue(final JsonParser jacksonParser, final boolean isObject, final int start) {
+            return new LazyJsonValue(this, isObject, start, this.endOffset(jacksonParser));
+        }
+
+        /**
+         * Returns the offset of the current token in the source.
+         */
+        int startOffset(final JsonParser jacksonParser) {
+            return toOffset(this.offsetOf(jacksonParser.getTokenLocation()), jacksonParser);
+        }
+
+        int endOffset(final JsonParser jacksonParser) {
+            return toOffset(this.offsetOf(jacksonParser.getCurrentLocation()), jacksonParser);
+        }
+
+        /**
+         * Returns the offset at the location in the source, in characters or in bytes.
+         */
+        abstract long offsetOf(JsonLocation location);
+
+        private static int toOffset(final long offset, final JsonParser jacksonParser) {
+            if (offset < 0 || offset > Integer.MAX_VALUE) {
+                throw new JsonParseException("Unexpected location in JSON at " + jacksonParser.getTokenLocation());
+            }
+            return (int) offset;
+        }
+
+        @Override
+        JsonValue materialize(final boolean isObject, final int start, final int end) {
+            try (final JsonParser jacksonParser = this.createParser(this.factory, start, end)) {
+                final JsonToken firstToken = jacksonParser.nextToken();
+                if (firstToken != (isObject ? JsonToken.START_OBJECT : JsonToken.START_ARRAY)) {
+                    throw new JsonParseException("Unexpected token " + firstToken + " at " + jacksonParser.getTokenLocation());
+                }
+
+                final ArrayList<String> keys = isObject ? new ArrayList<>() : null;
+                final ArrayList<JsonValue> values = new ArrayList<>();
+                while (true) {
+                    JsonToken token = jacksonParser.nextToken();
+                    if (token == null) {
+                        throw new JsonParseException("Unexpected end of JSON at " + jacksonParser.getTokenLocation());
+                    }
+                    if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                        break;
+                    }
+                    if (isObject) {
+                        keys.add(jacksonParser.getCurrentName());
+                        token = jacksonParser.nextToken();
+                        if (token == null) {
+                            throw new JsonParseException("Unexpected end of JSON at " + jacksonParser.getTokenLocation());
+                        }
+                    }
+
+                    if (token.isStructStart()) {
+                        // The range has already been validated when the LazyJsonValue was created.
+                        final int childStart = start + this.startOffset(jacksonParser);
+                        jacksonParser.skipChildren();
+                        values.add(new LazyJsonValue(this, token == JsonToken.START_OBJECT, childStart, start + this.endOffset(jacksonParser)));
+                    } else {
+                        values.add(this.scalarReader.readScalarValue(jacksonParser, token));
+                    }
+                }
+
+                if (isObject) {
+                    return JsonObject.ofUnsafe(keys.toArray(new String[0]), values.toArray(new JsonValue[0]));
+                }
+                return JsonArray.ofUnsafe(values.toArray(new JsonValue[0]));
+            } catch (final IOException ex) {
+                throw new JsonParseException("Failed to parse JSON", ex);
+            }
+        }
+
+        @Override
+        int presumeReferenceSizeInBytes(final int start, final int end) {
+            // Roughly estimated from the length of the stringified JSON, without materialization.
+            return (end - start) * 2;
+        }
+
+        private final JsonFactory factory;
+        private final InternalJsonValueReader scalarReader;
+    }
+
+    /**
+     * The source in a {@link String}, where ranges are offsets of characters.
+     */
+    private static final class InString extends Input {
+        InString(final JsonFactory factory, final String json, final InternalJsonValueReader scalarReader) {
+            super(factory, scalarReader);
+            this.json = json;
+        }
+
+        @Override
+        JsonParser createParser(final JsonFactory factory, final int start, final int end) throws IOException {
+            return factory.createParser(this.json.substring(start, end));
+        }
+
+        @Override
+        long offsetOf(final JsonLocation location) {
+            return location.getCharOffset();
+        }
+
+        private final String json;
+    }
+
+    /**
+     * The source in a region of {@code char[]}, where ranges are offsets of characters from the beginning of the region.
+     */
+    private static final class InChars extends Input {
+        InChars(final JsonFactory factory, final char[] json, final int offset, final InternalJsonValueReader scalarReader) {
+            super(factory, scalarReader);
+            this.json = json;
+            this.offset = offset;
+        }
+
+        @Override
+        JsonParser createParser(final JsonFactory factory, final int start, final int end) throws IOException {
+            return factory.createParser(this.json, this.offset + start, end - start);
+        }
+
+        @Override
+        long offsetOf(final JsonLocation location) {
+            return location.getCharOffset();
+        }
+
+        private final char[] json;
+        private final int offset;
+    }
+
+    /**
+     * The source in UTF-8 bytes in {@link ByteBuffer}, where ranges are offsets of bytes from the position of the buffer.
+     *
+     * <p>The bytes are copied for each materialization if the buffer is not backed by an accessible array.
+     */
+    private static final class InBytes extends Input {
+        InBytes(final JsonFactory factory, final ByteBuffer json, final InternalJsonValueReader scalarReader) {
+            super(factory, scalarReader);
+            this.json = json;
+        }
+
+        @Override
+        JsonParser createParser(final JsonFactory factory, final int start, final int end) throws IOException {
+            if (this.json.hasArray()) {
+                return factory.createParser(this.json.array(), this.json.arrayOffset() + start, end - start);
+            }
+            final byte[] bytes = new byte[end - start];
+            final ByteBuffer range = this.json.duplicate();
+            range.position(start);
+            range.get(bytes);
+            return factory.createParser(bytes);
+        }
+
+        @Override
+        long offsetOf(final JsonLocation location) {
+            return location.getByteOffset();
+        }
+
+        private final ByteBuffer json;
+    }
+}
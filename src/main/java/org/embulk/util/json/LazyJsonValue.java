@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import org.embulk.spi.json.JsonArray;
+import org.embulk.spi.json.JsonBoolean;
+import org.embulk.spi.json.JsonDouble;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonNull;
+import org.embulk.spi.json.JsonObject;
+import org.embulk.spi.json.JsonString;
+import org.embulk.spi.json.JsonValue;
+
+/**
+ * A JSON array or object, which keeps only the range of its stringified JSON until its content is accessed.
+ *
+ * <p>It is materialized into {@link JsonArray} or {@link JsonObject} the first time {@link #asJsonArray()},
+ * {@link #asJsonObject()}, or another method that needs its content is called. Only its direct elements or members
+ * are materialized then. Its nested JSON arrays and objects are also {@link LazyJsonValue}s, which are materialized
+ * when they are accessed in turn.
+ *
+ * <p>It may be materialized more than once if it is accessed from multiple threads at the same time, but the
+ * results are equivalent.
+ */
+final class LazyJsonValue implements JsonValue {
+    LazyJsonValue(final LazyJsonSource source, final boolean isObject, final int start, final int end) {
+        this.source = source;
+        this.isObject = isObject;
+        this.start = start;
+        this.end = end;
+        this.materialized = null;
+    }
+
+    @Override
+    public EntityType getEntityType() {
+        return this.isObject ? EntityType.OBJECT : EntityType.ARRAY;
+    }
+
+    @Override
+    public boolean isJsonNull() {
+        return false;
+    }
+
+    @Override
+    public boolean isJsonBoolean() {
+        return false;
+    }
+
+    @Override
+    public boolean isJsonLong() {
+        return false;
+    }
+
+    @Override
+    public boolean isJsonDouble() {
+        return false;
+    }
+
+    @Override
+    public boolean isJsonString() {
+        return false;
+    }
+
+    @Override
+    public boolean isJsonArray() {
+        return !this.isObject;
+    }
+
+    @Override
+    public boolean isJsonObject() {
+        return this.isObject;
+    }
+
+    @Override
+    public JsonNull asJsonNull() {
+        throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonNull");
+    }
+
+    @Override
+    public JsonBoolean asJsonBoolean() {
+        throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonBoolean");
+    }
+
+    @Override
+    public JsonLong asJsonLong() {
+        throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonLong");
+    }
+
+    @Override
+    public JsonDouble asJsonDouble() {
+        throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonDouble");
+    }
+
+    @Override
+    public JsonString asJsonString() {
+        throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonString");
+    }
+
+    @Override
+    public JsonArray asJsonArray() {
+        if (this.isObject) {
+            throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonArray");
+        }
+        return this.materialize().asJsonArray();
+    }
+
+    @Override
+    public JsonObject asJsonObject() {
+        if (!this.isObject) {
+            throw new ClassCastException(this.getEntityType() + " cannot be cast to JsonObject");
+        }
+        return this.materialize().asJsonObject();
+    }
+
+    /**
+     * Returns the approximate size of this JSON value in bytes.
+     *
+     * <p>It is estimated from the length of the stringified JSON without materialization if not materialized yet.
+     */
+    @Override
+    public int presumeReferenceSizeInBytes() {
+        final JsonValue value = this.materialized;
+        if (value != null) {
+            return value.presumeReferenceSizeInBytes();
+        }
+        return this.source.presumeReferenceSizeInBytes(this.start, this.end);
+    }
+
+    /**
+     * Returns the corresponding MessagePack's Value of this JSON value, with materialization.
+     *
+     * @return the corresponding MessagePack's Value
+     *
+     * @deprecated Do not use this method. It is here only for {@link JsonValue}.
+     */
+    @Deprecated
+    @SuppressWarnings("deprecation")
+    public org.msgpack.value.Value toMsgpack() {
+        return this.materialize().toMsgpack();
+    }
+
+    @Override
+    public String toJson() {
+        return this.materialize().toJson();
+    }
+
+    @Override
+    public boolean equals(final Object otherObject) {
+        if (this == otherObject) {
+            return true;
+        }
+        if (otherObject instanceof LazyJsonValue) {
+            return this.materialize().equals(((LazyJsonValue) otherObject).materialize());
+        }
+        return this.materialize().equals(otherObject);
+    }
+
+    @Override
+    public int hashCode() {
+        return this.materialize().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return this.toJson();
+    }
+
+    boolean isMaterialized() {
+        return this.materialized != null;
+    }
+
+    private JsonValue materialize() {
+        JsonValue value = this.materialized;
+        if (value == null) {
+            value = this.source.materialize(this.isObject, this.start, this.end);
+            this.materialized = value;
+        }
+        return value;
+    }
+
+    private final LazyJsonSource source;
+    private final boolean isObject;
+    private final int start;
+    private final int end;
+
+    // JsonArray and JsonObject are immutable with final fields. It is safe to publish them without synchronization.
+    private JsonValue materialized;
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.util.JsonParserDelegate;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+
+/**
+ * Parses a file by memory-mapping it in segments, and reading the segments by the blocking parser of Jackson.
+ *
+ * <p>The mapped segments are read through {@link ByteBufferInputStream}, one after another. Only one segment is
+ * mapped at a time so that a file larger than 2 GB, the limit of {@link java.nio.MappedByteBuffer}, can be parsed.
+ * The encoding is detected in the same way with {@link JsonFactory#createParser(InputStream)}.
+ *
+ * <p>The blocking parser copies the bytes into its own buffers, but it is still faster than the non-blocking parser
+ * reading the mapped buffers directly. See {@code MappedFileBenchmark}.
+ */
+final class MappedSegmentsParser extends JsonParserDelegate {
+    private MappedSegmentsParser(final JsonParser blockingParser, final FileChannel channel, final boolean closesChannel) {
+        super(blockingParser);
+        this.channel = channel;
+        this.closesChannel = closesChannel;
+    }
+
+    /**
+     * Creates a parser for the channel from its current position to its end.
+     *
+     * @param segmentSize  the maximum size of a segment to be mapped at a time
+     * @param closesChannel  {@code true} to close the channel when the parser is closed
+     */
+    static MappedSegmentsParser of(
+            final JsonFactory factory,
+            final FileChannel channel,
+            final int segmentSize,
+            final boolean closesChannel) throws IOException {
+        if (segmentSize <= 0) {
+            throw new IllegalArgumentException("The size of a segment must be positive.");
+        }
+        final Segments segments = new Segments(channel, channel.position(), channel.size(), segmentSize);
+        return new MappedSegmentsParser(factory.createParser(segments), channel, closesChannel);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (this.closesChannel) {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Reads the mapped segments one after another.
+     */
+    private static final class Segments extends InputStream {
+        Segments(final FileChannel channel, final long position, final long size, final int segmentSize) {
+            this.channel = channel;
+            this.position = position;
+            this.size = size;
+            this.segmentSize = segmentSize;
+            this.segment = null;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!this.hasRemaining()) {
+                return -1;
+            }
+            return this.segment.read();
+        }
+
+        @Override
+        public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!this.hasRemaining()) {
+                return -1;
+            }
+            return this.segment.read(bytes, offset, length);
+        }
+
+        @Override
+        public int available() {
+            return this.segment == null ? 0 : this.segment.available();
+        }
+
+        private boolean hasRemaining() throws IOException {
+            if (this.segment != null && this.segment.available() > 0) {
+                return true;
+            }
+            if (this.position >= this.size) {
+                return false;
+            }
+            final long length = Math.min(this.segmentSize, this.size - this.position);
+            // The previous segment is unmapped when it is garbage-collected.
+            this.segment = new ByteBufferInputStream(this.channel.map(FileChannel.MapMode.READ_ONLY, this.position, length));
+            this.position += length;
+            return true;
+        }
+
+        private final FileChannel channel;
+        private final long size;
+        private final int segmentSize;
+
+        private long position;
+        private ByteBufferInputStream segment;
+    }
+
+    // The default size of a segment, which is not too large for address spaces, but large enough to amortize mapping.
+    static final int DEFAULT_SEGMENT_SIZE = 1 << 28;
+
+    private final FileChannel channel;
+    private final boolean closesChannel;
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Objects;
+import org.embulk.spi.json.JsonValue;
+
+/**
+ * Parses a stringified JSON fed in pieces to Embulk's {@link org.embulk.spi.json.JsonValue}, without blocking.
+ *
+ * <p>Pieces of the stringified JSON in UTF-8 are pushed by {@link #feed(byte[], int, int)} or {@link #feed(ByteBuffer)}
+ * as they arrive. JSON values completed so far are polled by {@link #readJsonValue()} or
+ * {@link #captureJsonValues(CapturingPointers)}, which return {@code null} when more input is needed. Then, the end of
+ * input is signaled by {@link #endOfInput()}. It does not need a thread per stream, nor an {@link java.io.InputStream}
+ * adapter. For example:
+ *
+ * <pre>{@code
+ * try (final NonBlockingJsonValueParser parser = JsonValueParser.builder().buildNonBlocking()) {
+ *     for (final byte[] buffer : buffers) {
+ *         parser.feed(buffer, 0, buffer.length);
+ *         for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+ *             // ...
+ *         }
+ *     }
+ *     parser.endOfInput();
+ *     for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+ *         // ...
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>The bytes fed are tokenized by the non-blocking parser of Jackson immediately. {@link JsonValueParser.Builder#root(String)
+ * Root}, and {@link JsonValueParser.Builder#setDepthToFlattenJsonArrays(int) flattening} are applied to the tokens
+ * as they arrive, in the same way with {@link JsonValueParser}. Only the tokens of JSON values to be read are kept in
+ * the compact representation of {@link JsonTape}, and a JSON value is available as soon as it is completed, even in
+ * the middle of a large JSON array flattened. The bytes given are not referred after {@code feed} returns, then the
+ * buffer can be reused.
+ *
+ * <p>A failure in parsing is not thrown from {@code feed} nor {@link #endOfInput()}. It is thrown from
+ * {@link #readJsonValue()} or {@link #captureJsonValues(CapturingPointers)} after the JSON values completed before it
+ * are read, at the same point with {@link JsonValueParser}. The input fed after the failure is ignored.
+ *
+ * <p>It is created by {@link JsonValueParser.Builder#buildNonBlocking()}. It is not thread-safe.
+ */
+public final class NonBlockingJsonValueParser implements Closeable {
+    NonBlockingJsonValueParser(
+            final com.fasterxml.jackson.core.JsonParser nonBlockingParser,
+            final JsonValueSelector selector,
+            final InternalJsonValueReader valueReader,
+            final JsonTapeReader tapeReader) {
+        this.nonBlockingParser = nonBlockingParser;
+        this.feeder = (ByteArrayFeeder) nonBlockingParser.getNonBlockingInputFeeder();
+        this.selector = selector;
+        this.valueReader = valueReader;
+        this.tapeReader = tapeReader;
+        this.tapes = new ArrayDeque<>();
+        this.replayParser = null;
+        this.copyBuffer = null;
+        this.hasEnded = false;
+        this.failure = null;
+    }
+
+    /**
+     * Feeds the stringified JSON in the region of the byte array.
+     *
+     * <p>The bytes are tokenized before it returns. The byte array can be modified after it returns.
+     *
+     * @param json  the byte array of a piece of the stringified JSON
+     * @param offset  the offset of the piece in the byte array
+     * @param length  the length of the piece in bytes
+     * @throws IOException  if failing to read JSON
+     * @throws IndexOutOfBoundsException  if the region is out of the byte array
+     * @throws IllegalStateException  if the end of input has been signaled
+     */
+    public void feed(final byte[] json, final int offset, final int length) throws IOException {
+        JsonValueParser.Builder.checkRegion(Objects.requireNonNull(json).length, offset, length);
+        this.checkNotEnded();
+        if (length == 0 || this.failure != null) {
+            return;
+        }
+        this.feeder.feedInput(json, offset, offset + length);
+        this.readAvailable();
+    }
+
+    /**
+     * Feeds the stringified JSON from the position to the limit of the buffer.
+     *
+     * <p>The bytes in a heap buffer are fed directly. The bytes in a direct buffer, or a read-only buffer, are copied
+     * in small chunks to be fed. The position of the buffer is not changed. The buffer can be modified after it returns.
+     *
+     * @param json  the buffer of a piece of the stringified JSON
+     * @throws IOException  if failing to read JSON
+     * @throws IllegalStateException  if the end of input has been signaled
+     */
+    public void feed(final ByteBuffer json) throws IOException {
+        if (Objects.requireNonNull(json).hasArray()) {
+            this.feed(json.array(), json.arrayOffset() + json.position(), json.remaining());
+            return;
+        }
+        this.checkNotEnded();
+        if (this.copyBuffer == null) {
+            this.copyBuffer = new byte[COPY_BUFFER_SIZE];
+        }
+        final ByteBuffer source = json.duplicate();
+        while (source.hasRemaining() && this.failure == null) {
+            final int length = Math.min(source.remaining(), this.copyBuffer.length);
+            source.get(this.copyBuffer, 0, length);
+            this.feeder.feedInput(this.copyBuffer, 0, length);
+            this.readAvailable();
+        }
+    }
+
+    /**
+     * Signals the end of input.
+     *
+     * <p>A JSON value at the end, such as a number without trailing whitespaces, is completed by this. It does nothing
+     * if the end of input has already been signaled.
+     *
+     * @throws IOException  if failing to read JSON
+     */
+    public void endOfInput() throws IOException {
+        if (this.hasEnded) {
+            return;
+        }
+        this.hasEnded = true;
+        if (this.failure != null) {
+            return;
+        }
+        this.feeder.endOfInput();
+        this.readAvailable();
+    }
+
+    /**
+     * Reads a {@link org.embulk.spi.json.JsonValue} completed from the input fed so far.
+     *
+     * @return the JSON value, or {@code null} if more input is needed, or the parser reaches at the end of input
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON, including a failure in parsing the input fed
+     */
+    public JsonValue readJsonValue() throws IOException {
+        while (true) {
+            final com.fasterxml.jackson.core.JsonParser parser = this.replayParser();
+            if (parser == null) {
+                return null;
+            }
+            final JsonValue value = this.valueReader.read(parser);
+            if (value != null) {
+                return value;
+            }
+            this.replayParser = null;
+        }
+    }
+
+    /**
+     * Captures {@link org.embulk.spi.json.JsonValue}s from a JSON value completed from the input fed so far, with the
+     * specified capturing pointers.
+     *
+     * @return an array of the captured JSON values, or {@code null} if more input is needed, or the parser reaches at
+     *     the end of input
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON, including a failure in parsing the input fed
+     */
+    public JsonValue[] captureJsonValues(final CapturingPointers capturingPointers) throws IOException {
+        while (true) {
+            final com.fasterxml.jackson.core.JsonParser parser = this.replayParser();
+            if (parser == null) {
+                return null;
+            }
+            final JsonValue[] values = capturingPointers.captureFromParser(parser, this.valueReader);
+            if (values != null) {
+                return values;
+            }
+            this.replayParser = null;
+        }
+    }
+
+    /**
+     * Closes the parser, and discards JSON values which are not read yet.
+     *
+     * @throws IOException  if failing to close
+     */
+    @Override
+    public void close() throws IOException {
+        this.tapes.clear();
+        this.replayParser = null;
+        this.nonBlockingParser.close();
+    }
+
+    private void checkNotEnded() {
+        if (this.hasEnded) {
+            throw new IllegalStateException("The end of input has already been signaled.");
+        }
+    }
+
+    /**
+     * Reads tokens available from the non-blocking parser, until it needs more input.
+     *
+     * <p>The tokens of JSON values selected are appended into the tape reader, and the other tokens are only given to
+     * the selector. A failure is kept to be thrown after the JSON values completed before it are read.
+     */
+    private void readAvailable() throws IOException {
+        try {
+            while (true) {
+                final JsonToken token = this.nonBlockingParser.nextToken();
+                if (token == JsonToken.NOT_AVAILABLE) {
+                    break;
+                }
+                if (token == null) {
+                    if (this.tapeReader.isInValue() || this.selector.isInProgress()) {
+                        throw new JsonParseException("Unexpected end of JSON at " + this.nonBlockingParser.getTokenLocation());
+                    }
+                    break;
+                }
+                if (this.tapeReader.isInValue() || this.selector.select(this.nonBlockingParser, token)) {
+                    this.tapeReader.appendAvailable(this.nonBlockingParser, token);
+                }
+            }
+        } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
+            this.failure = new JsonParseException("Failed to parse JSON", ex);
+        } catch (final IOException ex) {
+            this.failure = ex;
+        } catch (final JsonParseException ex) {
+            this.failure = ex;
+        } catch (final RuntimeException ex) {
+            this.failure = new JsonParseException("Failed to parse JSON", ex);
+        }
+
+        final JsonTape tape = this.tapeReader.takeAvailable();
+        if (tape != null) {
+            this.tapes.add(tape);
+        }
+    }
+
+    /**
+     * Returns the parser replaying the current tape, or {@code null} if no tape is left.
+     *
+     * <p>It throws the failure kept in parsing the input, after all the tapes before it are read.
+     */
+    private com.fasterxml.jackson.core.JsonParser replayParser() throws IOException {
+        if (this.replayParser == null) {
+            final JsonTape tape = this.tapes.poll();
+            if (tape == null) {
+                if (this.failure instanceof IOException) {
+                    throw (IOException) this.failure;
+                } else if (this.failure != null) {
+                    throw (RuntimeException) this.failure;
+                }
+                return null;
+            }
+            // A tape contains only JSON values selected by root and flattening, then it is read without filters.
+            this.replayParser = new JsonTapeParser(tape, 0, tape.entryCount());
+        }
+        return this.replayParser;
+    }
+
+    private static final int COPY_BUFFER_SIZE = 8192;
+
+    private final com.fasterxml.jackson.core.JsonParser nonBlockingParser;
+    private final ByteArrayFeeder feeder;
+    private final JsonValueSelector selector;
+    private final InternalJsonValueReader valueReader;
+    private final JsonTapeReader tapeReader;
+
+    // Tapes of completed JSON values, which are not read yet.
+    private final ArrayDeque<JsonTape> tapes;
+
+    private com.fasterxml.jackson.core.JsonParser replayParser;
+    private byte[] copyBuffer;
+    private boolean hasEnded;
+
+    // The failure in parsing the input, which is thrown after the JSON values completed before it are read.
+    private Exception failure;
+}
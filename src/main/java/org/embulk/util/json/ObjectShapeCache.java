@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.util.Arrays;
+
+/**
+ * A cache of "shapes", sequences of member names, of JSON objects.
+ *
+ * <p>JSON objects in a homogeneous input, such as NDJSON with a fixed schema, mostly have the same sequence of
+ * member names. This cache returns the canonical array of member names for a sequence that has been seen recently,
+ * so that the JSON objects of the same shape share the same array of member names.
+ *
+ * <p>The canonical arrays must never be modified. {@link org.embulk.spi.json.JsonObject} never modifies its
+ * array of member names.
+ *
+ * <p>It is a direct-mapped cache indexed by a hash of the sequence. A sequence replaces an older one at the same
+ * index. It is not thread-safe.
+ */
+final class ObjectShapeCache {
+    private ObjectShapeCache(final int capacity) {
+        this.shapes = new String[capacity][];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Creates a new cache with the specified capacity.
+     *
+     * @param capacity  the number of shapes to be cached, rounded up to a power of two
+     * @return the new cache
+     */
+    static ObjectShapeCache withCapacity(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of the object shape cache must be positive.");
+        }
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("The capacity of the object shape cache must be " + MAX_CAPACITY + " or less.");
+        }
+        return new ObjectShapeCache(roundUpToPowerOfTwo(capacity));
+    }
+
+    /**
+     * Returns the canonical array of member names that equals to the specified range of an array.
+     *
+     * @param keys  the array containing the member names of a JSON object from its beginning
+     * @param size  the number of the member names
+     * @return the canonical array of member names, which must not be modified
+     */
+    String[] canonicalize(final String[] keys, final int size) {
+        int hash = size;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + keys[i].hashCode();
+        }
+        final int index = (hash ^ (hash >>> 16)) & this.mask;
+
+        final String[] cached = this.shapes[index];
+        if (cached != null && matches(cached, keys, size)) {
+            return cached;
+        }
+
+        final String[] shape = Arrays.copyOf(keys, size);
+        this.shapes[index] = shape;
+        return shape;
+    }
+
+    private static boolean matches(final String[] cached, final String[] keys, final int size) {
+        if (cached.length != size) {
+            return false;
+        }
+        for (int i = 0; i < size; i++) {
+            final String key = keys[i];
+            // Member names are usually the same instances, canonicalized by Jackson.
+            if (cached[i] != key && !cached[i].equals(key)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int roundUpToPowerOfTwo(final int capacity) {
+        final int highest = Integer.highestOneBit(capacity);
+        return (highest == capacity) ? capacity : highest << 1;
+    }
+
+    static final int MAX_CAPACITY = 1 << 16;
+
+    private final String[][] shapes;
+    private final int mask;
+}
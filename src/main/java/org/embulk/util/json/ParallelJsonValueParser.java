@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import org.embulk.spi.json.JsonValue;
+
+/**
+ * Parses newline-delimited JSON (NDJSON, or JSON Lines) to Embulk's {@link org.embulk.spi.json.JsonValue} in parallel.
+ *
+ * <p>The input is read in chunks of about the chunk size, which are cut right after the last line feed in them. Each
+ * chunk is parsed by a task on the {@link java.util.concurrent.Executor} into JSON values, with its own
+ * {@link JsonValueParser} configured in the same way. JSON values are returned in the order of input.
+ *
+ * <p>Chunks are read ahead, and parsed in parallel, until the total size of chunks in flight, which are not read
+ * completely yet, reaches the maximum. It can exceed the maximum by a chunk.
+ *
+ * <p>A chunk is bounded by the maximum, or by the chunk size if larger. A line, or an element, longer than it is not
+ * buffered further:
+ *
+ * <ul>
+ * <li>If no line feed is found out of JSON strings, arrays, and objects in it, as by an unbalanced quote or bracket, the
+ * bytes are parsed as the last chunk so that its failure is reported in order.
+ * <li>Otherwise, {@link JsonParseException} is thrown in order, after the JSON values before it.
+ * </ul>
+ *
+ * <p>The input must be in UTF-8. Chunks are cut only at line feeds out of JSON strings, arrays, and objects, which are
+ * found by {@link SwarJsonScanner}, then a line feed in a JSON string as an unquoted control character, or in a JSON
+ * value printed in multiple lines, does not split the JSON value. A chunk is parsed independently, then
+ * {@link JsonValueParser.Builder#root(String)} and {@link JsonValueParser.Builder#setDepthToFlattenJsonArrays(int)} are
+ * applied to each JSON value. The caches of JSON values are created for each chunk.
+ *
+ * <p>Built by {@link JsonValueParser.Builder#buildParallelElements(InputStream, Executor)}, it splits elements of huge
+ * top-level JSON arrays, and members of huge top-level JSON objects, into chunks by a pre-scan, instead of lines. With
+ * {@link JsonValueParser.Builder#root(String)} made of member names, it splits the JSON arrays and objects at the root.
+ *
+ * <p>It is created by {@link JsonValueParser.Builder#buildParallel(InputStream, Executor)}. It is not thread-safe.
+ */
+public final class ParallelJsonValueParser implements Closeable {
+    ParallelJsonValueParser(
+            final InputStream jsonLines,
+            final boolean closesInput,
+            final Executor executor,
+            final JsonValueParser.Builder chunkParserBuilder,
+            final CapturingPointers capturingPointers,
+            final JsonElementSplitter elementSplitter,
+            final int chunkSize,
+            final long maxInFlightBytes) {
+        this.input = jsonLines;
+        this.elementSplitter = elementSplitter;
+        this.closesInput = closesInput;
+        this.executor = executor;
+        this.chunkParserBuilder = chunkParserBuilder;
+        this.capturingPointers = capturingPointers;
+        this.chunkSize = chunkSize;
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.maxLineLength = maxChunkLength(chunkSize, maxInFlightBytes);
+
+        this.chunks = new ArrayDeque<>();
+        this.inFlightBytes = 0;
+        this.carry = new byte[0];
+        this.carryOffset = 0;
+        this.carryLength = 0;
+        this.lineScanner = new SwarJsonScanner();
+        this.hasInputEnded = false;
+
+        this.current = null;
+        this.currentIndex = 0;
+    }
+
+    /**
+     * Reads a {@link org.embulk.spi.json.JsonValue} from the parser.
+     *
+     * @return the JSON value, or {@code null} if the parser reaches at the end of input
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON
+     * @throws IllegalStateException  if the parser is built to capture JSON values
+     */
+    public JsonValue readJsonValue() throws IOException {
+        if (this.capturingPointers != null) {
+            throw new IllegalStateException("The parser is built to capture JSON values.");
+        }
+        return (JsonValue) this.next();
+    }
+
+    /**
+     * Captures {@link org.embulk.spi.json.JsonValue}s from the parser with the capturing pointers given to build it.
+     *
+     * @return an array of the captured JSON values, or {@code null} if the parser reaches at the end of input
+     * @throws IOException  if failing to read JSON
+     * @throws JsonParseException  if failing to parse JSON
+     * @throws IllegalStateException  if the parser is built without capturing pointers
+     */
+    public JsonValue[] captureJsonValues() throws IOException {
+        if (this.capturingPointers == null) {
+            throw new IllegalStateException("The parser is built without capturing pointers.");
+        }
+        return (JsonValue[]) this.next();
+    }
+
+    /**
+     * Closes the parser, and cancels the tasks which have not started yet.
+     *
+     * @throws IOException  if failing to close
+     */
+    @Override
+    public void close() throws IOException {
+        for (final Chunk chunk : this.chunks) {
+            chunk.task.cancel(false);
+        }
+        this.chunks.clear();
+        this.current = null;
+        this.hasInputEnded = true;
+        if (this.closesInput) {
+            this.input.close();
+        }
+    }
+
+    private Object next() throws IOException {
+        while (true) {
+            if (this.current != null) {
+                if (this.currentIndex < this.current.values.length) {
+                    return this.current.values[this.currentIndex++];
+                }
+                final ParsedChunk done = this.current;
+                this.current = null;
+                this.inFlightBytes -= done.size;
+                if (done.failure instanceof IOException) {
+                    throw (IOException) done.failure;
+                } else if (done.failure != null) {
+                    throw (RuntimeException) done.failure;
+                }
+            }
+
+            this.dispatch();
+            final Chunk chunk = this.chunks.poll();
+            if (chunk == null) {
+                return null;
+            }
+            this.current = chunk.await();
+            this.currentIndex = 0;
+        }
+    }
+
+    /**
+     * Reads chunks from the input, and submits them to the executor, until the chunks in flight reach the maximum.
+     */
+    private void dispatch() throws IOException {
+        while (!this.hasInputEnded && this.inFlightBytes < this.maxInFlightBytes) {
+            Chunk chunk;
+            try {
+                chunk = this.readChunk();
+            } catch (final IOException | RuntimeException ex) {
+                // Thrown after the chunks before it are read, in the order of input.
+                this.hasInputEnded = true;
+                chunk = new Chunk(new FutureTask<>(() -> new ParsedChunk(new Object[0], ex, 0)), 0);
+            }
+            if (chunk == null) {
+                return;
+            }
+            this.chunks.add(chunk);
+            this.inFlightBytes += chunk.size;
+            this.executor.execute(chunk.task);
+        }
+    }
+
+    /**
+     * Reads a chunk which ends with a line feed between JSON values, or at the end of input, or a chunk of elements from the splitter.
+     *
+     * @return the chunk, or {@code null} if the input has no more bytes
+     */
+    private Chunk readChunk() throws IOException {
+        if (this.elementSplitter != null) {
+            if (!this.elementSplitter.readChunk()) {
+                this.hasInputEnded = true;
+                return null;
+            }
+            return this.newChunk(this.elementSplitter.chunk(), this.elementSplitter.chunkLength());
+        }
+
+        while (true) {
+            if (this.carryLength >= this.maxLineLength) {
+                this.hasInputEnded = true;
+                if (this.lineScanner.depth() == 0 && !this.lineScanner.isInString()) {
+                    // A line of JSON values is just too long. It fails instead of being cut in the middle of a value.
+                    throw new JsonParseException("A line of JSON is longer than the maximum size of chunks in flight: " + this.maxLineLength + " bytes");
+                }
+                // No line feed is found out of a JSON string, array, or object in the maximum, as by an unbalanced quote or
+                // bracket. The bytes are parsed as is to report its failure in order, instead of buffering the rest.
+                final byte[] line = Arrays.copyOfRange(this.carry, this.carryOffset, this.carryOffset + this.carryLength);
+                this.carryLength = 0;
+                return this.newChunk(line, line.length);
+            }
+            // The bytes carried from the previous buffer have been scanned already.
+            final int scanned = this.carryLength;
+            // A line longer than the chunk size doubles the buffer to keep reading linear, up to the maximum.
+            final byte[] buffer = new byte[(int) Math.min(this.maxLineLength, (long) this.carryLength + Math.max(this.chunkSize, this.carryLength))];
+            System.arraycopy(this.carry, this.carryOffset, buffer, 0, this.carryLength);
+            int filled = this.carryLength;
+            while (filled < buffer.length) {
+                final int read = this.input.read(buffer, filled, buffer.length - filled);
+                if (read < 0) {
+                    this.hasInputEnded = true;
+                    break;
+                }
+                filled += read;
+            }
+
+            if (this.hasInputEnded) {
+                this.carryLength = 0;
+                return filled > 0 ? this.newChunk(buffer, filled) : null;
+            }
+
+            int lineEnd = 0;
+            for (int lineFeed = this.lineScanner.findLineFeed(buffer, scanned, filled);
+                    lineFeed >= 0;
+                    lineFeed = this.lineScanner.findLineFeed(buffer, lineFeed + 1, filled)) {
+                lineEnd = lineFeed + 1;
+            }
+            // The rest after the last line feed is carried to the next chunk.
+            this.carry = buffer;
+            this.carryOffset = lineEnd;
+            this.carryLength = filled - lineEnd;
+            if (lineEnd > 0) {
+                return this.newChunk(buffer, lineEnd);
+            }
+        }
+    }
+
+    /**
+     * Returns the maximum length of a line, or an element, in a chunk, which is the maximum size of chunks in flight,
+     * or the chunk size if larger.
+     */
+    static int maxChunkLength(final int chunkSize, final long maxInFlightBytes) {
+        return (int) Math.min(Integer.MAX_VALUE - 8, Math.max(chunkSize, maxInFlightBytes));
+    }
+
+    private Chunk newChunk(final byte[] bytes, final int length) {
+        return new Chunk(new FutureTask<>(() -> this.parseChunk(bytes, length)), length);
+    }
+
+    /**
+     * Parses a chunk into JSON values, or arrays of captured JSON values, in a task.
+     *
+     * <p>A failure is returned after the JSON values parsed before it, so that it is thrown at the same point with
+     * parsing the input sequentially.
+     */
+    private ParsedChunk parseChunk(final byte[] bytes, final int length) {
+        final ArrayList<Object> values = new ArrayList<>();
+        Exception failure = null;
+        try (final JsonValueParser parser = this.chunkParserBuilder.build(bytes, 0, length)) {
+            while (true) {
+                final Object value;
+                if (this.capturingPointers != null) {
+                    value = parser.captureJsonValues(this.capturingPointers);
+                } else {
+                    value = parser.readJsonValue();
+                }
+                if (value == null) {
+                    break;
+                }
+                values.add(value);
+            }
+        } catch (final IOException | RuntimeException ex) {
+            failure = ex;
+        }
+        return new ParsedChunk(values.toArray(), failure, length);
+    }
+
+    private static final class Chunk {
+        Chunk(final FutureTask<ParsedChunk> task, final int size) {
+            this.task = task;
+            this.size = size;
+        }
+
+        ParsedChunk await() throws IOException {
+            try {
+                return this.task.get();
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                final InterruptedIOException interrupted = new InterruptedIOException("Interrupted while waiting for a chunk parsed.");
+                interrupted.initCause(ex);
+                throw interrupted;
+            } catch (final ExecutionException ex) {
+                final Throwable cause = ex.getCause();
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new JsonParseException("Failed to parse JSON", cause);
+            }
+        }
+
+        final FutureTask<ParsedChunk> task;
+        final int size;
+    }
+
+    private static final class ParsedChunk {
+        ParsedChunk(final Object[] values, final Exception failure, final int size) {
+            this.values = values;
+            this.failure = failure;
+            this.size = size;
+        }
+
+        final Object[] values;
+        final Exception failure;
+        final int size;
+    }
+
+    private final InputStream input;
+    private final JsonElementSplitter elementSplitter;  // null to split lines
+    private final boolean closesInput;
+    private final Executor executor;
+    private final JsonValueParser.Builder chunkParserBuilder;
+    private final CapturingPointers capturingPointers;
+    private final int chunkSize;
+    private final long maxInFlightBytes;
+    private final int maxLineLength;
+
+    // Chunks submitted to the executor, in the order of input.
+    private final ArrayDeque<Chunk> chunks;
+    private long inFlightBytes;
+
+    // Bytes after the last line feed in the previous buffer.
+    private byte[] carry;
+    private int carryOffset;
+    private int carryLength;
+    private final SwarJsonScanner lineScanner;
+    private boolean hasInputEnded;
+
+    private ParsedChunk current;
+    private int currentIndex;
+}
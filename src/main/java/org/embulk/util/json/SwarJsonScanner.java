@@ -0,0 +1,251 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Scans the structure of JSON in UTF-8 bytes eight bytes at a time in {@code long}s, without tokenizing.
+ *
+ * <p>It tracks only whether it is in a JSON string, whether the next byte is escaped, and the depth of brackets. It finds
+ * quotes, backslashes, brackets, and line feeds in a {@code long} word with the "SIMD within a register" (SWAR) technique.
+ * A word without backslashes is stepped at once, with a prefix XOR of quotes for JSON strings, and counts of brackets. Only
+ * a word with backslashes, or where the scan may stop, is stepped byte by byte at matched bytes. Multi-byte characters in
+ * UTF-8 never contain these ASCII bytes.
+ *
+ * <p>Control characters in JSON strings are just skipped, then a line feed in a JSON string is never taken as a line feed
+ * between JSON values, even with {@code ALLOW_UNQUOTED_CONTROL_CHARS} enabled by default in {@link JsonValueParser}.
+ *
+ * <p>The state continues over calls, so that bytes can be scanned in blocks. It does not validate JSON.
+ */
+final class SwarJsonScanner {
+    SwarJsonScanner() {
+        this.depth = 0;
+        this.isInString = false;
+        this.isEscaped = false;
+        this.words = null;
+    }
+
+    /**
+     * Finds the next line feed out of JSON strings, arrays, and objects.
+     *
+     * @return the index of the line feed, or {@code -1} if all the bytes in the range are scanned without it
+     */
+    int findLineFeed(final byte[] bytes, final int start, final int end) {
+        return this.scan(bytes, start, end, true);
+    }
+
+    /**
+     * Skips a JSON string, array, or object which starts at {@code start}, or continues to skip from the previous call.
+     *
+     * @return the index right after the end of the JSON string, array, or object, or {@code -1} if all the bytes in the
+     *     range are scanned before its end
+     */
+    int skipValue(final byte[] bytes, final int start, final int end) {
+        return this.scan(bytes, start, end, false);
+    }
+
+    int depth() {
+        return this.depth;
+    }
+
+    boolean isInString() {
+        return this.isInString;
+    }
+
+    /**
+     * Scans bytes in {@code long} words while at least eight bytes remain, and the rest byte by byte.
+     *
+     * <p>The state is kept in local variables in the loop, and stored back into the fields when it returns.
+     */
+    private int scan(final byte[] bytes, final int start, final int end, final boolean findsLineFeed) {
+        if (this.words == null || this.words.array() != bytes) {
+            this.words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        final ByteBuffer words = this.words;
+        int depth = this.depth;
+        boolean isInString = this.isInString;
+        boolean isEscaped = this.isEscaped;
+        int stop = -1;
+
+        int i = start;
+        words:
+        while (i + 8 <= end) {
+            if (isEscaped) {
+                isEscaped = false;
+                i++;
+                continue;
+            }
+            // The byte at i is the least significant in the word, then its match is the lowest bit.
+            final long word = words.getLong(i);
+            final long quotes = matches(word, QUOTES);
+            final long backslashes = matches(word, BACKSLASHES);
+            if (isInString && (quotes | backslashes) == 0) {
+                // Most words in JSON strings are skipped only by the two matches.
+                i += 8;
+                continue;
+            }
+            final long opens = matches(word | CASE_BITS, OPEN_BRACES);
+            final long closes = matches(word | CASE_BITS, CLOSE_BRACES);
+            final long lineFeeds = findsLineFeed ? matches(word, LINE_FEEDS) : 0L;
+
+            if ((quotes | backslashes | opens | closes | lineFeeds) == 0) {
+                i += 8;
+                continue;
+            }
+            if (backslashes == 0) {
+                // Without escapes, a byte is in a JSON string if an odd number of quotes are up to it, by a prefix XOR.
+                long parities = quotes >>> 7;
+                parities ^= parities << 8;
+                parities ^= parities << 16;
+                parities ^= parities << 32;
+                final long outOfString = ~((isInString ? ~parities : parities) << 7) & HIGH_BITS;
+                final int closeCount = Long.bitCount(closes & outOfString);
+                // The word is stepped at once unless the scan may stop in it, or the depth may go below zero.
+                if ((lineFeeds & outOfString) == 0 && (findsLineFeed ? depth >= closeCount : depth > closeCount)) {
+                    depth += Long.bitCount(opens & outOfString) - closeCount;
+                    isInString ^= (Long.bitCount(quotes) & 1) != 0;
+                    i += 8;
+                    continue;
+                }
+            }
+
+            // Otherwise, the word is stepped byte by byte only at the matched bytes.
+            final long inStringMask = quotes | backslashes;
+            final long outOfStringMask = inStringMask | opens | closes | lineFeeds;
+            long remaining = -1L;
+            while (true) {
+                final long mask = (isInString ? inStringMask : outOfStringMask) & remaining;
+                if (mask == 0) {
+                    break;
+                }
+                final int offset = Long.numberOfTrailingZeros(mask) >>> 3;
+                remaining = bitsFrom(offset + 1);
+                final int index = i + offset;
+                final byte b = bytes[index];
+                if (isInString) {
+                    if (b == '"') {
+                        isInString = false;
+                        if (!findsLineFeed && depth == 0) {
+                            stop = index + 1;
+                            break words;
+                        }
+                    } else if (offset == 7) {
+                        isEscaped = true;
+                    } else {
+                        remaining = bitsFrom(offset + 2);
+                    }
+                } else if (b == '"') {
+                    isInString = true;
+                } else if (b == '[' || b == '{') {
+                    depth++;
+                } else if (b == '\n') {
+                    if (depth == 0) {
+                        stop = index;
+                        break words;
+                    }
+                } else if ((b == ']' || b == '}') && depth > 0) {
+                    // An unexpected close marker at the depth zero is ignored, and left for the parser to report.
+                    depth--;
+                    if (!findsLineFeed && depth == 0) {
+                        stop = index + 1;
+                        break words;
+                    }
+                }
+            }
+            i += 8;
+        }
+
+        if (stop < 0) {
+            for (; i < end; i++) {
+                final byte b = bytes[i];
+                if (isInString) {
+                    if (isEscaped) {
+                        isEscaped = false;
+                    } else if (b == '\\') {
+                        isEscaped = true;
+                    } else if (b == '"') {
+                        isInString = false;
+                        if (!findsLineFeed && depth == 0) {
+                            stop = i + 1;
+                            break;
+                        }
+                    }
+                } else if (b == '"') {
+                    isInString = true;
+                } else if (b == '[' || b == '{') {
+                    depth++;
+                } else if (b == '\n' && findsLineFeed) {
+                    if (depth == 0) {
+                        stop = i;
+                        break;
+                    }
+                } else if ((b == ']' || b == '}') && depth > 0) {
+                    depth--;
+                    if (!findsLineFeed && depth == 0) {
+                        stop = i + 1;
+                        break;
+                    }
+                }
+            }
+        }
+
+        this.depth = depth;
+        this.isInString = isInString;
+        this.isEscaped = isEscaped;
+        return stop;
+    }
+
+    /**
+     * Returns the most significant bit of each byte in the word which is equal to the byte in the pattern.
+     *
+     * <p>It is exact, without false positives by borrows, unlike {@code (x - 0x01..01) & ~x & 0x80..80}.
+     */
+    static long matches(final long word, final long pattern) {
+        final long x = word ^ pattern;
+        final long t = (x & LOW_BITS) + LOW_BITS;
+        return ~(t | x | LOW_BITS);
+    }
+
+    private static long bitsFrom(final int offset) {
+        return offset >= 8 ? 0L : (-1L << (offset << 3));
+    }
+
+    private static long repeat(final char c) {
+        return (c & 0xffL) * 0x0101010101010101L;
+    }
+
+    private static final long LOW_BITS = 0x7f7f7f7f7f7f7f7fL;
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    // '[' and '{', and ']' and '}', differ only in 0x20.
+    private static final long CASE_BITS = repeat(' ');
+    private static final long OPEN_BRACES = repeat('{');
+    private static final long CLOSE_BRACES = repeat('}');
+
+    private static final long QUOTES = repeat('"');
+    private static final long BACKSLASHES = repeat('\\');
+    private static final long LINE_FEEDS = repeat('\n');
+
+    private int depth;
+    private boolean isInString;
+    private boolean isEscaped;
+
+    // A view of the last scanned bytes to read long words.
+    private ByteBuffer words;
+}
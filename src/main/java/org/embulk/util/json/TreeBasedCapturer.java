@@ -22,99 +22,121 @@ import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.Map;
 import org.embulk.spi.json.JsonArray;
-import org.embulk.spi.json.JsonBoolean;
-import org.embulk.spi.json.JsonDouble;
-import org.embulk.spi.json.JsonLong;
-import org.embulk.spi.json.JsonNull;
 import org.embulk.spi.json.JsonObject;
-import org.embulk.spi.json.JsonString;
 import org.embulk.spi.json.JsonValue;
 
 /**
- * A context-ful JSON value "capturer" based on {@link JsonPointerTree}.
+ * A context-ful JSON value "capturer" based on {@link JsonPointerAutomaton} compiled from {@link JsonPointerTree}.
+ *
+ * <p>It is reused to capture JSON values from JSON values one by one, for the same capturing pointers. Its stacks, and
+ * contexts of JSON arrays and objects being parsed, are reset and reused for each JSON value. It is not thread-safe.
  */
 class TreeBasedCapturer {
-    TreeBasedCapturer(
-            final JsonParser parser,
-            final JsonPointerTree tree,
-            final int size,
-            final InternalJsonValueReader valueReader) {
-        this.parser = parser;
-        this.tree = tree;
-        this.hasRootToCapture = this.tree.captures().isEmpty();
+    TreeBasedCapturer(final CapturingJsonPointerList capturingPointers, final InternalJsonValueReader valueReader) {
+        this.parser = null;
+        this.capturingPointers = capturingPointers;
+        this.automaton = capturingPointers.automaton();
 
-        this.size = size;
+        this.size = capturingPointers.size();
+        this.terminatesEarly = capturingPointers.terminatesEarly();
+        this.validatesAfterTermination = capturingPointers.validatesAfterTermination();
 
         this.valueReader = valueReader;
 
-        this.pointerStack = new ArrayDeque<>();
-        this.pointerStack.push(this.tree);
-        this.parsingStack = new ArrayDeque<>();
+        this.stateStack = new int[INITIAL_STACK_CAPACITY];
+        this.stateDepth = 0;
+        this.parsingContexts = new ParsingContext[INITIAL_STACK_CAPACITY];
+        this.parsingDepth = 0;
         this.builderStack = new ArrayDeque<>();
 
         this.hasFinished = false;
 
-        this.values = new JsonValue[size];
-        for (int i = 0; i < this.values.length; i++) {
-            this.values[i] = null;
+        this.values = null;
+        this.remainingCaptures = 0;
+    }
+
+    /**
+     * Returns {@code true} if it captures for the capturing pointers.
+     */
+    boolean isFor(final CapturingJsonPointerList capturingPointers) {
+        return this.capturingPointers == capturingPointers;
+    }
+
+    /**
+     * Captures JSON values from the next JSON value read from the parser.
+     *
+     * <p>Exceptions are not translated, but translated by the caller once for many JSON values.
+     *
+     * @param parser  the parser to read from
+     * @param destination  the array to overwrite with the captured JSON values, whose length is the size, or {@code null}
+     *     to allocate a new array
+     * @return the array of the captured JSON values, or {@code null} if the parser reaches at the end of input in the beginning
+     * @throws IOException  when failing to read
+     */
+    JsonValue[] captureUntranslated(final JsonParser parser, final JsonValue[] destination) throws IOException {
+        // The state is reset at the beginning, as it may be left in the middle by a failure in the previous call.
+        this.parser = parser;
+        this.stateDepth = 0;
+        this.pushState(JsonPointerAutomaton.ROOT);
+        this.parsingDepth = 0;
+        this.builderStack.clear();
+        this.hasFinished = false;
+        if (destination == null) {
+            this.values = new JsonValue[this.size];
+        } else {
+            Arrays.fill(destination, null);
+            this.values = destination;
+        }
+        this.remainingCaptures = this.size;
+
+        try {
+            final boolean isFirstAvailable = this.next();
+            if (!isFirstAvailable) {
+                return null;
+            }
+
+            while (this.next()) {
+                ;
+            }
+
+            return this.values;
+        } finally {
+            // Not to retain the parser and the captured JSON values while it is cached.
+            this.parser = null;
+            this.values = null;
         }
     }
 
     @SuppressWarnings("checkstyle:FallThrough")
-    boolean next() throws IOException {
+    private boolean next() throws IOException {
         if (this.hasFinished) {
             return false;
         }
 
-        final JsonToken token;
-        try {
-            token = this.parser.nextToken();
-        } catch (final com.fasterxml.jackson.core.JsonParseException ex) {
-            throw new JsonParseException("Failed to parse JSON", ex);
-        } catch (final IOException ex) {
-            throw ex;
-        } catch (final JsonParseException ex) {
-            throw ex;
-        } catch (final RuntimeException ex) {
-            throw new JsonParseException("Failed to parse JSON", ex);
-        }
-
+        final JsonToken token = this.parser.nextToken();
         if (token == null) {
             return false;
         }
 
-        final JsonPointerTree parentPointer = this.pointerStack.peekFirst();
-
-        if (this.hasRootToCapture && this.parsingStack.isEmpty() && token.isStructStart()) {
-            if (token == JsonToken.START_ARRAY) {
-                this.builderStack.push(new ArrayBuilder());
-            } else if (token == JsonToken.START_OBJECT) {
-                this.builderStack.push(new ObjectBuilder());
-            }
-        }
+        final int parentState = this.stateStack[this.stateDepth - 1];
 
         // Deepen the pointer stack when the token is a scalar value, START_ARRAY, or START_OBJECT.
         if (token.isScalarValue() || token.isStructStart()) {
-            if (!this.parsingStack.isEmpty()) {
-                final ParsingContext context = this.parsingStack.getFirst();
+            if (this.parsingDepth > 0) {
+                final ParsingContext context = this.parsingContexts[this.parsingDepth - 1];
                 if (context.isObject()) {
                     final String propertyName = context.getPropertyName();
                     if (propertyName == null) {
                         throw new JsonParseException("Value in JSON Object before any field comes.");
                     }
 
-                    final JsonPointerTree toBePointer = parentPointer.get(propertyName);
-                    if (toBePointer != null) {
-                        this.pointerStack.push(parentPointer.get(propertyName));
-                    } else {  // This else case includes when parentPointer is INVALID.
-                        this.pointerStack.push(JsonPointerTree.INVALID);
-                    }
+                    // It is INVALID when parentState is INVALID.
+                    this.pushState(this.automaton.nextByName(parentState, propertyName));
                 } else {  // Array
                     context.incrementIndex();
-                    final String indexInString = context.getIndexInString();
 
                     // An array index in JSON Pointer does not have ambiguity. An integer index can be
                     // reverse-resolved uniquely into a string representation.
@@ -131,50 +153,60 @@ class TreeBasedCapturer {
                     // token, an error condition will be raised.  See Section 7 for details.
                     //
                     // https://datatracker.ietf.org/doc/html/rfc6901
+                    //
+                    // Then, the index is looked up as an integer, without converting it into a string.
 
-                    final JsonPointerTree toBePointer = parentPointer.get(indexInString);
-                    if (toBePointer != null) {
-                        this.pointerStack.push(parentPointer.get(indexInString));
-                    } else {  // This else case includes when parentPointer is INVALID.
-                        this.pointerStack.push(JsonPointerTree.INVALID);
-                    }
+                    // It is INVALID when parentState is INVALID.
+                    this.pushState(this.automaton.nextByIndex(parentState, context.getIndex()));
                 }
             }
         }
 
+        // When no JSON Pointer continues into the JSON array or object, and no JSON value above is being built, nothing in
+        // it is captured. It is skipped at once without walking through its tokens here, but still validated.
+        if (token.isStructStart() && this.stateStack[this.stateDepth - 1] == JsonPointerAutomaton.INVALID && this.builderStack.isEmpty()) {
+            this.valueReader.skipChildren(this.parser, token, this.parsingDepth);
+            this.stateDepth--;
+            return true;
+        }
+
+        if (token.isStructStart() && this.parsingDepth >= this.valueReader.maxNestingDepth()) {
+            throw new JsonParseException("JSON is nested deeper than the maximum depth " + this.valueReader.maxNestingDepth());
+        }
+
         if (token == JsonToken.START_ARRAY) {
-            this.parsingStack.push(new ParsingContext(false));
+            this.pushParsingContext(false);
 
-            final List<Integer> captures = this.pointerStack.getFirst().captures();
+            final int[] captures = this.automaton.captures(this.stateStack[this.stateDepth - 1]);
             // When |captures| is not empty for the JSON array, the array must be built as a JsonArray instance eventually.
             //
             // Whenever |builderStack| is not empty, there must be something to build for the parent builder.
-            if ((!captures.isEmpty()) || (!this.builderStack.isEmpty())) {
+            if (captures.length > 0 || (!this.builderStack.isEmpty())) {
                 this.builderStack.push(new ArrayBuilder());
             }
         } else if (token == JsonToken.END_ARRAY) {
-            if (this.parsingStack.isEmpty() || this.parsingStack.pop().isObject()) {
+            if (this.parsingDepth == 0 || this.popParsingContext().isObject()) {
                 throw new JsonParseException("END_ARRAY does not match.");
             }
         } else if (token == JsonToken.START_OBJECT) {
-            this.parsingStack.push(new ParsingContext(true));
+            this.pushParsingContext(true);
 
-            final List<Integer> captures = this.pointerStack.getFirst().captures();
+            final int[] captures = this.automaton.captures(this.stateStack[this.stateDepth - 1]);
             // When |captures| is not empty for the JSON object, the object must be built as a JsonObject instance eventually.
             //
             // Whenever |builderStack| is not empty, there must be something to build for the parent builder.
-            if ((!captures.isEmpty()) || (!this.builderStack.isEmpty())) {
+            if (captures.length > 0 || (!this.builderStack.isEmpty())) {
                 this.builderStack.push(new ObjectBuilder());
             }
         } else if (token == JsonToken.END_OBJECT) {
-            if (this.parsingStack.isEmpty() || !this.parsingStack.pop().isObject()) {
+            if (this.parsingDepth == 0 || !this.popParsingContext().isObject()) {
                 throw new JsonParseException("END_OBJECT does not match.");
             }
         } else if (token == JsonToken.FIELD_NAME) {
-            if (this.parsingStack.isEmpty()) {
+            if (this.parsingDepth == 0) {
                 throw new JsonParseException("FIELD_NAME out of JSON Object.");
             } else {
-                final ParsingContext context = this.parsingStack.getFirst();
+                final ParsingContext context = this.parsingContexts[this.parsingDepth - 1];
                 if (!context.isObject()) {
                     throw new JsonParseException("FIELD_NAME in JSON Array.");
                 }
@@ -204,9 +236,11 @@ class TreeBasedCapturer {
             }
 
             if (value != null) {
-                final JsonPointerTree thisPointer = this.pointerStack.peekFirst();
-                assert thisPointer != null;  // this.pointerStack must not be empty here, but asserting.
-                for (final int capture : thisPointer.captures()) {
+                assert this.stateDepth > 0;  // this.stateStack must not be empty here, but asserting.
+                for (final int capture : this.automaton.captures(this.stateStack[this.stateDepth - 1])) {
+                    if (this.values[capture] == null) {
+                        this.remainingCaptures--;
+                    }
                     this.values[capture] = value;
                 }
 
@@ -215,7 +249,7 @@ class TreeBasedCapturer {
                     if (parentBuilder.isArray()) {
                         parentBuilder.add(value);
                     } else {  // Object
-                        final ParsingContext context = this.parsingStack.peekFirst();
+                        final ParsingContext context = this.parsingDepth > 0 ? this.parsingContexts[this.parsingDepth - 1] : null;
                         // If context == null, it's the end of JSON to be parsed while a JSON Pointer "/" is specified.
                         if (context != null) {
                             if (!context.isObject()) {
@@ -230,79 +264,97 @@ class TreeBasedCapturer {
         }
 
         if (token.isScalarValue() || token.isStructEnd()) {  // A scalar value, END_ARRAY, or END_OBJECT
-            if (this.pointerStack.isEmpty()) {
+            if (this.stateDepth == 0) {
                 throw new JsonParseException("Too many structure ends.");
             }
 
-            if (this.parsingStack.isEmpty()) {  // When the parsing stack is empty, it should be on the top-level.
-                assert this.pointerStack.size() == 1;
+            if (this.parsingDepth == 0) {  // When the parsing stack is empty, it should be on the top-level.
+                assert this.stateDepth == 1;
             } else {
-                this.pointerStack.pop();
+                this.stateDepth--;
             }
         }
 
-        if (this.parsingStack.isEmpty()) {
+        if (this.parsingDepth == 0) {
+            this.hasFinished = true;
+        } else if (this.terminatesEarly && this.remainingCaptures == 0 && this.builderStack.isEmpty()) {
+            // Nothing more is captured in the rest of the JSON value. It is skipped to the end of the JSON value.
+            this.skipRest();
             this.hasFinished = true;
         }
 
         return true;
     }
 
-    JsonValue[] peekValues() {
-        return this.values;
+    /**
+     * Skips the rest of the JSON value being captured, to the end of the JSON array or object at the bottom.
+     */
+    private void skipRest() throws IOException {
+        int depth = this.parsingDepth;
+        while (depth > 0) {
+            final JsonToken token = this.parser.nextToken();
+            if (token == null) {
+                throw new JsonParseException("Unexpected end of JSON at " + this.parser.getTokenLocation());
+            }
+            if (token.isStructStart()) {
+                if (this.validatesAfterTermination) {
+                    this.valueReader.skipChildren(this.parser, token, depth);
+                } else {
+                    this.parser.skipChildren();
+                }
+            } else if (token.isStructEnd()) {
+                depth--;
+            }
+        }
+        this.parsingDepth = 0;
     }
 
-    private double getDoubleValue() throws IOException {
-        try {
-            return this.parser.getDoubleValue();
-        } catch (final IOException ex) {
-            if (this.valueReader.hasFallbacksForUnparsableNumbers()) {
-                return this.valueReader.defaultDouble();
-            }
-            throw ex;
+    private void pushState(final int state) {
+        if (this.stateDepth >= this.stateStack.length) {
+            this.stateStack = Arrays.copyOf(this.stateStack, this.stateStack.length * 2);
         }
+        this.stateStack[this.stateDepth++] = state;
     }
 
-    private long getLongValue() throws IOException {
-        try {
-            return this.parser.getLongValue();
-        } catch (final IOException ex) {
-            if (this.valueReader.hasFallbacksForUnparsableNumbers()) {
-                return this.valueReader.defaultLong();
-            }
-            throw ex;
+    private void pushParsingContext(final boolean isObject) {
+        if (this.parsingDepth >= this.parsingContexts.length) {
+            this.parsingContexts = Arrays.copyOf(this.parsingContexts, this.parsingContexts.length * 2);
+        }
+        ParsingContext context = this.parsingContexts[this.parsingDepth];
+        if (context == null) {
+            context = new ParsingContext();
+            this.parsingContexts[this.parsingDepth] = context;
         }
+        context.reset(isObject);
+        this.parsingDepth++;
+    }
+
+    private ParsingContext popParsingContext() {
+        return this.parsingContexts[--this.parsingDepth];
     }
 
     private JsonValue getScalarValue(final JsonToken token) throws IOException {
         switch (token) {
             case VALUE_NULL:
-                return JsonNull.NULL;
             case VALUE_TRUE:
-                return JsonBoolean.TRUE;
             case VALUE_FALSE:
-                return JsonBoolean.FALSE;
             case VALUE_NUMBER_FLOAT:
-                if (this.valueReader.hasLiteralsWithNumbers()) {
-                    return JsonDouble.withLiteral(this.getDoubleValue(), this.parser.getValueAsString());
-                } else {
-                    return JsonDouble.of(this.getDoubleValue());  // throws JsonParseException
-                }
             case VALUE_NUMBER_INT:
-                if (this.valueReader.hasLiteralsWithNumbers()) {
-                    return JsonLong.withLiteral(this.getLongValue(), this.parser.getValueAsString());
-                } else {
-                    return JsonLong.of(this.getLongValue());  // throws JsonParseException
-                }
             case VALUE_STRING:
-                return JsonString.of(this.parser.getText());
+                return this.valueReader.readScalarValue(this.parser, token);
             default:
                 throw new JsonParseException("Unexpected token in JSON: " + token.toString());
         }
     }
 
     private static class ParsingContext {
-        ParsingContext(final boolean isObject) {
+        ParsingContext() {
+            this.isObject = false;
+            this.propertyName = null;
+            this.index = -1;
+        }
+
+        void reset(final boolean isObject) {
             this.isObject = isObject;
             this.propertyName = null;
             this.index = -1;
@@ -320,8 +372,8 @@ class TreeBasedCapturer {
             this.index++;
         }
 
-        String getIndexInString() {
-            return Integer.toString(this.index);
+        int getIndex() {
+            return this.index;
         }
 
         void setPropertyName(final String propertyName) {
@@ -345,7 +397,7 @@ class TreeBasedCapturer {
             }
         }
 
-        private final boolean isObject;
+        private boolean isObject;
         private String propertyName;
         private int index;
     }
@@ -439,17 +491,29 @@ class TreeBasedCapturer {
         private final ArrayList<Map.Entry<String, JsonValue>> entries;
     }
 
-    private final JsonParser parser;
-    private final JsonPointerTree tree;
-    private final boolean hasRootToCapture;
+    private static final int INITIAL_STACK_CAPACITY = 16;
+
+    // The parser being read only while capturing.
+    private JsonParser parser;
+    private final CapturingJsonPointerList capturingPointers;
+    private final JsonPointerAutomaton automaton;
     private final int size;
+    private final boolean terminatesEarly;
+    private final boolean validatesAfterTermination;
     private final InternalJsonValueReader valueReader;
 
-    private final ArrayDeque<JsonPointerTree> pointerStack;
-    private final ArrayDeque<ParsingContext> parsingStack;
+    // The states of the automaton from the top-level to the JSON value being parsed.
+    private int[] stateStack;
+    private int stateDepth;
+    // The contexts are reused from the bottom to parsingDepth, as the stack is reset for each JSON value.
+    private ParsingContext[] parsingContexts;
+    private int parsingDepth;
     private final ArrayDeque<StructureBuilder> builderStack;
 
-    private final JsonValue[] values;
+    // The array of captured JSON values only while capturing.
+    private JsonValue[] values;
+    // The number of captures which have not captured any JSON value yet in the JSON value being captured.
+    private int remainingCaptures;
 
     private boolean hasFinished;
 }
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests that the hot parsing paths do not allocate more than the budgets per record.
+ *
+ * <p>The allocated bytes are measured on the current thread by {@link com.sun.management.ThreadMXBean}. The
+ * budgets below are checked in with some margin over the measured values. Update the budgets deliberately
+ * only when an increase of allocation is intended.
+ */
+public class TestAllocationBudget {
+    @Test
+    public void testReadJsonValue() throws IOException {
+        assertAllocationWithinBudget("readJsonValue", READ_JSON_VALUE_BUDGET, json -> {
+            int count = 0;
+            try (final JsonValueParser parser = JsonValueParser.builder().build(json)) {
+                while (parser.readJsonValue() != null) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void testReadJsonValueWithObjectShapeCache() throws IOException {
+        assertAllocationWithinBudget("readJsonValue with object shape cache", READ_JSON_VALUE_WITH_OBJECT_SHAPE_CACHE_BUDGET, json -> {
+            int count = 0;
+            try (final JsonValueParser parser = JsonValueParser.builder().setObjectShapeCacheSize(16).build(json)) {
+                while (parser.readJsonValue() != null) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void testReadJsonValueWithValueCaches() throws IOException {
+        assertAllocationWithinBudget("readJsonValue with value caches", READ_JSON_VALUE_WITH_VALUE_CACHES_BUDGET, json -> {
+            int count = 0;
+            try (final JsonValueParser parser = JsonValueParser.builder()
+                    .enableJsonLongCache(0L, 1023L)
+                    .enableJsonStringCache(64, 8)
+                    .build(json)) {
+                while (parser.readJsonValue() != null) {
+                    count++;
+                }
+            }
+            return count;
+        });
+    }
+
+    @Test
+    public void testCaptureDirectMemberNames() throws IOException {
+        final CapturingPointers pointers = CapturingPointers.builder()
+                .addDirectMemberName("id")
+                .addDirectMemberName("status")
+                .addDirectMemberName("tags")
+                .build();
+        assertAllocationWithinBudget("captureJsonValues with direct member names", CAPTURE_DIRECT_MEMBER_NAMES_BUDGET,
+                                     json -> captureAll(json, pointers));
+    }
+
+    @Test
+    public void testCaptureJsonPointers() throws IOException {
+        final CapturingPointers pointers = CapturingPointers.builder()
+                .addJsonPointer("/id")
+                .addJsonPointer("/status")
+                .addJsonPointer("/tags/1")
+                .addJsonPointer("/nested/x")
+                .build();
+        assertAllocationWithinBudget("captureJsonValues with JSON Pointers", CAPTURE_JSON_POINTERS_BUDGET,
+                                     json -> captureAll(json, pointers));
+    }
+
+    private interface RecordsReader {
+        int readAll(String json) throws IOException;
+    }
+
+    private static int captureAll(final String json, final CapturingPointers pointers) throws IOException {
+        int count = 0;
+        try (final JsonValueParser parser = JsonValueParser.builder().build(json)) {
+            while (parser.captureJsonValues(pointers) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertAllocationWithinBudget(
+            final String name,
+            final long budgetPerRecord,
+            final RecordsReader reader) throws IOException {
+        final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Allocation measurement is unavailable.");
+        final com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(sunBean.isThreadAllocatedMemorySupported(), "Allocation measurement is unsupported.");
+        if (!sunBean.isThreadAllocatedMemoryEnabled()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+        }
+
+        final String json = buildRecords(RECORDS);
+
+        // Warming up so that one-time allocations, such as class loading and buffer recycling, are not counted.
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            assertEquals(RECORDS, reader.readAll(json));
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        long minimum = Long.MAX_VALUE;
+        // Taking the minimum among some rounds to avoid noises, such as allocations by the JIT compiler.
+        for (int i = 0; i < MEASUREMENT_ROUNDS; i++) {
+            final long before = sunBean.getThreadAllocatedBytes(threadId);
+            reader.readAll(json);
+            final long after = sunBean.getThreadAllocatedBytes(threadId);
+            minimum = Math.min(minimum, after - before);
+        }
+
+        final long perRecord = minimum / RECORDS;
+        System.out.println(name + ": " + perRecord + " bytes per record (budget: " + budgetPerRecord + ")");
+        assertTrue(perRecord <= budgetPerRecord,
+                   name + " allocated " + perRecord + " bytes per record, over the budget " + budgetPerRecord + " bytes.");
+    }
+
+    private static String buildRecords(final int records) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < records; i++) {
+            builder.append("{\"id\":").append(i)
+                    .append(",\"name\":\"record").append(i).append('"')
+                    .append(",\"status\":").append(200 + (i % 5))
+                    .append(",\"tags\":[\"foo\",\"bar\",\"baz\"]")
+                    .append(",\"nested\":{\"x\":").append(i * 0.5).append(",\"y\":null,\"z\":true}")
+                    .append(",\"payload\":{\"a\":[1,2,3,{\"b\":\"c\"}],\"d\":\"eeeeeeeeeeeeeeeeeeee\"}")
+                    .append("}\n");
+        }
+        return builder.toString();
+    }
+
+    private static final int RECORDS = 1000;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int MEASUREMENT_ROUNDS = 5;
+
+    // The budgets in bytes per record.
+    private static final long READ_JSON_VALUE_BUDGET = 1800L;
+    private static final long READ_JSON_VALUE_WITH_OBJECT_SHAPE_CACHE_BUDGET = 1700L;
+    private static final long READ_JSON_VALUE_WITH_VALUE_CACHES_BUDGET = 1200L;
+    private static final long CAPTURE_DIRECT_MEMBER_NAMES_BUDGET = 800L;
+    private static final long CAPTURE_JSON_POINTERS_BUDGET = 1000L;
+}
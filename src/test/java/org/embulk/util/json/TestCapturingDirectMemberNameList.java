@@ -19,12 +19,14 @@ package org.embulk.util.json;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import java.util.Arrays;
 import org.embulk.spi.json.JsonArray;
 import org.embulk.spi.json.JsonBoolean;
+import org.embulk.spi.json.JsonLong;
 import org.embulk.spi.json.JsonNull;
 import org.embulk.spi.json.JsonObject;
 import org.embulk.spi.json.JsonString;
@@ -59,6 +61,30 @@ public class TestCapturingDirectMemberNameList {
         assertNull(parser.nextToken());
     }
 
+    @Test
+    public void testTerminateEarly() throws Exception {
+        final JsonFactory factory = new JsonFactory();
+        final String json = "{\"foo\":1,\"bar\":[2],\"baz\":[[[[[3]]]]],\"foo\":4} {\"bar\":5}";
+        final InternalJsonValueReader reader = new InternalJsonValueReader(false, false, 0.0, 0L, 4, null, null, null, null);
+
+        final JsonParser parser = factory.createParser(json);
+        final CapturingDirectMemberNameList lenient = CapturingDirectMemberNameList.of(Arrays.asList("foo", "bar"), true, false);
+        final JsonValue[] actual1 = lenient.captureFromParser(parser, reader);
+        assertEquals(JsonLong.of(1L), actual1[0]);
+        assertEquals(JsonArray.of(JsonLong.of(2L)), actual1[1]);
+        final JsonValue[] actual2 = lenient.captureFromParser(parser, reader);
+        assertNull(actual2[0]);
+        assertEquals(JsonLong.of(5L), actual2[1]);
+        assertNull(parser.nextToken());
+
+        // The strict mode checks the maximum depth in the rest.
+        final JsonParser strictParser = factory.createParser(json);
+        final CapturingDirectMemberNameList strict = CapturingDirectMemberNameList.of(Arrays.asList("foo", "bar"), true, true);
+        assertThrows(JsonParseException.class, () -> {
+            strict.captureFromParser(strictParser, reader);
+        });
+    }
+
     private static CapturingDirectMemberNameList capturingMembers(final String... memberNames) {
         return CapturingDirectMemberNameList.of(Arrays.asList(memberNames));
     }
@@ -16,15 +16,21 @@
 
 package org.embulk.util.json;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonPointer;
 import com.fasterxml.jackson.core.JsonToken;
 import java.util.Arrays;
+import java.util.List;
 import org.embulk.spi.json.JsonArray;
 import org.embulk.spi.json.JsonBoolean;
 import org.embulk.spi.json.JsonLong;
@@ -496,6 +502,155 @@ public class TestCapturingJsonPointerList {
         assertNull(parser.nextToken());
     }
 
+    @Test
+    public void testReadArrayIndices() throws Exception {
+        final JsonFactory factory = new JsonFactory();
+        final StringBuilder json = new StringBuilder("{\"a\":[");
+        for (int i = 0; i < 3000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"0\":").append(i).append("}");
+        }
+        json.append("],\"b\":{\"0\":\"member\",\"1\":[true]}}");
+        final JsonParser parser = factory.createParser(json.toString());
+        final InternalJsonValueReader reader = new InternalJsonValueReader(false, false, 0.0, 0L);
+
+        final CapturingJsonPointerList capturingPointers = capturingPointers(
+                JsonPointer.compile("/a/0/0"),
+                JsonPointer.compile("/a/2999/0"),
+                JsonPointer.compile("/a/01"),
+                JsonPointer.compile("/b/0"),
+                JsonPointer.compile("/b/1/0"),
+                JsonPointer.compile("/a/3000"));
+
+        final JsonValue[] actual = capturingPointers.captureFromParser(parser, reader);
+        assertArrayEquals(
+                new JsonValue[] { JsonLong.of(0L), JsonLong.of(2999L), null, JsonString.of("member"), JsonBoolean.TRUE, null },
+                actual);
+    }
+
+    @Test
+    public void testSkipUnmatched() throws Exception {
+        final JsonFactory factory = new JsonFactory();
+        final JsonParser parser = factory.createParser(
+                "{\"x\":{\"y\":[1,{\"a\":2}]},\"a\":[[3],{\"b\":4}],\"z\":[]} {\"x\":[1,}");
+        final InternalJsonValueReader reader = new InternalJsonValueReader(false, false, 0.0, 0L, 4, null, null, null, null);
+
+        final CapturingJsonPointerList capturingPointers = capturingPointers(
+                JsonPointer.compile("/a/1/b"),
+                JsonPointer.compile("/a/0"));
+
+        final JsonValue[] actual = capturingPointers.captureFromParser(parser, reader);
+        assertArrayEquals(new JsonValue[] { JsonLong.of(4L), JsonArray.of(JsonLong.of(3L)) }, actual);
+
+        // A skipped JSON value is still validated.
+        assertThrows(JsonParseException.class, () -> {
+            capturingPointers.captureFromParser(parser, reader);
+        });
+
+        // The nesting depth in a skipped JSON value is counted from the top-level.
+        final JsonParser deepParser = factory.createParser("{\"a\":[[0]],\"x\":[[[[0]]]]}");
+        final JsonParseException ex = assertThrows(JsonParseException.class, () -> {
+            capturingPointers.captureFromParser(deepParser, reader);
+        });
+        assertTrue(ex.getMessage().startsWith("JSON is nested deeper than the maximum depth 4"));
+    }
+
+    @Test
+    public void testReuseCapturer() throws Exception {
+        final JsonFactory factory = new JsonFactory();
+        final JsonParser parser = factory.createParser(
+                "{\"a\":[1,{\"b\":2}]} {\"a\":[3]} {\"a\":[4,{\"b\":[[5]]\"broken\"}]}");
+        final InternalJsonValueReader reader = new InternalJsonValueReader(false, false, 0.0, 0L);
+
+        final CapturingJsonPointerList capturingPointers1 = capturingPointers(
+                JsonPointer.compile("/a/0"),
+                JsonPointer.compile("/a/1/b"));
+        final CapturingJsonPointerList capturingPointers2 = capturingPointers(JsonPointer.compile("/b"));
+
+        final JsonValue[] destination = new JsonValue[2];
+        assertSame(destination, capturingPointers1.captureFromParserInto(parser, reader, destination));
+        assertArrayEquals(new JsonValue[] { JsonLong.of(1L), JsonLong.of(2L) }, destination);
+        final TreeBasedCapturer capturer = reader.treeBasedCapturer(capturingPointers1);
+
+        // The captured values are cleared for the next JSON value.
+        assertSame(destination, capturingPointers1.captureFromParserInto(parser, reader, destination));
+        assertArrayEquals(new JsonValue[] { JsonLong.of(3L), null }, destination);
+
+        assertThrows(JsonParseException.class, () -> {
+            capturingPointers1.captureFromParser(parser, reader);
+        });
+
+        // The capturer is reused after a failure in the middle, even for another parser.
+        final JsonParser nextParser = factory.createParser("{\"a\":6} {\"b\":7}");
+        assertArrayEquals(new JsonValue[] { null, null }, capturingPointers1.captureFromParser(nextParser, reader));
+        assertSame(capturer, reader.treeBasedCapturer(capturingPointers1));
+
+        // Another list of capturing pointers replaces the capturer.
+        assertArrayEquals(new JsonValue[] { JsonLong.of(7L) }, capturingPointers2.captureFromParser(nextParser, reader));
+        assertNotSame(capturer, reader.treeBasedCapturer(capturingPointers1));
+        assertNull(capturingPointers1.captureFromParserInto(nextParser, reader, destination));
+    }
+
+    @Test
+    public void testTerminateEarly() throws Exception {
+        final JsonFactory factory = new JsonFactory();
+        final String json = "{\"a\":1,\"b\":{\"c\":2},\"x\":[[[[0]]]],\"a\":9} {\"b\":{\"c\":4,\"d\":5},\"a\":3} {\"a\":6}";
+        final InternalJsonValueReader reader = new InternalJsonValueReader(false, false, 0.0, 0L, 4, null, null, null, null);
+        final List<JsonPointer> pointers = Arrays.asList(JsonPointer.compile("/a"), JsonPointer.compile("/b/c"));
+
+        // The rest of a JSON value is skipped once all captured, even deeper than the maximum depth.
+        final JsonParser parser = factory.createParser(json);
+        final CapturingJsonPointerList lenient = CapturingJsonPointerList.of(pointers, true, false);
+        assertArrayEquals(new JsonValue[] { JsonLong.of(1L), JsonLong.of(2L) }, lenient.captureFromParser(parser, reader));
+        assertEquals(JsonToken.END_OBJECT, parser.currentToken());
+        assertArrayEquals(new JsonValue[] { JsonLong.of(3L), JsonLong.of(4L) }, lenient.captureFromParser(parser, reader));
+        assertArrayEquals(new JsonValue[] { JsonLong.of(6L), null }, lenient.captureFromParser(parser, reader));
+        assertNull(lenient.captureFromParser(parser, reader));
+
+        // Without terminating early, the last duplicated member is captured, and the maximum depth is checked.
+        final JsonParser fullParser = factory.createParser(json);
+        final CapturingJsonPointerList full = CapturingJsonPointerList.of(pointers, false, false);
+        assertThrows(JsonParseException.class, () -> {
+            full.captureFromParser(fullParser, reader);
+        });
+
+        // The strict mode checks the maximum depth in the rest, too.
+        final JsonParser strictParser = factory.createParser(json);
+        final CapturingJsonPointerList strict = CapturingJsonPointerList.of(pointers, true, true);
+        final JsonParseException ex = assertThrows(JsonParseException.class, () -> {
+            strict.captureFromParser(strictParser, reader);
+        });
+        assertTrue(ex.getMessage().startsWith("JSON is nested deeper than the maximum depth 4"));
+
+        // A broken JSON is still detected in the rest skipped.
+        final JsonParser brokenParser = factory.createParser("{\"a\":1,\"b\":{\"c\":2},\"x\":[1 2]}");
+        assertThrows(JsonParseException.class, () -> {
+            lenient.captureFromParser(brokenParser, reader);
+        });
+    }
+
+    @Test
+    public void testCaptureBatchTranslatesExceptions() throws Exception {
+        final JsonFactory factory = new JsonFactory();
+        final InternalJsonValueReader reader = new InternalJsonValueReader(false, false, 0.0, 0L, 1000, null, null, null, null);
+        final CapturingPointers[] capturingPointersList = {
+            CapturingJsonPointerList.of(Arrays.asList(JsonPointer.compile("/a"))),
+            CapturingDirectMemberNameList.of(Arrays.asList("a")),
+            CapturingPointerToRoot.INSTANCE,
+        };
+        for (final CapturingPointers capturingPointers : capturingPointersList) {
+            final boolean isRoot = capturingPointers == CapturingPointerToRoot.INSTANCE;
+            // Exceptions from Jackson are translated once out of the loop, after the JSON values captured before.
+            final JsonValue[][] destination = new JsonValue[3][];
+            final JsonParser parser = factory.createParser("{\"a\":1} {\"a\":2} {\"a\": ]");
+            final JsonParseException ex = assertThrows(JsonParseException.class, () -> {
+                capturingPointers.captureFromParser(parser, reader, destination);
+            });
+            assertTrue(ex.getCause() instanceof com.fasterxml.jackson.core.JsonParseException);
+            assertArrayEquals(new JsonValue[] { isRoot ? JsonObject.of("a", JsonLong.of(1L)) : JsonLong.of(1L) }, destination[0]);
+            assertArrayEquals(new JsonValue[] { isRoot ? JsonObject.of("a", JsonLong.of(2L)) : JsonLong.of(2L) }, destination[1]);
+        }
+    }
+
     private static CapturingJsonPointerList capturingPointers(final JsonPointer... pointers) {
         return CapturingJsonPointerList.of(Arrays.asList(pointers));
     }
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonElementSplitter {
+    @Test
+    public void testArray() throws Exception {
+        assertEquals(list("1\n", "\"a\"\n", "{\"b\":[2,3]}\n", "[]\n"), split("[1,\"a\", {\"b\":[2,3]},[]]", 1));
+        assertEquals(list("1\n\"a\"\n{\"b\":[2,3]}\n[]\n"), split("[1,\"a\", {\"b\":[2,3]},[]]", 1000));
+        assertEquals(list(), split(" [ ] ", 1));
+    }
+
+    @Test
+    public void testObject() throws Exception {
+        assertEquals(list("{\"a\":1}\n", "{\"b\" : {\"c\":[{}]}}\n"), split("{\"a\":1, \"b\" : {\"c\":[{}]}}", 1));
+        assertEquals(list(), split("{}", 1));
+    }
+
+    @Test
+    public void testStrings() throws Exception {
+        // Brackets, commas, and escaped quotes in strings are not structural.
+        assertEquals(
+                list("\"],\\\"[{\"\n", "\"\\\\\"\n", "{\"k,}\":\"\n\"}\n"),
+                split("[\"],\\\"[{\",\"\\\\\",{\"k,}\":\"\n\"}]", 1));
+        assertEquals(list("{\"\\\"}\":\",\"}\n"), split("{\"\\\"}\":\",\"}", 1));
+    }
+
+    @Test
+    public void testMultipleTopLevelAndByteOrderMark() throws Exception {
+        final byte[] bytes = "\ufeff[1,2] {\"a\":3}\n[4]".getBytes(StandardCharsets.UTF_8);
+        assertEquals(list("1\n", "2\n", "{\"a\":3}\n", "4\n"), split(new ByteArrayInputStream(bytes), 1));
+    }
+
+    @Test
+    public void testAcrossBlocks() throws Exception {
+        final StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            builder.append(i == 0 ? "" : ",").append("{\"s\":\"\\\"x,]\",\"i\":").append(i).append("}");
+        }
+        builder.append("]");
+        final List<String> chunks = split(builder.toString(), 100000);
+        final StringBuilder joined = new StringBuilder();
+        for (final String chunk : chunks) {
+            assertTrue(chunk.endsWith("}\n"));
+            joined.append(chunk);
+        }
+        assertEquals(builder.substring(1, builder.length() - 1).replace("},{", "}\n{") + "\n", joined.toString());
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+        // Empty elements are kept as commas to fail in parsing.
+        assertEquals(list("1\n", ",", "2\n", ","), split("[1,,2,]", 1));
+        // An incomplete element is kept to fail in parsing.
+        assertEquals(list("1\n", "{\"a\":[2"), split("[1,{\"a\":[2", 1));
+
+        assertThrows(JsonParseException.class, () -> {
+            split("123", 1);
+        });
+
+        final JsonElementSplitter mismatched = new JsonElementSplitter(utf8("[1,2} [3]"), 1000, Integer.MAX_VALUE);
+        assertTrue(mismatched.readChunk());
+        assertEquals("1\n2", new String(mismatched.chunk(), 0, mismatched.chunkLength(), StandardCharsets.UTF_8));
+        assertThrows(JsonParseException.class, () -> {
+            mismatched.readChunk();
+        });
+        assertFalse(mismatched.readChunk());
+    }
+
+    private static List<String> split(final String json, final int chunkSize) throws Exception {
+        return split(utf8(json), chunkSize);
+    }
+
+    private static List<String> split(final InputStream input, final int chunkSize) throws Exception {
+        final JsonElementSplitter splitter = new JsonElementSplitter(input, chunkSize, Integer.MAX_VALUE);
+        final List<String> chunks = new ArrayList<>();
+        while (splitter.readChunk()) {
+            chunks.add(new String(splitter.chunk(), 0, splitter.chunkLength(), StandardCharsets.UTF_8));
+        }
+        return chunks;
+    }
+
+    private static List<String> list(final String... strings) {
+        final List<String> list = new ArrayList<>();
+        for (final String string : strings) {
+            list.add(string);
+        }
+        return list;
+    }
+
+    private static InputStream utf8(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.embulk.spi.json.JsonLong;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonLongCache {
+    @Test
+    public void testInRange() {
+        final JsonLongCache cache = JsonLongCache.ofRange(-1L, 1000L);
+        final JsonLong first = cache.get(200L);
+        assertEquals(JsonLong.of(200L), first);
+        assertSame(first, cache.get(200L));
+        assertEquals(JsonLong.of(-1L), cache.get(-1L));
+        assertEquals(JsonLong.of(1000L), cache.get(1000L));
+        assertEquals(1L, cache.hits());
+        assertEquals(3L, cache.misses());
+    }
+
+    @Test
+    public void testOutOfRange() {
+        final JsonLongCache cache = JsonLongCache.ofRange(0L, 10L);
+        assertEquals(JsonLong.of(11L), cache.get(11L));
+        assertNotSame(cache.get(-1L), cache.get(-1L));
+        assertEquals(JsonLong.of(Long.MIN_VALUE), cache.get(Long.MIN_VALUE));
+        assertEquals(JsonLong.of(Long.MAX_VALUE), cache.get(Long.MAX_VALUE));
+        assertEquals(0L, cache.hits());
+        assertEquals(5L, cache.misses());
+    }
+
+    @Test
+    public void testInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonLongCache.ofRange(1L, 0L);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonLongCache.ofRange(0L, JsonLongCache.MAX_SIZE);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonLongCache.ofRange(Long.MIN_VALUE, Long.MAX_VALUE);
+        });
+        JsonLongCache.ofRange(Long.MAX_VALUE - JsonLongCache.MAX_SIZE + 1, Long.MAX_VALUE);
+    }
+}
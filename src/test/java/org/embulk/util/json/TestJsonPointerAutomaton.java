@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonPointerAutomaton {
+    @Test
+    public void testNames() throws Exception {
+        final JsonPointerAutomaton automaton = JsonPointerAutomaton.compile(JsonPointerTree.of(
+                JsonPointer.compile("/foo/bar"),
+                JsonPointer.compile("/foo/baz"),
+                JsonPointer.compile("/foo/baz/qux"),
+                JsonPointer.compile("/foo/bar")));
+        assertEquals(5, automaton.numberOfStates());
+
+        final int foo = automaton.nextByName(JsonPointerAutomaton.ROOT, "foo");
+        assertNotEquals(JsonPointerAutomaton.INVALID, foo);
+        assertArrayEquals(new int[0], automaton.captures(foo));
+        // Compared by equals, not only by identity.
+        final int bar = automaton.nextByName(foo, new String(new char[] { 'b', 'a', 'r' }));
+        assertArrayEquals(new int[] { 0, 3 }, automaton.captures(bar));
+        final int baz = automaton.nextByName(foo, "baz");
+        assertArrayEquals(new int[] { 1 }, automaton.captures(baz));
+        assertArrayEquals(new int[] { 2 }, automaton.captures(automaton.nextByName(baz, "qux")));
+
+        assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByName(JsonPointerAutomaton.ROOT, "bar"));
+        assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByName(bar, "qux"));
+        assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByName(JsonPointerAutomaton.INVALID, "foo"));
+        assertArrayEquals(new int[0], automaton.captures(JsonPointerAutomaton.INVALID));
+    }
+
+    @Test
+    public void testIndices() throws Exception {
+        final JsonPointerAutomaton automaton = JsonPointerAutomaton.compile(JsonPointerTree.of(
+                JsonPointer.compile("/foo/0"),
+                JsonPointer.compile("/foo/12/bar"),
+                JsonPointer.compile("/foo/01"),
+                JsonPointer.compile("/foo/-"),
+                JsonPointer.compile("/qux/2147483647")));
+
+        final int foo = automaton.nextByName(JsonPointerAutomaton.ROOT, "foo");
+        assertEquals(automaton.nextByName(foo, "0"), automaton.nextByIndex(foo, 0));
+        assertArrayEquals(new int[] { 0 }, automaton.captures(automaton.nextByIndex(foo, 0)));
+        assertArrayEquals(new int[] { 1 }, automaton.captures(automaton.nextByName(automaton.nextByIndex(foo, 12), "bar")));
+        // "01" and "-" are member names, but not array indices.
+        assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByIndex(foo, 1));
+        assertArrayEquals(new int[] { 2 }, automaton.captures(automaton.nextByName(foo, "01")));
+        assertArrayEquals(new int[] { 3 }, automaton.captures(automaton.nextByName(foo, "-")));
+
+        final int qux = automaton.nextByName(JsonPointerAutomaton.ROOT, "qux");
+        assertArrayEquals(new int[] { 4 }, automaton.captures(automaton.nextByIndex(qux, Integer.MAX_VALUE)));
+        assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByIndex(JsonPointerAutomaton.ROOT, 0));
+        assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByIndex(JsonPointerAutomaton.INVALID, 0));
+    }
+
+    @Test
+    public void testManyPointers() throws Exception {
+        final List<JsonPointer> pointers = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            pointers.add(JsonPointer.compile("/m" + (i % 200) + "/" + (i / 200) + "/v" + i));
+        }
+        final JsonPointerAutomaton automaton = JsonPointerAutomaton.compile(JsonPointerTree.of(pointers));
+        assertEquals(1 + 200 + 600 + 600, automaton.numberOfStates());
+
+        for (int i = 0; i < 600; i++) {
+            final int member = automaton.nextByName(JsonPointerAutomaton.ROOT, "m" + (i % 200));
+            final int element = automaton.nextByIndex(member, i / 200);
+            assertArrayEquals(new int[] { i }, automaton.captures(automaton.nextByName(element, "v" + i)));
+            assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByName(element, "v" + (i + 1)));
+            assertEquals(JsonPointerAutomaton.INVALID, automaton.nextByIndex(member, 3));
+        }
+    }
+}
@@ -18,6 +18,8 @@ package org.embulk.util.json;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fasterxml.jackson.core.JsonPointer;
@@ -87,6 +89,39 @@ public class TestJsonPointerTree {
                 JsonPointerTree.Builder.split(JsonPointer.compile("/a~0b/~01/~1")));
     }
 
+    @Test
+    public void testIndices() throws Exception {
+        final JsonPointerTree root = JsonPointerTree.of(
+                JsonPointer.compile("/foo/0"),
+                JsonPointer.compile("/foo/12/bar"),
+                JsonPointer.compile("/foo/01"),
+                JsonPointer.compile("/foo/-"),
+                JsonPointer.compile("/foo/bar"),
+                JsonPointer.compile("/qux/5000"),
+                JsonPointer.compile("/qux/2147483647"),
+                JsonPointer.compile("/qux/2147483648"));
+
+        assertTrue(root.indexedSegments().isEmpty());
+        final JsonPointerTree foo = root.get("foo");
+        assertEquals(2, foo.indexedSegments().size());
+        assertSame(foo.get("0"), foo.indexedSegments().get(0));
+        assertSame(foo.get("12"), foo.indexedSegments().get(12));
+        assertEquals(Arrays.asList(1), foo.indexedSegments().get(12).get("bar").captures());
+        // "01" and "-" are member names, but not array indices.
+        assertNull(foo.indexedSegments().get(1));
+        assertNotNull(foo.get("01"));
+        assertNotNull(foo.get("-"));
+
+        final JsonPointerTree qux = root.get("qux");
+        assertEquals(2, qux.indexedSegments().size());
+        assertSame(qux.get("5000"), qux.indexedSegments().get(5000));
+        assertSame(qux.get("2147483647"), qux.indexedSegments().get(Integer.MAX_VALUE));
+        assertNotNull(qux.get("2147483648"));
+
+        assertTrue(JsonPointerTree.INVALID.indexedSegments().isEmpty());
+        assertNull(JsonPointerTree.INVALID.get("foo"));
+    }
+
     @ParameterizedTest
     @CsvSource({
             ",true",
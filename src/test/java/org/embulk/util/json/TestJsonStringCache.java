@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.util.ArrayList;
+import org.embulk.spi.json.JsonString;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonStringCache {
+    @Test
+    public void testHits() throws Exception {
+        final ArrayList<JsonString> strings = readAll(JsonStringCache.of(16, 8), "[\"JP\",\"US\",\"JP\",\"\",\"\",\"US\"]");
+        assertEquals(JsonString.of("JP"), strings.get(0));
+        assertEquals(JsonString.of("US"), strings.get(1));
+        assertSame(strings.get(0), strings.get(2));
+        assertEquals(JsonString.of(""), strings.get(3));
+        assertSame(strings.get(3), strings.get(4));
+        assertSame(strings.get(1), strings.get(5));
+    }
+
+    @Test
+    public void testTooLong() throws Exception {
+        final JsonStringCache cache = JsonStringCache.of(16, 3);
+        final ArrayList<JsonString> strings = readAll(cache, "[\"abcd\",\"abcd\",\"abc\",\"abc\"]");
+        assertEquals(JsonString.of("abcd"), strings.get(0));
+        assertEquals(JsonString.of("abcd"), strings.get(1));
+        assertNotSame(strings.get(0), strings.get(1));
+        assertSame(strings.get(2), strings.get(3));
+        assertEquals(1L, cache.hits());
+        assertEquals(3L, cache.misses());
+    }
+
+    @Test
+    public void testReplaced() throws Exception {
+        // All strings share the only entry with the capacity 1.
+        final JsonStringCache cache = JsonStringCache.of(1, 8);
+        final ArrayList<JsonString> strings = readAll(cache, "[\"foo\",\"bar\",\"bar\",\"foo\",\"f\\u006fo\"]");
+        assertEquals(JsonString.of("foo"), strings.get(0));
+        assertEquals(JsonString.of("bar"), strings.get(1));
+        assertSame(strings.get(1), strings.get(2));
+        assertEquals(JsonString.of("foo"), strings.get(3));
+        assertNotSame(strings.get(0), strings.get(3));
+        assertSame(strings.get(3), strings.get(4));
+        assertEquals(2L, cache.hits());
+        assertEquals(3L, cache.misses());
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonStringCache.of(0, 8);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonStringCache.of(JsonStringCache.MAX_CAPACITY + 1, 8);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonStringCache.of(16, -1);
+        });
+    }
+
+    private static ArrayList<JsonString> readAll(final JsonStringCache cache, final String json) throws Exception {
+        final ArrayList<JsonString> strings = new ArrayList<>();
+        try (final JsonParser parser = new JsonFactory().createParser(json)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.VALUE_STRING) {
+                    strings.add(cache.get(parser));
+                }
+            }
+        }
+        return strings;
+    }
+}
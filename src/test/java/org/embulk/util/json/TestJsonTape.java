@@ -0,0 +1,207 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import org.embulk.spi.json.JsonDouble;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonString;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonTape {
+    @Test
+    public void testSameAsJsonValues() throws Exception {
+        final JsonValueParser eager = JsonValueParser.builder().build(JSON);
+        final JsonTape tape = JsonValueParser.builder().build(JSON).readJsonTape(100);
+        assertEquals(7, tape.size());
+        for (int i = 0; i < tape.size(); i++) {
+            final JsonValue expected = eager.readJsonValue();
+            final JsonValue actual = tape.get(i);
+            assertEquals(expected.getEntityType(), actual.getEntityType());
+            assertEquals(expected.toJson(), actual.toJson());
+            assertTrue(actual.equals(expected));
+        }
+        assertNull(eager.readJsonValue());
+    }
+
+    @Test
+    public void testBatches() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().build(JSON);
+        final JsonTape first = parser.readJsonTape(3);
+        final JsonTape second = parser.readJsonTape(3);
+        final JsonTape third = parser.readJsonTape(3);
+        assertEquals(3, first.size());
+        assertEquals(3, second.size());
+        assertEquals(1, third.size());
+        assertNull(parser.readJsonTape(3));
+
+        // The scratch arrays are reused, but the tapes do not share them.
+        assertEquals("{}", third.get(0).toJson());
+        assertEquals(JsonString.of("\u3042\ud83c\udf63\ud800"), second.get(1).asJsonObject().get("s"));
+        assertEquals(JsonLong.of(42), first.get(1));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            third.get(1);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            parser.readJsonTape(0);
+        });
+    }
+
+    @Test
+    public void testStrings() throws Exception {
+        final JsonTape tape = JsonValueParser.builder()
+                .build("[\"\", \"abc\", \"caf\u00e9\", \"\u3042\", \"\ud83c\udf63\", \"\\udc00x\", \"a\\u0000b\"]")
+                .readJsonTape(1);
+        final JsonValue array = tape.get(0);
+        assertEquals(JsonString.of(""), array.asJsonArray().get(0));
+        assertEquals(JsonString.of("abc"), array.asJsonArray().get(1));
+        assertEquals(JsonString.of("caf\u00e9"), array.asJsonArray().get(2));
+        assertEquals(JsonString.of("\u3042"), array.asJsonArray().get(3));
+        assertEquals(JsonString.of("\ud83c\udf63"), array.asJsonArray().get(4));
+        assertEquals(JsonString.of("\udc00x"), array.asJsonArray().get(5));
+        assertEquals(JsonString.of("a\u0000b"), array.asJsonArray().get(6));
+    }
+
+    @Test
+    public void testNumbers() throws Exception {
+        final JsonTape literals = JsonValueParser.builder()
+                .enableSupplementalLiteralsWithNumbers()
+                .build("[1.50, 100, -0.0, 9223372036854775807]")
+                .readJsonTape(1);
+        assertEquals("1.50", literals.get(0).asJsonArray().get(0).toJson());
+        assertEquals("100", literals.get(0).asJsonArray().get(1).toJson());
+        assertEquals(JsonDouble.of(-0.0), literals.get(0).asJsonArray().get(2));
+        assertEquals(JsonLong.of(Long.MAX_VALUE), literals.get(0).asJsonArray().get(3));
+
+        final JsonTape fallbacks = JsonValueParser.builder()
+                .fallbackForUnparsableNumbers(1.5, 7L)
+                .build("[123456789012345678901234567890, NaN]")
+                .readJsonTape(1);
+        assertEquals(JsonLong.of(7L), fallbacks.get(0).asJsonArray().get(0));
+        assertTrue(Double.isNaN(fallbacks.get(0).asJsonArray().get(1).asJsonDouble().doubleValue()));
+
+        // It fails in the same way with readJsonValue().
+        final JsonValueParser unparsable = JsonValueParser.builder().build("[123456789012345678901234567890]");
+        assertThrows(IOException.class, () -> {
+            unparsable.readJsonTape(1);
+        });
+    }
+
+    @Test
+    public void testCaptureJsonValues() throws Exception {
+        final String json = "{\"a\":[1,2.5,\"x\",true,false,null,{\"b\":[[],{}]}],\"s\":\"t\"}"
+                + " {\"s\":{\"a\":[]},\"0\":{\"e\":-12}} {\"0\":[{\"e\":true}],\"a\":null} {}";
+        final JsonTape tape = JsonValueParser.builder().build(json).readJsonTape(100);
+        final CapturingPointers[] pointersList = {
+            CapturingPointers.builder().build(),
+            CapturingPointers.builder().addDirectMemberName("a").addDirectMemberName("s").build(),
+            CapturingPointers.builder().addJsonPointer("/a/6/b").addJsonPointer("/s").addJsonPointer("/0/e").build(),
+        };
+        final JsonTape.Capturer capturer = tape.capturer();
+        for (final CapturingPointers pointers : pointersList) {
+            final JsonValueParser parser = JsonValueParser.builder().build(json);
+            final JsonValue[] destination = new JsonValue[pointers.size()];
+            for (int i = 0; i < tape.size(); i++) {
+                final JsonValue[] expected = parser.captureJsonValues(pointers);
+                // The same JSON value in the tape can be scanned repeatedly.
+                assertArrayEquals(expected, tape.captureJsonValues(i, pointers));
+                assertArrayEquals(expected, tape.captureJsonValues(i, pointers));
+                // The capturer reuses its context over the JSON values, and the capturing pointers.
+                assertArrayEquals(expected, capturer.captureJsonValues(i, pointers));
+                capturer.captureJsonValuesInto(i, pointers, destination);
+                assertArrayEquals(expected, destination);
+            }
+            assertNull(parser.captureJsonValues(pointers));
+        }
+        assertThrows(IllegalArgumentException.class, () -> {
+            capturer.captureJsonValuesInto(0, pointersList[1], new JsonValue[1]);
+        });
+    }
+
+    @Test
+    public void testTapeParserTextCharacters() throws Exception {
+        final JsonTape tape = JsonValueParser.builder()
+                .enableSupplementalLiteralsWithNumbers()
+                .build("{\"a\":[1.50,\"\",\"caf\u00e9\",\"\u3042\ud83c\udf63\",-12,true,null]} [\"" + repeat('x', 100) + "\", {}]")
+                .readJsonTape(2);
+        final JsonTapeParser parser = new JsonTapeParser(tape, 0, tape.entryCount());
+        int strings = 0;
+        while (parser.nextToken() != null) {
+            final char[] chars = parser.getTextCharacters();
+            assertEquals(parser.getText(), new String(chars, parser.getTextOffset(), parser.getTextLength()));
+            // The text is decoded only once for a token.
+            assertSame(chars, parser.getTextCharacters());
+            if (parser.hasTextCharacters()) {
+                strings++;
+            }
+        }
+        assertEquals(4, strings);
+        assertNull(parser.getTextCharacters());
+        assertEquals(0, parser.getTextLength());
+    }
+
+    @Test
+    public void testWithRootAndFlatten() throws Exception {
+        final JsonTape tape = JsonValueParser.builder()
+                .root("/x")
+                .setDepthToFlattenJsonArrays(1)
+                .build("{\"x\":[{\"a\":1},[2,3]]} {\"x\":[\"y\"]}")
+                .readJsonTape(10);
+        assertEquals(3, tape.size());
+        assertEquals("{\"a\":1}", tape.get(0).toJson());
+        assertEquals("[2,3]", tape.get(1).toJson());
+        assertEquals(JsonString.of("y"), tape.get(2));
+    }
+
+    @Test
+    public void testMaxNestingDepth() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().setMaxNestingDepth(2).build("[[1]] [[[1]]]");
+        assertEquals(1, parser.readJsonTape(1).size());
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonTape(1);
+        });
+    }
+
+    @Test
+    public void testInvalidJson() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().build("{\"a\":[1,2}");
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonTape(1);
+        });
+    }
+
+    private static String repeat(final char c, final int count) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static final String JSON =
+            "{\"a\":[1,2.5,\"x\",true,false,null,{\"b\":[[],{}]}],\"c\":\"\\u3042\\n\",\"d\":{}}"
+            + " 42 [ {\"e\" : -12} , [ 3 ] ] \"s\" {\"s\":\"\u3042\ud83c\udf63\\ud800\",\"a\":{\"b\":{}}} [] {}";
+}
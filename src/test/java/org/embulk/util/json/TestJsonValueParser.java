@@ -16,10 +16,19 @@
 
 package org.embulk.util.json;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import org.embulk.spi.json.JsonArray;
 import org.embulk.spi.json.JsonBoolean;
 import org.embulk.spi.json.JsonDouble;
@@ -292,4 +301,401 @@ public class TestJsonValueParser {
 
         assertNull(parser.captureJsonValues(pointers));
     }
+
+    @Test
+    public void testDeeplyNestedArrays() throws Exception {
+        final int depth = 100000;
+        final JsonValueParser parser = JsonValueParser.builder(unlimitedNestingFactory()).setMaxNestingDepth(depth).build(nest("[", "1", "]", depth));
+
+        JsonValue value = parser.readJsonValue();
+        for (int i = 0; i < depth; i++) {
+            assertTrue(value.isJsonArray());
+            assertEquals(1, value.asJsonArray().size());
+            value = value.asJsonArray().get(0);
+        }
+        assertEquals(JsonLong.of(1L), value);
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testDeeplyNestedObjects() throws Exception {
+        final int depth = 100000;
+        final JsonValueParser parser = JsonValueParser.builder(unlimitedNestingFactory()).setMaxNestingDepth(depth).build(nest("{\"a\":", "true", "}", depth));
+
+        JsonValue value = parser.readJsonValue();
+        for (int i = 0; i < depth; i++) {
+            assertTrue(value.isJsonObject());
+            assertEquals(1, value.asJsonObject().size());
+            value = value.asJsonObject().get("a");
+        }
+        assertEquals(JsonBoolean.TRUE, value);
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testSkipDeeplyNested() throws Exception {
+        final int depth = 100000;
+        final JsonValueParser parser = JsonValueParser.builder(unlimitedNestingFactory()).setMaxNestingDepth(depth * 2 + 1).build(
+                "{\"a\":" + nest("[{\"b\":", "null", "}]", depth) + ",\"c\":12}");
+        final CapturingPointers pointers = CapturingPointers.builder().addDirectMemberName("c").build();
+
+        final JsonValue[] values = parser.captureJsonValues(pointers);
+        assertEquals(1, values.length);
+        assertEquals(JsonLong.of(12L), values[0]);
+        assertNull(parser.captureJsonValues(pointers));
+    }
+
+    @Test
+    public void testDeeplyNestedWithDefaultBuilder() throws Exception {
+        final String json = nest("[", "1", "]", 5000) + " " + nest("{\"a\":", "2", "}", 5000);
+
+        // The default builder is limited to 1000 levels by default.
+        final JsonValueParser parser0 = JsonValueParser.builder().build(nest("[", "1", "]", 1000) + " " + nest("[", "1", "]", 1001));
+        assertTrue(parser0.readJsonValue().isJsonArray());
+        final JsonParseException ex0 = assertThrows(JsonParseException.class, () -> {
+            parser0.readJsonValue();
+        });
+        assertTrue(ex0.getMessage().startsWith("JSON is nested deeper than the maximum depth 1000"));
+
+        // It is limited only by setMaxNestingDepth, not by StreamReadConstraints of Jackson.
+        final JsonValueParser parser1 = JsonValueParser.builder().setMaxNestingDepth(5000).build(json);
+        assertTrue(parser1.readJsonValue().isJsonArray());
+        assertTrue(parser1.readJsonValue().isJsonObject());
+        assertNull(parser1.readJsonValue());
+
+        final JsonValueParser parser2 = JsonValueParser.builder().setMaxNestingDepth(10000).build(json);
+        assertTrue(parser2.readJsonValue().isJsonArray());
+
+        final JsonValueParser parser3 = JsonValueParser.builder().setMaxNestingDepth(3000).build(json);
+        final JsonParseException ex = assertThrows(JsonParseException.class, () -> {
+            parser3.readJsonValue();
+        });
+        assertTrue(ex.getMessage().startsWith("JSON is nested deeper than the maximum depth 3000"));
+    }
+
+    @Test
+    public void testMaxNestingDepth() throws Exception {
+        final JsonValueParser parser1 = JsonValueParser.builder().setMaxNestingDepth(3).build("[{\"a\":[1]}]");
+        assertEquals(JsonArray.of(JsonObject.of("a", JsonArray.of(JsonLong.of(1L)))), parser1.readJsonValue());
+
+        final JsonValueParser parser2 = JsonValueParser.builder().setMaxNestingDepth(3).build("[{\"a\":[[1]]}]");
+        assertThrows(JsonParseException.class, () -> {
+            parser2.readJsonValue();
+        });
+
+        final JsonValueParser parser3 = JsonValueParser.builder().setMaxNestingDepth(3).build("{\"a\":[[[[1]]]],\"b\":2}");
+        final CapturingPointers pointers3 = CapturingPointers.builder().addDirectMemberName("b").build();
+        assertThrows(JsonParseException.class, () -> {
+            parser3.captureJsonValues(pointers3);
+        });
+
+        final JsonValueParser parser4 = JsonValueParser.builder().setMaxNestingDepth(3).build("{\"a\":[[[1]]],\"b\":2}");
+        final CapturingPointers pointers4 = CapturingPointers.builder().addJsonPointer("/b").build();
+        assertThrows(JsonParseException.class, () -> {
+            parser4.captureJsonValues(pointers4);
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonValueParser.builder().setMaxNestingDepth(0);
+        });
+    }
+
+    @Test
+    public void testSiblingsAtSameDepth() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().build(
+                "[[1,2,3],[4],{\"a\":5,\"b\":6},[],{}]{\"x\":[7,8]}[{\"y\":9}]");
+        assertEquals(
+                JsonArray.of(
+                        JsonArray.of(JsonLong.of(1L), JsonLong.of(2L), JsonLong.of(3L)),
+                        JsonArray.of(JsonLong.of(4L)),
+                        JsonObject.of("a", JsonLong.of(5L), "b", JsonLong.of(6L)),
+                        JsonArray.of(),
+                        JsonObject.of()),
+                parser.readJsonValue());
+        assertEquals(JsonObject.of("x", JsonArray.of(JsonLong.of(7L), JsonLong.of(8L))), parser.readJsonValue());
+        assertEquals(JsonArray.of(JsonObject.of("y", JsonLong.of(9L))), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testLargeContainers() throws Exception {
+        final int size = 200000;
+        final StringBuilder json = new StringBuilder();
+        json.append('[');
+        for (int i = 0; i < size; i++) {
+            json.append(i == 0 ? "" : ",").append(i);
+        }
+        json.append("]{");
+        for (int i = 0; i < size; i++) {
+            json.append(i == 0 ? "" : ",").append("\"k").append(i).append("\":").append(i);
+        }
+        json.append("}[1]");
+
+        final JsonValueParser parser = JsonValueParser.builder().build(json.toString());
+        final JsonArray array = parser.readJsonValue().asJsonArray();
+        assertEquals(size, array.size());
+        assertEquals(JsonLong.of(size - 1), array.get(size - 1));
+        final JsonObject object = parser.readJsonValue().asJsonObject();
+        assertEquals(size, object.size());
+        assertEquals(JsonLong.of(size - 1), object.get("k" + (size - 1)));
+        assertEquals(JsonArray.of(JsonLong.of(1L)), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testValueCaches() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder()
+                .enableJsonLongCache(0L, 999L)
+                .enableJsonStringCache(64, 8)
+                .build("{\"status\":200,\"country\":\"JP\"}{\"status\":200,\"country\":\"JP\"}{\"status\":1000,\"country\":\"Japan, Tokyo\"}");
+        final JsonObject first = parser.readJsonValue().asJsonObject();
+        final JsonObject second = parser.readJsonValue().asJsonObject();
+        final JsonObject third = parser.readJsonValue().asJsonObject();
+        assertNull(parser.readJsonValue());
+
+        assertEquals(JsonObject.of("status", JsonLong.of(200L), "country", JsonString.of("JP")), first);
+        assertEquals(JsonObject.of("status", JsonLong.of(1000L), "country", JsonString.of("Japan, Tokyo")), third);
+        assertSame(first.get("status"), second.get("status"));
+        assertSame(first.get("country"), second.get("country"));
+
+        final JsonValueParser.CacheStatistics statistics = parser.getCacheStatistics();
+        assertEquals(1L, statistics.getLongHits());
+        assertEquals(2L, statistics.getLongMisses());
+        assertEquals(1L, statistics.getStringHits());
+        assertEquals(2L, statistics.getStringMisses());
+    }
+
+    @Test
+    public void testValueCachesInCapture() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder()
+                .enableJsonLongCache(0L, 999L)
+                .enableJsonStringCache(64, 8)
+                .build("{\"a\":{\"status\":404,\"country\":\"US\"}}{\"a\":{\"status\":404,\"country\":\"US\"}}");
+        final CapturingPointers pointers = CapturingPointers.builder().addJsonPointer("/a/status").addJsonPointer("/a/country").build();
+        final JsonValue[] first = parser.captureJsonValues(pointers);
+        final JsonValue[] second = parser.captureJsonValues(pointers);
+        assertEquals(JsonLong.of(404L), first[0]);
+        assertEquals(JsonString.of("US"), first[1]);
+        assertSame(first[0], second[0]);
+        assertSame(first[1], second[1]);
+    }
+
+    @Test
+    public void testValueCachesDisabled() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().build("[1,1,\"a\",\"a\"]");
+        final JsonArray array = parser.readJsonValue().asJsonArray();
+        assertEquals(JsonArray.of(JsonLong.of(1L), JsonLong.of(1L), JsonString.of("a"), JsonString.of("a")), array);
+        final JsonValueParser.CacheStatistics statistics = parser.getCacheStatistics();
+        assertEquals(0L, statistics.getLongHits());
+        assertEquals(0L, statistics.getLongMisses());
+        assertEquals(0L, statistics.getStringHits());
+        assertEquals(0L, statistics.getStringMisses());
+    }
+
+    @Test
+    public void testBuildFromByteArrayRegion() throws Exception {
+        final byte[] bytes = "xx{\"a\":[1,\"\u3042\"]} 2xx".getBytes(StandardCharsets.UTF_8);
+        final JsonValueParser parser = JsonValueParser.builder().build(bytes, 2, bytes.length - 4);
+        assertEquals(JsonObject.of("a", JsonArray.of(JsonLong.of(1L), JsonString.of("\u3042"))), parser.readJsonValue());
+        assertEquals(JsonLong.of(2L), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+
+        final JsonValueParser utf16 = JsonValueParser.builder().build("[\"\u3042\"]".getBytes(StandardCharsets.UTF_16BE), 0, 10);
+        assertEquals(JsonArray.of(JsonString.of("\u3042")), utf16.readJsonValue());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            JsonValueParser.builder().build(bytes, 3, bytes.length - 2);
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            JsonValueParser.builder().build(bytes, -1, 1);
+        });
+    }
+
+    @Test
+    public void testBuildFromByteBuffer() throws Exception {
+        final byte[] bytes = "xx{\"a\":[1,\"\u3042\"]} 2".getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.position(2);
+        final ByteBuffer readOnly = ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+        readOnly.position(2);
+        final ByteBuffer[] buffers = {
+            ByteBuffer.wrap(bytes, 2, bytes.length - 2),
+            readOnly,
+            direct,
+        };
+        for (final ByteBuffer buffer : buffers) {
+            final JsonValueParser parser = JsonValueParser.builder().build(buffer);
+            assertEquals(JsonObject.of("a", JsonArray.of(JsonLong.of(1L), JsonString.of("\u3042"))), parser.readJsonValue());
+            assertEquals(JsonLong.of(2L), parser.readJsonValue());
+            assertNull(parser.readJsonValue());
+            assertEquals(2, buffer.position());
+        }
+    }
+
+    @Test
+    public void testBuildFromCharArrayRegion() throws Exception {
+        final char[] chars = "xx{\"a\":[1,\"\u3042\"]} 2xx".toCharArray();
+        final JsonValueParser parser = JsonValueParser.builder().root("/a/1").build(chars, 2, chars.length - 4);
+        assertEquals(JsonString.of("\u3042"), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            JsonValueParser.builder().build(chars, 0, chars.length + 1);
+        });
+    }
+
+    @Test
+    public void testReadJsonValuesInBatches() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build("[1, {\"a\":2}, \"x\"] [null, []]");
+        final JsonValue[] values = new JsonValue[2];
+        assertEquals(2, parser.readJsonValues(values));
+        assertArrayEquals(new JsonValue[] { JsonLong.of(1), JsonObject.of("a", JsonLong.of(2)) }, values);
+        assertEquals(2, parser.readJsonValues(values));
+        assertArrayEquals(new JsonValue[] { JsonString.of("x"), JsonNull.NULL }, values);
+        assertEquals(1, parser.readJsonValues(values));
+        assertEquals(JsonArray.of(), values[0]);
+        assertEquals(0, parser.readJsonValues(values));
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            parser.readJsonValues(new JsonValue[0]);
+        });
+
+        final JsonValueParser invalid = JsonValueParser.builder().build("1 2 [3");
+        assertThrows(JsonParseException.class, () -> {
+            invalid.readJsonValues(new JsonValue[10]);
+        });
+    }
+
+    @Test
+    public void testCaptureJsonValuesInBatches() throws Exception {
+        final String json = "{\"a\":1,\"b\":2} {\"b\":3} {\"a\":{\"c\":4}}";
+        for (final CapturingPointers pointers : new CapturingPointers[] {
+                    CapturingPointers.builder().addDirectMemberName("a").addDirectMemberName("b").build(),
+                    CapturingPointers.builder().addJsonPointer("/a").addJsonPointer("/b").build() }) {
+            final JsonValueParser parser = JsonValueParser.builder().build(json);
+            final JsonValue[][] values = new JsonValue[2][];
+            assertEquals(2, parser.captureJsonValues(pointers, values));
+            assertArrayEquals(new JsonValue[] { JsonLong.of(1), JsonLong.of(2) }, values[0]);
+            assertArrayEquals(new JsonValue[] { null, JsonLong.of(3) }, values[1]);
+            // The arrays are reused, or replaced, without values left from the previous call.
+            assertEquals(1, parser.captureJsonValues(pointers, values));
+            assertArrayEquals(new JsonValue[] { JsonObject.of("c", JsonLong.of(4)), null }, values[0]);
+            assertEquals(0, parser.captureJsonValues(pointers, values));
+        }
+
+        final CapturingPointers root = CapturingPointers.builder().build();
+        final JsonValueParser parser = JsonValueParser.builder().build("1 [2] 3");
+        final JsonValue[][] values = new JsonValue[][] { new JsonValue[1], new JsonValue[3] };
+        final JsonValue[] reused = values[0];
+        assertEquals(2, parser.captureJsonValues(root, values));
+        assertSame(reused, values[0]);
+        assertArrayEquals(new JsonValue[] { JsonLong.of(1) }, values[0]);
+        assertArrayEquals(new JsonValue[] { JsonArray.of(JsonLong.of(2)) }, values[1]);
+        assertEquals(1, parser.captureJsonValues(root, values));
+        assertArrayEquals(new JsonValue[] { JsonLong.of(3) }, values[0]);
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            parser.captureJsonValues(root, new JsonValue[0][]);
+        });
+    }
+
+    @Test
+    public void testCaptureJsonValuesInto() throws Exception {
+        final String json = "{\"a\":1,\"b\":2} {\"b\":3}";
+        for (final CapturingPointers pointers : new CapturingPointers[] {
+                    CapturingPointers.builder().addDirectMemberName("a").addDirectMemberName("b").build(),
+                    CapturingPointers.builder().addJsonPointer("/a").addJsonPointer("/b").build() }) {
+            final JsonValueParser parser = JsonValueParser.builder().build(json);
+            final JsonValue[] values = new JsonValue[2];
+            assertTrue(parser.captureJsonValuesInto(pointers, values));
+            assertArrayEquals(new JsonValue[] { JsonLong.of(1), JsonLong.of(2) }, values);
+            assertTrue(parser.captureJsonValuesInto(pointers, values));
+            assertArrayEquals(new JsonValue[] { null, JsonLong.of(3) }, values);
+            assertFalse(parser.captureJsonValuesInto(pointers, values));
+            assertThrows(IllegalArgumentException.class, () -> {
+                parser.captureJsonValuesInto(pointers, new JsonValue[1]);
+            });
+        }
+
+        final JsonValueParser parser = JsonValueParser.builder().build("[1]");
+        final JsonValue[] values = new JsonValue[1];
+        assertTrue(parser.captureJsonValuesInto(CapturingPointers.builder().build(), values));
+        assertArrayEquals(new JsonValue[] { JsonArray.of(JsonLong.of(1)) }, values);
+    }
+
+    @Test
+    public void testCaptureJsonValuesWithEarlyTermination() throws Exception {
+        final String json = "{\"a\":[{\"id\":1,\"body\":[[[2]]]},{\"id\":3,\"body\":{\"c\":[4]}}]}";
+        for (final CapturingPointers pointers : new CapturingPointers[] {
+                    CapturingPointers.builder().addDirectMemberName("id").enableEarlyTermination().build(),
+                    CapturingPointers.builder().addJsonPointer("/id").enableStrictEarlyTermination().build() }) {
+            final JsonValueParser parser = JsonValueParser.builder().root("/a").setDepthToFlattenJsonArrays(1).build(json);
+            assertArrayEquals(new JsonValue[] { JsonLong.of(1) }, parser.captureJsonValues(pointers));
+            assertArrayEquals(new JsonValue[] { JsonLong.of(3) }, parser.captureJsonValues(pointers));
+            assertNull(parser.captureJsonValues(pointers));
+        }
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder()
+                .setDepthToFlattenJsonArrays(1)
+                .enableJsonLongCache(0L, 999L)
+                .build("[200,{\"a\":1}]");
+        final JsonValue first = parser.readJsonValue();
+        assertEquals(JsonLong.of(200L), first);
+
+        // The rest of the previous input is discarded, and the filter and the caches are reused.
+        parser.reset("[200] [3]");
+        assertSame(first, parser.readJsonValue());
+        assertEquals(JsonLong.of(3L), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+        assertEquals(1L, parser.getCacheStatistics().getLongHits());
+
+        final boolean[] closed = { false };
+        parser.reset(new ByteArrayInputStream("[4".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        });
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonValue();
+            parser.readJsonValue();
+        });
+
+        // It is reset after a failure, and the previous input is closed.
+        parser.reset("[5]");
+        assertTrue(closed[0]);
+        assertEquals(JsonLong.of(5L), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testResetWithRootAndLazyJsonValues() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().root("/a").enableLazyJsonValues().build("{\"a\":{\"b\":1}}");
+        assertEquals(JsonObject.of("b", JsonLong.of(1L)), parser.readJsonValue());
+        parser.reset("{\"x\":0,\"a\":[2,{\"c\":3}]}");
+        assertEquals(JsonArray.of(JsonLong.of(2L), JsonObject.of("c", JsonLong.of(3L))), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+    }
+
+    private static JsonFactory unlimitedNestingFactory() {
+        final JsonFactory factory = new JsonFactory();
+        factory.setStreamReadConstraints(StreamReadConstraints.builder().maxNestingDepth(Integer.MAX_VALUE).build());
+        return factory;
+    }
+
+    private static String nest(final String start, final String inner, final String end, final int depth) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            builder.append(start);
+        }
+        builder.append(inner);
+        for (int i = 0; i < depth; i++) {
+            builder.append(end);
+        }
+        return builder.toString();
+    }
 }
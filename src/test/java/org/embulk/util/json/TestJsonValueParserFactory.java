@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.embulk.spi.json.JsonArray;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonObject;
+import org.embulk.spi.json.JsonString;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonValueParserFactory {
+    @Test
+    public void testSources() throws Exception {
+        final JsonValueParserFactory factory = JsonValueParser.builder().buildFactory();
+        final String json = "{\"a\":[1,\"x\"]} 2";
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final List<JsonValue> expected = new ArrayList<>();
+        expected.add(JsonObject.of("a", JsonArray.of(JsonLong.of(1), JsonString.of("x"))));
+        expected.add(JsonLong.of(2));
+
+        assertEquals(expected, readAll(factory.createParser(json)));
+        assertEquals(expected, readAll(factory.createParser(new ByteArrayInputStream(bytes))));
+        assertEquals(expected, readAll(factory.createParser(bytes, 0, bytes.length)));
+        assertEquals(expected, readAll(factory.createParser(ByteBuffer.wrap(bytes))));
+        assertEquals(expected, readAll(factory.createParser(json.toCharArray(), 0, json.length())));
+
+        try (final NonBlockingJsonValueParser parser = factory.createNonBlockingParser()) {
+            parser.feed(bytes, 0, bytes.length);
+            parser.endOfInput();
+            assertEquals(expected.get(0), parser.readJsonValue());
+            assertEquals(expected.get(1), parser.readJsonValue());
+            assertNull(parser.readJsonValue());
+        }
+    }
+
+    @Test
+    public void testNotAffectedByBuilder() throws Exception {
+        final JsonValueParser.Builder builder = JsonValueParser.builder().setDepthToFlattenJsonArrays(1);
+        final JsonValueParserFactory factory = builder.buildFactory();
+        builder.setDepthToFlattenJsonArrays(0).root("/a");
+
+        final List<JsonValue> expected = new ArrayList<>();
+        expected.add(JsonLong.of(1));
+        expected.add(JsonLong.of(2));
+        assertEquals(expected, readAll(factory.createParser("[1,2]")));
+    }
+
+    @Test
+    public void testCachesPerParser() throws Exception {
+        final JsonValueParserFactory factory = JsonValueParser.builder().enableJsonLongCache(0, 10).buildFactory();
+        try (final JsonValueParser first = factory.createParser("1 1");
+                final JsonValueParser second = factory.createParser("1")) {
+            final JsonValue one = first.readJsonValue();
+            assertSame(one, first.readJsonValue());
+            second.readJsonValue();
+            assertEquals(1, first.getCacheStatistics().getLongHits());
+            assertEquals(0, second.getCacheStatistics().getLongHits());
+        }
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final JsonValueParserFactory factory = JsonValueParser.builder()
+                .setObjectShapeCacheSize(16)
+                .enableJsonStringCache(64, 16)
+                .buildFactory();
+        final List<String> inputs = new ArrayList<>();
+        final List<List<JsonValue>> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            final String json = "{\"id\":" + i + ",\"name\":\"n" + (i % 5) + "\",\"member" + (i % 37) + "\":[" + i + "]}\n{\"id\":-" + i + "}";
+            inputs.add(json);
+            expected.add(readAll(JsonValueParser.builder().build(json)));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<List<JsonValue>>> futures = new ArrayList<>();
+            for (int round = 0; round < 10; round++) {
+                for (final String json : inputs) {
+                    futures.add(executor.submit(() -> readAll(factory.createParser(json))));
+                }
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(expected.get(i % inputs.size()), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private static List<JsonValue> readAll(final JsonValueParser parser) throws Exception {
+        try {
+            final List<JsonValue> values = new ArrayList<>();
+            for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                values.add(value);
+            }
+            return values;
+        } finally {
+            parser.close();
+        }
+    }
+}
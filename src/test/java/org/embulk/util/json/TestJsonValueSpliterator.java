@@ -0,0 +1,194 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestJsonValueSpliterator {
+    @Test
+    public void testSequential() throws Exception {
+        final List<JsonValue> expected = readAll(JsonValueParser.builder().build(JSON));
+        assertEquals(expected, JsonValueParser.builder().build(JSON).stream().collect(Collectors.toList()));
+        assertEquals(expected, JsonValueParser.builder().build(BYTES, 0, BYTES.length).stream().collect(Collectors.toList()));
+
+        final boolean[] closed = { false };
+        final InputStream input = new ByteArrayInputStream(BYTES) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        try (final Stream<JsonValue> stream = JsonValueParser.builder().build(input).stream()) {
+            assertEquals(expected.subList(0, 3), stream.limit(3).collect(Collectors.toList()));
+        }
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void testParallelSplitByBytes() throws Exception {
+        final List<JsonValue> expected = readAll(JsonValueParser.builder().build(JSON));
+        assertTrue(BYTES.length > JsonValueSpliterator.MIN_SPLIT_BYTES * 4);
+
+        final byte[] padded = new byte[BYTES.length + 4];
+        System.arraycopy(BYTES, 0, padded, 2, BYTES.length);
+        for (final JsonValueParser parser : new JsonValueParser[] {
+                    JsonValueParser.builder().build(BYTES, 0, BYTES.length),
+                    JsonValueParser.builder().build(padded, 2, BYTES.length),
+                    JsonValueParser.builder().build(ByteBuffer.wrap(padded, 2, BYTES.length)) }) {
+            assertEquals(expected, parser.stream().parallel().collect(Collectors.toList()));
+        }
+
+        final Spliterator<JsonValue> spliterator = JsonValueParser.builder().build(BYTES, 0, BYTES.length).stream().spliterator();
+        assertEquals(BYTES.length, spliterator.estimateSize());
+        final Spliterator<JsonValue> prefix = spliterator.trySplit();
+        assertTrue(prefix instanceof JsonValueSpliterator);
+        assertEquals(BYTES.length, prefix.estimateSize() + spliterator.estimateSize());
+        final List<JsonValue> actual = new ArrayList<>();
+        prefix.forEachRemaining(actual::add);
+        assertFalse(prefix.tryAdvance(actual::add));
+        spliterator.forEachRemaining(actual::add);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testParallelInBatches() throws Exception {
+        final List<JsonValue> expected = readAll(JsonValueParser.builder().build(JSON));
+        assertEquals(expected, JsonValueParser.builder().build(JSON).stream().parallel().collect(Collectors.toList()));
+        assertEquals(expected, JsonValueParser.builder().build(new ByteArrayInputStream(BYTES)).stream().parallel().collect(Collectors.toList()));
+
+        // In the middle of a flattened top-level JSON array, it is not split by bytes.
+        final byte[] bytes = ("[1,2,3]\n" + JSON).getBytes(StandardCharsets.UTF_8);
+        final List<JsonValue> expectedFlattened = readAll(JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build(bytes, 0, bytes.length));
+        final JsonValueParser flattened = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build(bytes, 0, bytes.length);
+        assertEquals(JsonLong.of(1), flattened.readJsonValue());
+        final Spliterator<JsonValue> spliterator = flattened.stream().spliterator();
+        assertEquals(Long.MAX_VALUE, spliterator.estimateSize());
+        final List<JsonValue> actual = new ArrayList<>();
+        actual.add(JsonLong.of(1));
+        spliterator.trySplit().forEachRemaining(actual::add);
+        spliterator.forEachRemaining(actual::add);
+        assertEquals(expectedFlattened, actual);
+    }
+
+    @Test
+    public void testStreamAfterRead() throws Exception {
+        final List<JsonValue> expected = readAll(JsonValueParser.builder().build(JSON));
+        final JsonValueParser parser = JsonValueParser.builder().build(BYTES, 0, BYTES.length);
+        final List<JsonValue> actual = new ArrayList<>();
+        actual.add(parser.readJsonValue());
+        actual.add(parser.readJsonValue());
+        actual.addAll(parser.stream().parallel().collect(Collectors.toList()));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testCaptureStream() throws Exception {
+        final CapturingPointers pointers = CapturingPointers.builder().addJsonPointer("/id").addJsonPointer("/tags/1").build();
+        final JsonValueParser sequential = JsonValueParser.builder().build(JSON);
+        final List<JsonValue[]> actual = JsonValueParser.builder().build(BYTES, 0, BYTES.length)
+                .captureStream(pointers)
+                .parallel()
+                .collect(Collectors.toList());
+        for (final JsonValue[] values : actual) {
+            assertArrayEquals(sequential.captureJsonValues(pointers), values);
+        }
+        assertEquals(null, sequential.captureJsonValues(pointers));
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().build("1 [2");
+        assertThrows(JsonParseException.class, () -> {
+            parser.stream().collect(Collectors.toList());
+        });
+
+        // It fails after the first buffer is read in building the parser.
+        final InputStream failing = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("failing");
+            }
+
+            @Override
+            public int read(final byte[] buffer, final int offset, final int length) throws IOException {
+                if (this.hasRead) {
+                    throw new IOException("failing");
+                }
+                this.hasRead = true;
+                Arrays.fill(buffer, offset, offset + length, (byte) ' ');
+                return length;
+            }
+
+            private boolean hasRead = false;
+        };
+        assertThrows(UncheckedIOException.class, () -> {
+            JsonValueParser.builder().build(failing).stream().count();
+        });
+    }
+
+    @Test
+    public void testFindSplit() {
+        final byte[] bytes = "{\"a\":\"\n\"}\n[1,\n2]\n3\n".getBytes(StandardCharsets.UTF_8);
+        // Line feeds in the JSON string and in the JSON array are not split.
+        assertEquals(10, JsonValueSpliterator.findSplit(bytes, 0, bytes.length));
+        assertEquals(17, JsonValueSpliterator.findSplit(bytes, 10, bytes.length));
+        assertEquals(-1, JsonValueSpliterator.findSplit(bytes, 17, bytes.length));
+        assertEquals(-1, JsonValueSpliterator.findSplit(bytes, 0, 9));
+    }
+
+    private static List<JsonValue> readAll(final JsonValueParser parser) throws Exception {
+        final List<JsonValue> values = new ArrayList<>();
+        for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static String lines(final int count) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append("{\"id\":").append(i).append(",\"name\":\"\u3042\n").append(i % 7).append("\",\"tags\":[\"x\",");
+            builder.append(i % 3 == 0 ? "null" : Integer.toString(i)).append("],\"ok\":").append(i % 2 == 0).append("}");
+            builder.append(i % 100 == 0 ? "\n[\n  " + i + "\n]\n" : "\n");
+        }
+        return builder.toString();
+    }
+
+    private static final String JSON = lines(5000);
+
+    private static final byte[] BYTES = JSON.getBytes(StandardCharsets.UTF_8);
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonObject;
+import org.embulk.spi.json.JsonString;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestLazyJsonValue {
+    @Test
+    public void testMaterializeOnlyAccessed() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().enableLazyJsonValues().build(
+                "{\"a\":1,\"b\":{\"c\":[2,3],\"d\":{\"e\":\"f\"}},\"g\":[{\"h\":null}]}");
+        final JsonValue value = parser.readJsonValue();
+        assertNull(parser.readJsonValue());
+
+        assertTrue(value instanceof LazyJsonValue);
+        assertTrue(value.isJsonObject());
+        assertFalse(value.isJsonArray());
+        assertFalse(((LazyJsonValue) value).isMaterialized());
+
+        final JsonObject object = value.asJsonObject();
+        assertTrue(((LazyJsonValue) value).isMaterialized());
+        assertEquals(3, object.size());
+        assertEquals(JsonLong.of(1), object.get("a"));
+
+        final JsonValue b = object.get("b");
+        final JsonValue g = object.get("g");
+        assertTrue(b instanceof LazyJsonValue);
+        assertTrue(g instanceof LazyJsonValue);
+        assertTrue(g.isJsonArray());
+        assertFalse(((LazyJsonValue) b).isMaterialized());
+        assertFalse(((LazyJsonValue) g).isMaterialized());
+
+        final JsonValue d = b.asJsonObject().get("d");
+        assertTrue(((LazyJsonValue) b).isMaterialized());
+        assertFalse(((LazyJsonValue) d).isMaterialized());
+        assertEquals(JsonString.of("f"), d.asJsonObject().get("e"));
+        assertFalse(((LazyJsonValue) g).isMaterialized());
+    }
+
+    @Test
+    public void testSameAsEager() throws Exception {
+        final String json = "{\"a\":[1,2.5,\"x\",true,false,null,{\"b\":[[],{}]}],\"c\":\"\\u3042\\n\",\"d\":{}}"
+                + " [ {\"e\" : -12} , [ 3 ] ] 42 \"s\" {} []";
+        final JsonValueParser eager = JsonValueParser.builder().build(json);
+        final JsonValueParser lazy = JsonValueParser.builder().enableLazyJsonValues().build(json);
+        while (true) {
+            final JsonValue expected = eager.readJsonValue();
+            final JsonValue actual = lazy.readJsonValue();
+            if (expected == null) {
+                assertNull(actual);
+                break;
+            }
+            assertEquals(expected.getEntityType(), actual.getEntityType());
+            assertEquals(expected.toJson(), actual.toJson());
+            assertEquals(expected, actual);
+            assertEquals(actual, expected);
+            assertEquals(expected.hashCode(), actual.hashCode());
+
+            // A lazy value nested in an eager JSON object is equal to the eager one, in both directions.
+            final JsonObject expectedOuter = JsonObject.of("lazy", expected);
+            final JsonObject actualOuter = JsonObject.of("lazy", actual);
+            assertEquals(expectedOuter, actualOuter);
+            assertEquals(actualOuter, expectedOuter);
+            assertEquals(expectedOuter.hashCode(), actualOuter.hashCode());
+        }
+    }
+
+    @Test
+    public void testWithRootAndFlatten() throws Exception {
+        final String json = "{\"x\":{\"y\":[[{\"a\":1},{\"b\":[2]}],[{\"c\":{}}]]}} {\"x\":{\"y\":[[[3]]]}}";
+        final JsonValueParser parser = JsonValueParser.builder()
+                .root("/x/y")
+                .setDepthToFlattenJsonArrays(2)
+                .enableLazyJsonValues()
+                .build(json);
+        assertEquals("{\"a\":1}", parser.readJsonValue().toJson());
+        assertEquals("{\"b\":[2]}", parser.readJsonValue().toJson());
+        assertEquals("{\"c\":{}}", parser.readJsonValue().toJson());
+        assertEquals("[3]", parser.readJsonValue().toJson());
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testCaptureDirectMemberNames() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().enableLazyJsonValues().build(
+                "{\"foo\":{\"bar\":[1,2]},\"baz\":3}");
+        final JsonValue[] values = parser.captureJsonValues(CapturingPointers.builder()
+                .addDirectMemberName("foo")
+                .addDirectMemberName("baz")
+                .build());
+        assertTrue(values[0] instanceof LazyJsonValue);
+        assertEquals("{\"bar\":[1,2]}", values[0].toJson());
+        assertEquals(JsonLong.of(3), values[1]);
+    }
+
+    @Test
+    public void testLiterals() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder()
+                .enableSupplementalLiteralsWithNumbers()
+                .enableLazyJsonValues()
+                .build("[1.50, 100]");
+        final JsonValue value = parser.readJsonValue();
+        assertEquals("1.50", value.asJsonArray().get(0).asJsonDouble().toJson());
+        assertEquals("100", value.asJsonArray().get(1).asJsonLong().toJson());
+    }
+
+    @Test
+    public void testInvalidJsonThrowsOnRead() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().enableLazyJsonValues().build("{\"a\":[1,2}");
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonValue();
+        });
+    }
+
+    @Test
+    public void testMaxNestingDepth() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder()
+                .setMaxNestingDepth(2)
+                .enableLazyJsonValues()
+                .build("[[1]] [[[1]]]");
+        assertEquals("[[1]]", parser.readJsonValue().toJson());
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonValue();
+        });
+    }
+
+    @Test
+    public void testUnparsableNumberThrowsOnMaterialization() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().enableLazyJsonValues().build("[123456789012345678901234567890]");
+        final JsonValue value = parser.readJsonValue();
+        assertThrows(JsonParseException.class, () -> {
+            value.asJsonArray();
+        });
+
+        final JsonValueParser fallback = JsonValueParser.builder()
+                .fallbackForUnparsableNumbers(0.0, 7L)
+                .enableLazyJsonValues()
+                .build("[123456789012345678901234567890]");
+        assertEquals(JsonLong.of(7L), fallback.readJsonValue().asJsonArray().get(0));
+    }
+
+    @Test
+    public void testClassCast() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().enableLazyJsonValues().build("[1]");
+        final JsonValue value = parser.readJsonValue();
+        assertThrows(ClassCastException.class, () -> {
+            value.asJsonObject();
+        });
+        assertThrows(ClassCastException.class, () -> {
+            value.asJsonString();
+        });
+        assertFalse(((LazyJsonValue) value).isMaterialized());
+    }
+
+    @Test
+    public void testFromArraysAndBuffers() throws Exception {
+        final String json = "{\"a\":{\"b\":[\"\u3042\",{\"c\":\"\ud83c\udf63\"}]},\"d\":[1]} [2]";
+        final byte[] bytes = ("xyz" + json + "zyx").getBytes(StandardCharsets.UTF_8);
+        final int length = json.getBytes(StandardCharsets.UTF_8).length;
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.position(3).limit(3 + length);
+        final char[] chars = ("xyz" + json + "zyx").toCharArray();
+
+        final JsonValueParser[] parsers = {
+            JsonValueParser.builder().enableLazyJsonValues().build(bytes, 3, length),
+            JsonValueParser.builder().enableLazyJsonValues().build(ByteBuffer.wrap(bytes, 3, length)),
+            JsonValueParser.builder().enableLazyJsonValues().build(direct),
+            JsonValueParser.builder().enableLazyJsonValues().build(chars, 3, json.length()),
+        };
+        for (final JsonValueParser parser : parsers) {
+            final JsonValue value = parser.readJsonValue();
+            assertTrue(value instanceof LazyJsonValue);
+            final JsonValue c = value.asJsonObject().get("a").asJsonObject().get("b").asJsonArray().get(1);
+            assertTrue(c instanceof LazyJsonValue);
+            assertEquals(JsonString.of("\ud83c\udf63"), c.asJsonObject().get("c"));
+            assertEquals("[1]", value.asJsonObject().get("d").toJson());
+            assertEquals("[2]", parser.readJsonValue().toJson());
+            assertNull(parser.readJsonValue());
+        }
+    }
+
+    @Test
+    public void testEagerForUtf16() throws Exception {
+        final byte[] bytes = "{\"a\":1}".getBytes(StandardCharsets.UTF_16BE);
+        final JsonValue value = JsonValueParser.builder().enableLazyJsonValues().build(bytes, 0, bytes.length).readJsonValue();
+        assertFalse(value instanceof LazyJsonValue);
+        assertEquals("{\"a\":1}", value.toJson());
+    }
+
+    @Test
+    public void testEagerForInputStream() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().enableLazyJsonValues().build(
+                new ByteArrayInputStream("{\"a\":1}".getBytes(StandardCharsets.UTF_8)));
+        final JsonValue value = parser.readJsonValue();
+        assertFalse(value instanceof LazyJsonValue);
+        assertEquals("{\"a\":1}", value.toJson());
+    }
+}
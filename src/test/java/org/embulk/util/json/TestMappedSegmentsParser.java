@@ -0,0 +1,145 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestMappedSegmentsParser {
+    @Test
+    public void testAcrossSegments() throws Exception {
+        final Path path = writeTempFile(JSON);
+        try {
+            for (final int segmentSize : new int[] { 1, 2, 3, 7, 64, MappedSegmentsParser.DEFAULT_SEGMENT_SIZE }) {
+                final JsonValueParser expected = JsonValueParser.builder().build(JSON);
+                try (final JsonValueParser actual = JsonValueParser.builder().build(
+                        FileChannel.open(path, StandardOpenOption.READ), segmentSize, true)) {
+                    while (true) {
+                        final JsonValue expectedValue = expected.readJsonValue();
+                        assertEquals(expectedValue, actual.readJsonValue());
+                        if (expectedValue == null) {
+                            break;
+                        }
+                    }
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testFlattenAndCapture() throws Exception {
+        final String json = "[{\"a\":{\"b\":[1,2]},\"c\":\"d\"},{\"a\":{\"b\":[3]},\"c\":\"\u3042\"},{\"e\":[[[]]]}]";
+        final Path path = writeTempFile(json);
+        final CapturingPointers pointers = CapturingPointers.builder().addJsonPointer("/a/b/0").addDirectMemberName("c").build();
+        try (final JsonValueParser expected = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build(json);
+                final JsonValueParser actual = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build(
+                        FileChannel.open(path, StandardOpenOption.READ), 5, true)) {
+            for (int i = 0; i < 4; i++) {
+                final JsonValue[] expectedValues = expected.captureJsonValues(pointers);
+                final JsonValue[] actualValues = actual.captureJsonValues(pointers);
+                if (expectedValues == null) {
+                    assertNull(actualValues);
+                } else {
+                    assertEquals(expectedValues.length, actualValues.length);
+                    for (int j = 0; j < expectedValues.length; j++) {
+                        assertEquals(expectedValues[j], actualValues[j]);
+                    }
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testBuildFromPath() throws Exception {
+        final Path path = writeTempFile("{\"a\":1} [2]");
+        try {
+            final JsonValueParser parser = JsonValueParser.builder().build(path);
+            assertEquals("{\"a\":1}", parser.readJsonValue().toJson());
+            assertEquals("[2]", parser.readJsonValue().toJson());
+            assertNull(parser.readJsonValue());
+            parser.close();
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testBuildFromFileChannel() throws Exception {
+        final Path path = writeTempFile("xx {\"a\":1}");
+        try {
+            final FileChannel closed = FileChannel.open(path, StandardOpenOption.READ);
+            closed.position(2);
+            final JsonValueParser parser = JsonValueParser.builder().build(closed);
+            assertEquals("{\"a\":1}", parser.readJsonValue().toJson());
+            assertNull(parser.readJsonValue());
+            parser.close();
+            assertFalse(closed.isOpen());
+
+            final JsonFactory factory = new JsonFactory();
+            factory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            try (final FileChannel open = FileChannel.open(path, StandardOpenOption.READ)) {
+                open.position(3);
+                final JsonValueParser notClosing = JsonValueParser.builder(factory).build(open);
+                assertEquals("{\"a\":1}", notClosing.readJsonValue().toJson());
+                notClosing.close();
+                assertTrue(open.isOpen());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testIncomplete() throws Exception {
+        final Path path = writeTempFile("{\"a\":[1,2");
+        try (final JsonValueParser parser = JsonValueParser.builder().build(FileChannel.open(path, StandardOpenOption.READ), 3, true)) {
+            assertThrows(JsonParseException.class, () -> {
+                parser.readJsonValue();
+            });
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    private static Path writeTempFile(final String json) throws Exception {
+        final Path path = Files.createTempFile("embulk-util-json", ".json");
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static final String JSON =
+            "{\"a\":[1,-23,4.5e-6,\"x\",true,false,null,{\"b\":[[],{}]}],\"c\":\"\u3042\ud83c\udf63\\n\\u00e9\",\"d\":{}}\n"
+            + "123456789 [ {\"eeeeeeeeeeeeeeee\" : -12} , [ 3 ] ]\n\"string\\twith\\\"escapes\\\"\" {} [] 0 NaN -0.0\n"
+            + "{\"tab\":\"a\tb\"} 98765";
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestNonBlockingJsonValueParser {
+    @Test
+    public void testInPieces() throws Exception {
+        final List<JsonValue> expected = readAll(JsonValueParser.builder().build(JSON));
+        final byte[] bytes = JSON.getBytes(StandardCharsets.UTF_8);
+        for (final int pieceSize : new int[] { 1, 2, 3, 7, 64, bytes.length }) {
+            final NonBlockingJsonValueParser parser = JsonValueParser.builder().buildNonBlocking();
+            final List<JsonValue> actual = new ArrayList<>();
+            // The same byte array is overwritten for every piece.
+            final byte[] buffer = new byte[pieceSize];
+            for (int offset = 0; offset < bytes.length; offset += pieceSize) {
+                final int length = Math.min(pieceSize, bytes.length - offset);
+                System.arraycopy(bytes, offset, buffer, 0, length);
+                parser.feed(buffer, 0, length);
+                Arrays.fill(buffer, (byte) 0);
+                for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                    actual.add(value);
+                }
+            }
+            parser.endOfInput();
+            for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                actual.add(value);
+            }
+            parser.close();
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testAvailableWhenCompleted() throws Exception {
+        final NonBlockingJsonValueParser parser = JsonValueParser.builder().buildNonBlocking();
+        parser.feed(utf8("{\"a\":[1,"));
+        assertNull(parser.readJsonValue());
+        parser.feed(utf8("2]} [3"));
+        assertEquals("{\"a\":[1,2]}", parser.readJsonValue().toJson());
+        assertNull(parser.readJsonValue());
+        parser.feed(utf8("] 45"));
+        assertEquals("[3]", parser.readJsonValue().toJson());
+        assertNull(parser.readJsonValue());
+
+        // The number may continue until the end of input is signaled.
+        parser.endOfInput();
+        assertEquals(JsonLong.of(45), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testWithRootAndFlatten() throws Exception {
+        final String json = "{\"x\":{\"y\":[[{\"a\":1},{\"b\":[2]}],[{\"c\":{}}]]}} {\"z\":0} {\"x\":{\"y\":[[[3]]]}}";
+        final NonBlockingJsonValueParser parser = JsonValueParser.builder()
+                .root("/x/y")
+                .setDepthToFlattenJsonArrays(2)
+                .buildNonBlocking();
+        feedInPieces(parser, json, 5);
+        parser.endOfInput();
+        assertEquals("{\"a\":1}", parser.readJsonValue().toJson());
+        assertEquals("{\"b\":[2]}", parser.readJsonValue().toJson());
+        assertEquals("{\"c\":{}}", parser.readJsonValue().toJson());
+        assertEquals("[3]", parser.readJsonValue().toJson());
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testSameSelectionWithJsonValueParser() throws Exception {
+        final String json = "[1,[2,{\"a\":[3]}],{\"a\":4},[[5,[6]]]] {\"a\":[7,[8,{\"b\":9}]],\"c\":{\"a\":10}} 11 \"s\""
+                + " {\"a\":{\"0\":12,\"1\":[13]},\"a\":[14,15]} [[{\"a\":16}]]";
+        for (final String root : new String[] { null, "", "/a", "/a/1", "/0", "/a/0", "/c/a" }) {
+            for (int depth = 0; depth <= 3; depth++) {
+                final JsonValueParser.Builder builder = JsonValueParser.builder().setDepthToFlattenJsonArrays(depth);
+                if (root != null) {
+                    builder.root(root);
+                }
+                final NonBlockingJsonValueParser parser = builder.buildNonBlocking();
+                feedInPieces(parser, json, 1);
+                parser.endOfInput();
+                // Compared in strings, as JSON objects with duplicated member names are not equal to each other.
+                final List<String> actual = new ArrayList<>();
+                for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                    actual.add(value.toJson());
+                }
+                final List<String> expected = new ArrayList<>();
+                for (final JsonValue value : readAll(builder.build(json))) {
+                    expected.add(value.toJson());
+                }
+                assertEquals(expected, actual, "root: " + root + ", depth: " + depth);
+            }
+        }
+    }
+
+    @Test
+    public void testCaptureJsonValues() throws Exception {
+        final String json = "[{\"a\":{\"b\":[1,2]},\"c\":\"d\"},{\"a\":{\"b\":[3]},\"c\":\"\u3042\"}] [{\"e\":[[[]]]}]";
+        final CapturingPointers pointers = CapturingPointers.builder().addJsonPointer("/a/b/0").addDirectMemberName("c").build();
+        final JsonValueParser expected = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build(json);
+        final NonBlockingJsonValueParser actual = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).buildNonBlocking();
+        feedInPieces(actual, json, 3);
+        actual.endOfInput();
+        for (int i = 0; i < 4; i++) {
+            assertArrayEquals(expected.captureJsonValues(pointers), actual.captureJsonValues(pointers));
+        }
+    }
+
+    @Test
+    public void testFeedByteBuffers() throws Exception {
+        final byte[] bytes = ("xyz" + JSON + "zyx").getBytes(StandardCharsets.UTF_8);
+        final int length = JSON.getBytes(StandardCharsets.UTF_8).length;
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes);
+        direct.position(3);
+        direct.limit(3 + length);
+
+        final List<JsonValue> expected = readAll(JsonValueParser.builder().build(JSON));
+        for (final ByteBuffer buffer : new ByteBuffer[] { ByteBuffer.wrap(bytes, 3, length), direct, direct.asReadOnlyBuffer() }) {
+            final NonBlockingJsonValueParser parser = JsonValueParser.builder().buildNonBlocking();
+            parser.feed(buffer);
+            assertEquals(3, buffer.position());
+            parser.endOfInput();
+            final List<JsonValue> actual = new ArrayList<>();
+            for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                actual.add(value);
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testOptions() throws Exception {
+        final NonBlockingJsonValueParser parser = JsonValueParser.builder()
+                .enableSupplementalLiteralsWithNumbers()
+                .setMaxNestingDepth(2)
+                .root("/a")
+                .buildNonBlocking();
+        // The depth is counted from the root, as JsonValueParser does.
+        parser.feed(utf8("{\"a\":[1.50,[100]]} {\"a\":[[[1]]]}"));
+        parser.endOfInput();
+        final JsonValue value = parser.readJsonValue();
+        assertEquals("1.50", value.asJsonArray().get(0).toJson());
+        assertEquals("[100]", value.asJsonArray().get(1).toJson());
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonValue();
+        });
+
+        final NonBlockingJsonValueParser fallback = JsonValueParser.builder()
+                .fallbackForUnparsableNumbers(0.0, 7L)
+                .buildNonBlocking();
+        fallback.feed(utf8("[123456789012345678901234567890]"));
+        assertEquals("[7]", fallback.readJsonValue().toJson());
+    }
+
+    @Test
+    public void testStreamingInLargeArray() throws Exception {
+        final NonBlockingJsonValueParser flattened = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).buildNonBlocking();
+        flattened.feed(utf8("[{\"a\":1},"));
+        // Available before the top-level JSON array is completed.
+        assertEquals("{\"a\":1}", flattened.readJsonValue().toJson());
+        assertNull(flattened.readJsonValue());
+        flattened.feed(utf8("{\"a\":[2,"));
+        assertNull(flattened.readJsonValue());
+        flattened.feed(utf8("3]},4"));
+        assertEquals("{\"a\":[2,3]}", flattened.readJsonValue().toJson());
+        assertNull(flattened.readJsonValue());
+        flattened.feed(utf8(",{}]"));
+        assertEquals(JsonLong.of(4), flattened.readJsonValue());
+        assertEquals("{}", flattened.readJsonValue().toJson());
+        assertNull(flattened.readJsonValue());
+
+        final NonBlockingJsonValueParser rooted = JsonValueParser.builder().root("/x/1").buildNonBlocking();
+        rooted.feed(utf8("{\"y\":{\"x\":[0,9]},\"x\":[{\"z\":0},{\"z\":1},"));
+        assertEquals("{\"z\":1}", rooted.readJsonValue().toJson());
+        rooted.feed(utf8("{\"z\":2}]}"));
+        assertNull(rooted.readJsonValue());
+        rooted.endOfInput();
+        assertNull(rooted.readJsonValue());
+    }
+
+    @Test
+    public void testInvalidJson() throws Exception {
+        // The failure is thrown after the JSON values completed before it, even in the same piece.
+        final NonBlockingJsonValueParser invalid = JsonValueParser.builder().buildNonBlocking();
+        invalid.feed(utf8("1 [2] {\"a\":[1,2}"));
+        invalid.feed(utf8(" 3"));
+        assertEquals(JsonLong.of(1), invalid.readJsonValue());
+        assertEquals("[2]", invalid.readJsonValue().toJson());
+        assertThrows(JsonParseException.class, () -> {
+            invalid.readJsonValue();
+        });
+
+        final NonBlockingJsonValueParser flattened = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).buildNonBlocking();
+        flattened.feed(utf8("[{\"a\":1},{\"b\":2},{\"c\":}]"));
+        final CapturingPointers pointers = CapturingPointers.builder().addDirectMemberName("b").build();
+        assertArrayEquals(new JsonValue[] { null }, flattened.captureJsonValues(pointers));
+        assertArrayEquals(new JsonValue[] { JsonLong.of(2) }, flattened.captureJsonValues(pointers));
+        assertThrows(JsonParseException.class, () -> {
+            flattened.captureJsonValues(pointers);
+        });
+
+        final NonBlockingJsonValueParser incomplete = JsonValueParser.builder().buildNonBlocking();
+        incomplete.feed(utf8("{\"a\":[1,2"));
+        incomplete.endOfInput();
+        assertThrows(JsonParseException.class, () -> {
+            incomplete.readJsonValue();
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            incomplete.feed(utf8("]}"));
+        });
+        assertThrows(IndexOutOfBoundsException.class, () -> {
+            incomplete.feed(new byte[2], 1, 2);
+        });
+
+        final NonBlockingJsonValueParser unclosed = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).buildNonBlocking();
+        unclosed.feed(utf8("[1,2"));
+        unclosed.endOfInput();
+        final JsonValueParser sequential = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build("[1,2");
+        assertEquals(sequential.readJsonValue(), unclosed.readJsonValue());
+        assertEquals(sequential.readJsonValue(), unclosed.readJsonValue());
+        assertThrows(JsonParseException.class, () -> {
+            sequential.readJsonValue();
+        });
+        assertThrows(JsonParseException.class, () -> {
+            unclosed.readJsonValue();
+        });
+    }
+
+    private static List<JsonValue> readAll(final JsonValueParser parser) throws Exception {
+        final List<JsonValue> values = new ArrayList<>();
+        for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+            values.add(value);
+        }
+        return values;
+    }
+
+    private static void feedInPieces(final NonBlockingJsonValueParser parser, final String json, final int pieceSize) throws Exception {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        for (int offset = 0; offset < bytes.length; offset += pieceSize) {
+            parser.feed(bytes, offset, Math.min(pieceSize, bytes.length - offset));
+        }
+    }
+
+    private static ByteBuffer utf8(final String json) {
+        return ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final String JSON =
+            "{\"a\":[1,-23,4.5e-6,\"x\",true,false,null,{\"b\":[[],{}]}],\"c\":\"\u3042\ud83c\udf63\\n\\u00e9\",\"d\":{}}\n"
+            + "123456789 [ {\"eeeeeeeeeeeeeeee\" : -12} , [ 3 ] ]\n\"string\\twith\\\"escapes\\\"\" {} [] 0 NaN -0.0\n"
+            + "{\"tab\":\"a\tb\"} [\"" + repeat('s', 300) + "\", {\"" + repeat('k', 40) + "\":\"\u00e9\u00e8\"}] 98765";
+
+    private static String repeat(final char c, final int count) {
+        final char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
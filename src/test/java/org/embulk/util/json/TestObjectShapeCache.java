@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonObject;
+import org.embulk.spi.json.JsonString;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestObjectShapeCache {
+    @Test
+    public void testSameShape() {
+        final ObjectShapeCache cache = ObjectShapeCache.withCapacity(16);
+        final String[] shape1 = canonicalize(cache, "foo", "bar", "baz");
+        assertArrayEquals(new String[] { "foo", "bar", "baz" }, shape1);
+
+        // Not the same String instances, but equal.
+        final String[] keys = new String[] { new String("foo"), new String("bar"), new String("baz"), "qux" };
+        assertSame(shape1, cache.canonicalize(keys, 3));
+    }
+
+    @Test
+    public void testDifferentShapes() {
+        final ObjectShapeCache cache = ObjectShapeCache.withCapacity(16);
+        final String[] shape1 = canonicalize(cache, "foo", "bar");
+        final String[] shape2 = canonicalize(cache, "bar", "foo");
+        final String[] shape3 = canonicalize(cache, "foo", "bar", "baz");
+        final String[] shape4 = canonicalize(cache);
+        assertArrayEquals(new String[] { "bar", "foo" }, shape2);
+        assertArrayEquals(new String[] { "foo", "bar", "baz" }, shape3);
+        assertEquals(0, shape4.length);
+        assertNotSame(shape1, shape2);
+        assertSame(shape4, canonicalize(cache));
+    }
+
+    @Test
+    public void testReplaced() {
+        // All shapes share the only entry with the capacity 1.
+        final ObjectShapeCache cache = ObjectShapeCache.withCapacity(1);
+        final String[] shape1 = canonicalize(cache, "foo");
+        final String[] shape2 = canonicalize(cache, "bar");
+        assertArrayEquals(new String[] { "bar" }, shape2);
+        assertSame(shape2, canonicalize(cache, "bar"));
+        assertNotSame(shape1, canonicalize(cache, "foo"));
+    }
+
+    @Test
+    public void testCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> {
+            ObjectShapeCache.withCapacity(0);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            ObjectShapeCache.withCapacity(ObjectShapeCache.MAX_CAPACITY + 1);
+        });
+    }
+
+    private static String[] canonicalize(final ObjectShapeCache cache, final String... keys) {
+        return cache.canonicalize(keys, keys.length);
+    }
+
+    @Test
+    public void testParser() throws Exception {
+        final JsonValueParser parser = JsonValueParser.builder().setObjectShapeCacheSize(4).build(
+                "{\"id\":1,\"name\":\"foo\"}{\"id\":2,\"name\":\"bar\"}{\"name\":\"baz\",\"id\":3}{}");
+        assertEquals(JsonObject.of("id", JsonLong.of(1L), "name", JsonString.of("foo")), parser.readJsonValue());
+        assertEquals(JsonObject.of("id", JsonLong.of(2L), "name", JsonString.of("bar")), parser.readJsonValue());
+        final JsonValue third = parser.readJsonValue();
+        assertEquals(JsonObject.of("name", JsonString.of("baz"), "id", JsonLong.of(3L)), third);
+        assertEquals(Arrays.asList("name", "id"), new ArrayList<>(third.asJsonObject().keySet()));
+        assertEquals(JsonObject.of(), parser.readJsonValue());
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.embulk.spi.json.JsonLong;
+import org.embulk.spi.json.JsonValue;
+import org.junit.jupiter.api.Test;
+
+public class TestParallelJsonValueParser {
+    @Test
+    public void testInOrder() throws Exception {
+        final String json = lines(1000);
+        final List<JsonValue> expected = new ArrayList<>();
+        final JsonValueParser sequential = JsonValueParser.builder().build(json);
+        for (JsonValue value = sequential.readJsonValue(); value != null; value = sequential.readJsonValue()) {
+            expected.add(value);
+        }
+        assertEquals(1002, expected.size());
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (final int chunkSize : new int[] { 1, 7, 100, 4096, 1 << 20 }) {
+                for (final long maxInFlightBytes : new long[] { 100, 1000, 1L << 30 }) {
+                    final ParallelJsonValueParser parser = JsonValueParser.builder()
+                            .setParallelChunkSize(chunkSize)
+                            .setParallelMaxInFlightBytes(maxInFlightBytes)
+                            .buildParallel(utf8(json), executor);
+                    final List<JsonValue> actual = new ArrayList<>();
+                    for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                        actual.add(value);
+                    }
+                    parser.close();
+                    assertEquals(expected, actual);
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCaptureJsonValues() throws Exception {
+        final String json = lines(300).replace("\"first\"", "{\"id\":-1}");
+        final CapturingPointers pointers = CapturingPointers.builder().addJsonPointer("/id").addJsonPointer("/tags/1").build();
+        final JsonValueParser sequential = JsonValueParser.builder().build(json);
+        final ParallelJsonValueParser parser = JsonValueParser.builder()
+                .setParallelChunkSize(256)
+                .buildParallel(utf8(json), Runnable::run, pointers);
+        while (true) {
+            final JsonValue[] expected = sequential.captureJsonValues(pointers);
+            final JsonValue[] actual = parser.captureJsonValues();
+            if (expected == null) {
+                assertNull(actual);
+                break;
+            }
+            assertArrayEquals(expected, actual);
+        }
+        assertThrows(IllegalStateException.class, () -> {
+            parser.readJsonValue();
+        });
+    }
+
+    @Test
+    public void testOptions() throws Exception {
+        final ParallelJsonValueParser parser = JsonValueParser.builder()
+                .root("/a")
+                .setDepthToFlattenJsonArrays(1)
+                .enableJsonLongCache(0, 10)
+                .setParallelChunkSize(8)
+                .buildParallel(utf8("{\"a\":[1,2]}\r\n{\"b\":3}\n\n{\"a\":[[4]]}\n{\"a\":5}"));
+        assertEquals(JsonLong.of(1), parser.readJsonValue());
+        assertEquals(JsonLong.of(2), parser.readJsonValue());
+        assertEquals("[4]", parser.readJsonValue().toJson());
+        assertEquals(JsonLong.of(5), parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+        assertNull(parser.readJsonValue());
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonValueParser.builder().setParallelChunkSize(0);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            JsonValueParser.builder().setParallelMaxInFlightBytes(0);
+        });
+    }
+
+    @Test
+    public void testFailureAfterValuesBefore() throws Exception {
+        final ParallelJsonValueParser parser = JsonValueParser.builder()
+                .buildParallel(utf8("{\"a\":1}\n{\"a\":2}\n{\"a\":\n{\"a\":4}\n"), Runnable::run);
+        assertEquals("{\"a\":1}", parser.readJsonValue().toJson());
+        assertEquals("{\"a\":2}", parser.readJsonValue().toJson());
+        assertThrows(JsonParseException.class, () -> {
+            parser.readJsonValue();
+        });
+    }
+
+    @Test
+    public void testUnbalancedLine() throws Exception {
+        for (final String unbalanced : new String[] { "{\"a\":\"x}\n", "[1, {\"a\":2}\n" }) {
+            final String json = lines(10) + "\n" + unbalanced + lines(10000);
+            final List<JsonValue> expected = new ArrayList<>();
+            final JsonValueParser sequential = JsonValueParser.builder().build(json);
+            final JsonParseException expectedFailure = assertThrows(JsonParseException.class, () -> {
+                for (JsonValue value = sequential.readJsonValue(); value != null; value = sequential.readJsonValue()) {
+                    expected.add(value);
+                }
+            });
+
+            // The line is not cut out of the unbalanced quote or bracket, then the rest would be buffered without the bound.
+            final ParallelJsonValueParser parser = JsonValueParser.builder()
+                    .setParallelChunkSize(64)
+                    .setParallelMaxInFlightBytes(1024)
+                    .buildParallel(utf8(json), Runnable::run);
+            final List<JsonValue> actual = new ArrayList<>();
+            final JsonParseException actualFailure = assertThrows(JsonParseException.class, () -> {
+                for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                    actual.add(value);
+                }
+            });
+            assertEquals(expected, actual);
+            assertEquals(expectedFailure.getCause().getClass(), actualFailure.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void testTooLongLine() throws Exception {
+        final StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longLine.append(i).append(' ');
+        }
+        final ParallelJsonValueParser parser = JsonValueParser.builder()
+                .setParallelChunkSize(64)
+                .setParallelMaxInFlightBytes(1024)
+                .buildParallel(utf8("1\n2\n" + longLine + "\n3\n"), Runnable::run);
+        assertEquals(JsonLong.of(1), parser.readJsonValue());
+        assertEquals(JsonLong.of(2), parser.readJsonValue());
+        final JsonParseException failure = assertThrows(JsonParseException.class, () -> {
+            parser.readJsonValue();
+        });
+        assertEquals("A line of JSON is longer than the maximum size of chunks in flight: 1024 bytes", failure.getMessage());
+        assertNull(parser.readJsonValue());
+
+        final StringBuilder longElement = new StringBuilder("[1,2,[");
+        for (int i = 0; i < 1000; i++) {
+            longElement.append(i).append(',');
+        }
+        longElement.append("0],3]");
+        final ParallelJsonValueParser elements = JsonValueParser.builder()
+                .setParallelChunkSize(1)
+                .setParallelMaxInFlightBytes(1024)
+                .buildParallelElements(utf8(longElement.toString()), Runnable::run);
+        assertEquals(JsonLong.of(1), elements.readJsonValue());
+        assertEquals(JsonLong.of(2), elements.readJsonValue());
+        final JsonParseException elementFailure = assertThrows(JsonParseException.class, () -> {
+            elements.readJsonValue();
+        });
+        assertEquals("An element of JSON is longer than the maximum size of chunks in flight: 1024 bytes", elementFailure.getMessage());
+    }
+
+    @Test
+    public void testLineFeedsInJsonValues() throws Exception {
+        // Line feeds in JSON strings, as unquoted control characters, and in JSON values printed in lines.
+        final String json = "{\"a\":\"x\ny\"}\n[1,\n2]\n\"\\\"\n]\"\n{\n  \"b\": {}\n}\n3";
+        final List<JsonValue> expected = new ArrayList<>();
+        final JsonValueParser sequential = JsonValueParser.builder().build(json);
+        for (JsonValue value = sequential.readJsonValue(); value != null; value = sequential.readJsonValue()) {
+            expected.add(value);
+        }
+        assertEquals(5, expected.size());
+
+        for (final int chunkSize : new int[] { 1, 3, 8, 1 << 20 }) {
+            final ParallelJsonValueParser parser = JsonValueParser.builder()
+                    .setParallelChunkSize(chunkSize)
+                    .buildParallel(utf8(json), Runnable::run);
+            final List<JsonValue> actual = new ArrayList<>();
+            for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                actual.add(value);
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertNull(JsonValueParser.builder().buildParallel(utf8("")).readJsonValue());
+        assertNull(JsonValueParser.builder().buildParallel(utf8("\n\n \n")).readJsonValue());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        final boolean[] closed = { false };
+        final InputStream input = new ByteArrayInputStream(lines(10).getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        final ParallelJsonValueParser parser = JsonValueParser.builder().setParallelChunkSize(16).buildParallel(input);
+        parser.readJsonValue();
+        parser.close();
+        assertTrue(closed[0]);
+        assertNull(parser.readJsonValue());
+    }
+
+    @Test
+    public void testElements() throws Exception {
+        final String json = "[" + lines(500).replace("\r\n", ",").replace("\n", ",") + "]";
+        final List<JsonValue> expected = new ArrayList<>();
+        final JsonValueParser sequential = JsonValueParser.builder().setDepthToFlattenJsonArrays(1).build(json);
+        for (JsonValue value = sequential.readJsonValue(); value != null; value = sequential.readJsonValue()) {
+            expected.add(value);
+        }
+        assertEquals(502, expected.size());
+
+        for (final int chunkSize : new int[] { 1, 100, 1 << 20 }) {
+            final ParallelJsonValueParser parser = JsonValueParser.builder()
+                    .setDepthToFlattenJsonArrays(1)
+                    .setParallelChunkSize(chunkSize)
+                    .setParallelMaxInFlightBytes(4096)
+                    .buildParallelElements(utf8(json));
+            final List<JsonValue> actual = new ArrayList<>();
+            for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                actual.add(value);
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testElementsOfObject() throws Exception {
+        final CapturingPointers pointers = CapturingPointers.builder().addJsonPointer("/id1/a").addJsonPointer("/id2").build();
+        final ParallelJsonValueParser parser = JsonValueParser.builder()
+                .setParallelChunkSize(8)
+                .buildParallelElements(utf8("{\"id1\": {\"a\": [1]}, \"id2\": \"}\"}"), Runnable::run, pointers);
+        assertEquals("[[1], null]", Arrays.toString(parser.captureJsonValues()));
+        assertEquals("[null, \"}\"]", Arrays.toString(parser.captureJsonValues()));
+        assertNull(parser.captureJsonValues());
+    }
+
+    @Test
+    public void testElementsWithOptions() throws Exception {
+        final ParallelJsonValueParser flattened = JsonValueParser.builder()
+                .setDepthToFlattenJsonArrays(2)
+                .buildParallelElements(utf8("[[1, [2]], 3]"), Runnable::run);
+        assertEquals(JsonLong.of(1), flattened.readJsonValue());
+        assertEquals("[2]", flattened.readJsonValue().toJson());
+        assertEquals(JsonLong.of(3), flattened.readJsonValue());
+        assertNull(flattened.readJsonValue());
+
+        final ParallelJsonValueParser invalid = JsonValueParser.builder()
+                .setParallelChunkSize(1)
+                .buildParallelElements(utf8("[1, 2, x, 4]"), Runnable::run);
+        assertEquals(JsonLong.of(1), invalid.readJsonValue());
+        assertEquals(JsonLong.of(2), invalid.readJsonValue());
+        assertThrows(JsonParseException.class, () -> {
+            invalid.readJsonValue();
+        });
+
+        final ParallelJsonValueParser scalar = JsonValueParser.builder().buildParallelElements(utf8("[1] 2"), Runnable::run);
+        assertEquals(JsonLong.of(1), scalar.readJsonValue());
+        assertThrows(JsonParseException.class, () -> {
+            scalar.readJsonValue();
+        });
+
+        assertThrows(IllegalStateException.class, () -> {
+            JsonValueParser.builder().root("/a/0").buildParallelElements(utf8("[]"));
+        });
+        assertThrows(IllegalStateException.class, () -> {
+            JsonValueParser.builder().root("").buildParallelElements(utf8("[]"));
+        });
+    }
+
+    @Test
+    public void testElementsSameAsSequential() throws Exception {
+        // JSON arrays at the top-level, or at the root, with the other members and top-level JSON values to be skipped.
+        final StringBuilder records = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            records.append(i == 0 ? "" : ", ").append("{\"id\":").append(i).append(",\"s\":\"],}\\\"{\",\"a\":[").append(i).append(",[")
+                    .append(-i).append("]]}");
+        }
+        final String[] jsons = {
+            "[" + records + "] [[1, [2]], 3]",
+            "{\"meta\":{\"data\":[\"not root\"]},\"data\":[" + records + "],\"tail\":\"x\"}\n"
+                    + "[0] 12 \"data\" {\"data\":[[1, [2]], 3]} {\"other\":null}",
+            "{\"a\":{\"x\":[1],\"b\":[" + records + "]},\"a\":{\"b\":[9]}} {\"a\":[{\"b\":[0]}]}",
+            "{\"\\u0064ata\":[1, 2], \"d\\\"\":[3]}",
+        };
+        for (final String json : jsons) {
+            for (final String root : new String[] { null, "/data", "/a/b" }) {
+                for (final int depth : new int[] { 1, 2 }) {
+                    if (root == null && json.startsWith("{")) {
+                        continue;  // JSON objects at the top-level are split only by the parallel parser.
+                    }
+                    final JsonValueParser.Builder builder = JsonValueParser.builder().setDepthToFlattenJsonArrays(depth);
+                    if (root != null) {
+                        builder.root(root);
+                    }
+                    final List<String> expected = new ArrayList<>();
+                    final JsonValueParser sequential = builder.build(json);
+                    for (JsonValue value = sequential.readJsonValue(); value != null; value = sequential.readJsonValue()) {
+                        expected.add(value.toJson());
+                    }
+
+                    for (final int chunkSize : new int[] { 1, 100, 1 << 20 }) {
+                        final ParallelJsonValueParser parser = builder.setParallelChunkSize(chunkSize).buildParallelElements(utf8(json), Runnable::run);
+                        final List<String> actual = new ArrayList<>();
+                        for (JsonValue value = parser.readJsonValue(); value != null; value = parser.readJsonValue()) {
+                            actual.add(value.toJson());
+                        }
+                        assertEquals(expected, actual, json + " with " + root + " and " + depth);
+                    }
+                }
+            }
+        }
+
+        final ParallelJsonValueParser incomplete = JsonValueParser.builder()
+                .root("/data")
+                .buildParallelElements(utf8("{\"data\":[1, 2], \"more\":[3, "), Runnable::run);
+        assertEquals(JsonLong.of(1), incomplete.readJsonValue());
+        assertEquals(JsonLong.of(2), incomplete.readJsonValue());
+        assertThrows(JsonParseException.class, () -> {
+            incomplete.readJsonValue();
+        });
+    }
+
+    private static InputStream utf8(final String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String lines(final int count) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("\"first\"\n");
+        for (int i = 0; i < count; i++) {
+            builder.append("{\"id\":").append(i).append(",\"name\":\"\u3042").append(i % 7).append("\",\"tags\":[\"x\",");
+            builder.append(i % 3 == 0 ? "null" : Integer.toString(i)).append("],\"ok\":").append(i % 2 == 0).append("}");
+            builder.append(i % 5 == 0 ? "\r\n" : "\n");
+        }
+        builder.append("[1.5, \"last without a line feed\"]");
+        return builder.toString();
+    }
+}
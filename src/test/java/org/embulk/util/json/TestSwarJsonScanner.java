@@ -0,0 +1,139 @@
+/*
+ * Copyright 2026 The Embulk project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.embulk.util.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+public class TestSwarJsonScanner {
+    @Test
+    public void testMatches() {
+        final long word = 0x22_5c_0a_80_a2_dc_7b_5bL;
+        assertEquals(0x80_00_00_00_00_00_00_00L, SwarJsonScanner.matches(word, 0x2222222222222222L));
+        assertEquals(0x00_80_00_00_00_00_00_00L, SwarJsonScanner.matches(word, 0x5c5c5c5c5c5c5c5cL));
+        assertEquals(0x00_00_80_00_00_00_00_00L, SwarJsonScanner.matches(word, 0x0a0a0a0a0a0a0a0aL));
+        // Bytes with the most significant bit never match ASCII, without borrows.
+        assertEquals(0L, SwarJsonScanner.matches(0x0101010101010101L, 0x0000000000000000L));
+        assertEquals(0x00_00_00_00_00_00_80_80L, SwarJsonScanner.matches(word | 0x2020202020202020L, 0x7b7b7b7b7b7b7b7bL));
+    }
+
+    @Test
+    public void testFindLineFeed() {
+        // Line feeds in JSON strings, as unquoted control characters, and in JSON values printed in lines are skipped.
+        final String json = "{\"a\":\"x\ny\"}\n[1,\n2]\n\"\\\"\n\\\\\"\n\"\\\\\\\\\"\n{\"b\":\"]}\\\"\n\"}\n";
+        assertEquals(lineFeeds(json), findLineFeeds(json, json.length()));
+        assertEquals(list(11, 18, 26, 33, 47), findLineFeeds(json, json.length()));
+    }
+
+    @Test
+    public void testSkipValue() {
+        final byte[] bytes = "[\"]\\\"\", {\"a\":[{}, \"}\"]}] , \"\\\\\\\"\\\\\" {}".getBytes(StandardCharsets.UTF_8);
+        final SwarJsonScanner scanner = new SwarJsonScanner();
+        assertEquals(24, scanner.skipValue(bytes, 0, bytes.length));
+        assertEquals(35, scanner.skipValue(bytes, 27, bytes.length));
+        assertEquals(38, scanner.skipValue(bytes, 36, bytes.length));
+
+        // Skipping continues over calls.
+        final SwarJsonScanner blocks = new SwarJsonScanner();
+        assertEquals(-1, blocks.skipValue(bytes, 0, 12));
+        assertEquals(2, blocks.depth());
+        assertEquals(-1, blocks.skipValue(bytes, 12, 20));
+        assertTrue(blocks.isInString());
+        assertEquals(24, blocks.skipValue(bytes, 20, bytes.length));
+        assertFalse(blocks.isInString());
+        assertEquals(0, blocks.depth());
+    }
+
+    @Test
+    public void testRandomAgainstByteByByte() {
+        final Random random = new Random(1234);
+        final String alphabet = "\"\\[]{}\n, a\u3042";
+        for (int trial = 0; trial < 2000; trial++) {
+            final StringBuilder builder = new StringBuilder();
+            final int length = random.nextInt(80);
+            for (int i = 0; i < length; i++) {
+                builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+            final String json = builder.toString();
+            final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+            assertEquals(lineFeeds(json), findLineFeeds(json, 1 + random.nextInt(bytes.length + 1)), json);
+        }
+    }
+
+    /**
+     * Finds line feeds with the scanner, in blocks of the size.
+     */
+    private static List<Integer> findLineFeeds(final String json, final int blockSize) {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final SwarJsonScanner scanner = new SwarJsonScanner();
+        final List<Integer> found = new ArrayList<>();
+        for (int blockStart = 0; blockStart < bytes.length; blockStart += blockSize) {
+            final int blockEnd = Math.min(blockStart + blockSize, bytes.length);
+            for (int i = scanner.findLineFeed(bytes, blockStart, blockEnd); i >= 0; i = scanner.findLineFeed(bytes, i + 1, blockEnd)) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds line feeds byte by byte, as a reference.
+     */
+    private static List<Integer> lineFeeds(final String json) {
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final List<Integer> found = new ArrayList<>();
+        boolean isInString = false;
+        boolean isEscaped = false;
+        int depth = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            final byte b = bytes[i];
+            if (isInString) {
+                if (isEscaped) {
+                    isEscaped = false;
+                } else if (b == '\\') {
+                    isEscaped = true;
+                } else if (b == '"') {
+                    isInString = false;
+                }
+            } else if (b == '"') {
+                isInString = true;
+            } else if (b == '[' || b == '{') {
+                depth++;
+            } else if ((b == ']' || b == '}') && depth > 0) {
+                depth--;
+            } else if (b == '\n' && depth == 0) {
+                found.add(i);
+            }
+        }
+        return found;
+    }
+
+    private static List<Integer> list(final Integer... values) {
+        final List<Integer> list = new ArrayList<>();
+        for (final Integer value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}